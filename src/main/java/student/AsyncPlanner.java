@@ -0,0 +1,339 @@
+package student;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the queries of a {@link Planner} on an executor and returns futures and publishers
+ * instead of streams, for servers handling many sessions at once.
+ *
+ * Queries on one AsyncPlanner run one after the other in the order they were submitted,
+ * since each filter builds on the last, but no thread waits for that: each query is
+ * handed to the executor when the one before it finishes. By default every facade shares
+ * one executor, which starts a virtual thread per query when the JVM has them (Java 21 and
+ * later), and uses a cached pool of daemon threads otherwise, so idle sessions hold no
+ * thread of their own.
+ *
+ * Results are the games of the planner's {@link ResultSnapshot snapshots}, which are never
+ * changed once made, so they can be read at any pace without holding up later queries.
+ * Cancelling a future stops the scan of its filter within
+ * {@value ScanExecutor#CANCEL_CHECK_INTERVAL} games, leaving the planner's current results
+ * as they were. For example:
+ *
+ * <pre>
+ * try (AsyncPlanner async = new AsyncPlanner(planner)) {
+ *     async.filter("players==4", SortKey.parse("rating desc")).thenAccept(games -&gt; ...);
+ * }
+ * </pre>
+ */
+public final class AsyncPlanner implements AutoCloseable {
+    /** the executor shared by the facades not given one. */
+    private static final ExecutorService SHARED = defaultExecutor();
+
+    /** the planner queried. */
+    private final Planner planner;
+    /** runs the queries. */
+    private final Executor executor;
+    /** completes when the last submitted query has finished running. */
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    /** set on close, after which queries are rejected. */
+    private volatile boolean closed;
+
+    /**
+     * Constructor for a facade running on the shared executor: virtual threads, or a cached
+     * thread pool before Java 21.
+     *
+     * @param planner the planner queried, which should not be used directly meanwhile.
+     */
+    public AsyncPlanner(Planner planner) {
+        this(planner, SHARED);
+    }
+
+    /**
+     * Constructor for a facade running on an executor.
+     *
+     * @param planner  the planner queried, which should not be used directly meanwhile.
+     * @param executor runs the queries, left running on close.
+     */
+    public AsyncPlanner(Planner planner, Executor executor) {
+        this.planner = planner;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task if the JVM has them, or a
+     * cached pool of daemon threads.
+     *
+     * @return the executor.
+     */
+    static ExecutorService defaultExecutor() {
+        try {
+            // found by reflection, so the code still compiles and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "planner-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Filters as {@link Planner#filter(String)} does.
+     *
+     * @param filter the filter criteria to apply.
+     * @return the sorted matches; completes exceptionally with an IllegalArgumentException
+     *         if the filter is malformed.
+     */
+    public CompletableFuture<List<BoardGame>> filter(String filter) {
+        return filter(filter, List.of());
+    }
+
+    /**
+     * Filters as {@link Planner#filter(String, List)} does.
+     *
+     * @param filter the filter criteria to apply.
+     * @param keys   the sort keys, in order.
+     * @return the sorted matches; completes exceptionally with an IllegalArgumentException
+     *         if the filter is malformed.
+     */
+    public CompletableFuture<List<BoardGame>> filter(String filter, List<SortKey> keys) {
+        return submit(() -> planner.filterSnapshot(filter, keys).getGames());
+    }
+
+    /**
+     * Replaces the last filter with an edited one, as {@link Planner#refine(String, List)} does.
+     *
+     * @param filter the edited filter.
+     * @param keys   the sort keys, in order.
+     * @return the sorted matches; completes exceptionally with an IllegalArgumentException
+     *         if the filter is malformed.
+     */
+    public CompletableFuture<List<BoardGame>> refine(String filter, List<SortKey> keys) {
+        return submit(() -> planner.refine(filter, keys).getGames());
+    }
+
+    /**
+     * Resets the current results, as {@link Planner#reset()} does.
+     *
+     * @return completes once the planner is reset.
+     */
+    public CompletableFuture<Void> reset() {
+        return submit(() -> {
+            planner.reset();
+            return null;
+        });
+    }
+
+    /**
+     * Ranks the current results, as {@link Planner#top(ScoringSpec, int)} does.
+     *
+     * @param spec how games are scored.
+     * @param k    the number of games to return.
+     * @return the best games.
+     */
+    public CompletableFuture<List<BoardGame>> top(ScoringSpec spec, int k) {
+        return submit(() -> planner.top(spec, k));
+    }
+
+    /**
+     * Finds similar games, as {@link Planner#similar(BoardGame, int, String)} does.
+     *
+     * @param game   the game to find games like.
+     * @param k      the number of games to return.
+     * @param filter the games that may be returned.
+     * @return the most similar games.
+     */
+    public CompletableFuture<List<BoardGame>> similar(BoardGame game, int k, String filter) {
+        return submit(() -> planner.similar(game, k, filter));
+    }
+
+    /**
+     * Completes a name prefix, as {@link Planner#complete(String, int)} does.
+     *
+     * @param prefix the start of a name.
+     * @param n      the most games to return.
+     * @return the best games with the prefix.
+     */
+    public CompletableFuture<List<BoardGame>> complete(String prefix, int n) {
+        return submit(() -> planner.complete(prefix, n));
+    }
+
+    /**
+     * Filters when subscribed to, then publishes the matches as the subscriber requests
+     * them. Each subscription runs the filter once. Cancelling the subscription while the
+     * filter runs stops its scan.
+     *
+     * @param filter the filter criteria to apply.
+     * @param keys   the sort keys, in order.
+     * @return the publisher.
+     */
+    public Flow.Publisher<BoardGame> publish(String filter, List<SortKey> keys) {
+        return subscriber -> new ResultSubscription(subscriber, filter(filter, keys)).start();
+    }
+
+    /**
+     * Stops taking queries, later ones complete exceptionally with a
+     * RejectedExecutionException. Queued queries still run. The executor is left running, as
+     * it is shared or was given to the constructor.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Queues work to run after the queries before it.
+     *
+     * @param work the work.
+     * @param <T>  the result type.
+     * @return the result; cancelling it stops the work's scan.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new RejectedExecutionException("AsyncPlanner is closed"));
+            return result;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous;
+        synchronized (this) {
+            previous = tail;
+            tail = done;
+        }
+        previous.whenComplete((ignored, error) -> {
+            Runnable task = () -> {
+                try {
+                    if (!result.isDone()) {
+                        result.complete(ScanExecutor.cancellable(result::isCancelled, work));
+                    }
+                } catch (RuntimeException | Error e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    done.complete(null);
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+                done.complete(null);
+            }
+        });
+        return result;
+    }
+
+    /** Sends a result list to a subscriber as it requests games, one drain at a time. */
+    private final class ResultSubscription implements Flow.Subscription {
+        /** the subscriber. */
+        private final Flow.Subscriber<? super BoardGame> subscriber;
+        /** the filter being run. */
+        private final CompletableFuture<List<BoardGame>> query;
+        /** games requested and not yet sent, Long.MAX_VALUE for unbounded. */
+        private final AtomicLong requested = new AtomicLong();
+        /** drains asked for while one runs; only the caller that takes it from 0 drains. */
+        private final AtomicInteger pending = new AtomicInteger();
+        /** the results once the filter is done. */
+        private volatile List<BoardGame> games;
+        /** the filter's error, or a request error. */
+        private volatile Throwable error;
+        /** set once the subscriber cancels or a terminal signal is sent. */
+        private volatile boolean finished;
+        /** index of the next game to send, only used while draining. */
+        private int next;
+
+        /**
+         * Constructor for a subscription.
+         *
+         * @param subscriber the subscriber.
+         * @param query      the filter being run.
+         */
+        ResultSubscription(Flow.Subscriber<? super BoardGame> subscriber,
+                CompletableFuture<List<BoardGame>> query) {
+            this.subscriber = subscriber;
+            this.query = query;
+        }
+
+        /** Hands the subscription to the subscriber and waits for the results. */
+        void start() {
+            subscriber.onSubscribe(this);
+            query.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    error = failure;
+                } else {
+                    games = result;
+                }
+                drain();
+            });
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Request must be positive: " + n);
+            } else {
+                requested.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            finished = true;
+            query.cancel(true);
+        }
+
+        /** Sends what can be sent on the executor, unless a drain is already running. */
+        private void drain() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::emit);
+                } catch (RejectedExecutionException e) {
+                    pending.set(0);
+                }
+            }
+        }
+
+        /** Sends requested games, then completion or the error, until no drain is pending. */
+        private void emit() {
+            int missed = 1;
+            do {
+                if (finished) {
+                    return;
+                }
+                if (error != null) {
+                    finished = true;
+                    subscriber.onError(error);
+                    return;
+                }
+                List<BoardGame> result = games;
+                if (result != null) {
+                    long want = requested.get();
+                    long sent = 0;
+                    while (sent != want && next < result.size() && !finished) {
+                        subscriber.onNext(result.get(next++));
+                        sent++;
+                    }
+                    if (next == result.size() && !finished) {
+                        finished = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (sent != 0 && want != Long.MAX_VALUE) {
+                        requested.addAndGet(-sent);
+                    }
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package student;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Scanner;
 
 /**
  * Main entry point for the program.
@@ -7,6 +12,10 @@ package student;
 public final class BGArenaPlanner {
     /** default location of collection - relative to the resources directory. */
     private static final String DEFAULT_COLLECTION = "/collection.csv";
+    /** exit status for bad command line options. */
+    private static final int EXIT_USAGE = 2;
+    /** shown with bad command line options. */
+    private static final String USAGE = "Usage: BGArenaPlanner [--batch [script|-]] [--format text|tsv|csv|jsonl] [--compact]";
 
     /** private constructor as static class. */
     private BGArenaPlanner() {
@@ -16,13 +25,70 @@ public final class BGArenaPlanner {
     /**
      * Main entry point for the program.
      * 
-     * @param args command line arguments - not used at this time.
+     * With no arguments the interactive console is started. The options are:
+     * <ul>
+     * <li>{@code --batch [script]} - run the commands in the script file, or standard input
+     * if the script is left out or is {@code -}, without prompts or messages. Errors go to
+     * standard error and the exit status is {@value ConsoleApp#EXIT_FAILED} if any command
+     * failed.</li>
+     * <li>{@code --format text|tsv|csv|jsonl} - how filter results are written.</li>
+     * <li>{@code --compact} - store the games in a compact catalog, see
+     * {@link GameCatalog#compact()}.</li>
+     * </ul>
+     * Bad options or an unreadable script exit with status {@value #EXIT_USAGE}.
+     * 
+     * @param args command line arguments.
      */
     public static void main(String[] args) {
-        IPlanner planner = new Planner(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
-        IGameList list = new GameList();
-        ConsoleApp app = new ConsoleApp(list, planner);
-        app.start();
+        boolean batch = false;
+        String script = null;
+        OutputFormat format = OutputFormat.TEXT;
+        boolean compact = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--batch".equals(args[i])) {
+                    batch = true;
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        script = args[++i];
+                    }
+                } else if ("--compact".equals(args[i])) {
+                    compact = true;
+                } else if ("--format".equals(args[i]) && i + 1 < args.length) {
+                    format = OutputFormat.fromString(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+
+        Scanner in;
+        if (script == null || "-".equals(script)) {
+            in = new Scanner(System.in);
+        } else {
+            try {
+                in = new Scanner(Path.of(script), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Error reading script: " + e.getMessage());
+                System.exit(EXIT_USAGE);
+                return;
+            }
+        }
+
+        GameCatalog catalog = GamesLoader.loadCatalog(DEFAULT_COLLECTION,
+                compact ? GameCatalog.compact() : new GameCatalog());
+        IGameList list = new GameList(catalog);
+        IPlanner planner = new Planner(catalog, list);
+        ConsoleApp app = new ConsoleApp(list, planner, in, ConsoleApp.stdout(),
+                new PrintWriter(System.err, true), format, batch);
+        int status = app.run();
+        if (status != ConsoleApp.EXIT_OK) {
+            System.exit(status);
+        }
     }
 
 
@@ -1,15 +1,21 @@
 package student;
 
 
-import java.util.List;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Data Class for the Board Game Object.
  * 
- * This class is considered immutable, as every value is both final, and can only be accessed
- * through getters.
+ * This class is considered immutable: every value is final and can only be accessed through
+ * getters. The one field that changes is the cached hash code, which is computed from those
+ * values on first use. Threads may race to compute it, but they all store the same value,
+ * so, as with String, any thread sees either 0 (and computes it again) or the right hash.
+ *
+ * Within this package, a game can also be a view, such as those of a compact catalog: a
+ * subclass that overrides every getter to read its values from elsewhere and leaves the
+ * fields of this class empty. Everything in this class goes through the getters, so views
+ * and plain games compare, hash and print alike. Views are immutable too.
  */
 public class BoardGame {
     /** Name of the board game. */
@@ -32,6 +38,8 @@ public class BoardGame {
     private final double averageRating;
     /** Year the game was published. */
     private final int yearPublished;
+    /** Cached hash code, 0 until first computed (racy but idempotent, like String). */
+    private int hash;
 
     /**
      * Constructor for the BoardGame object.
@@ -61,6 +69,15 @@ public class BoardGame {
         this.yearPublished = yearPublished;
     }
 
+    /**
+     * Constructor for a view that overrides every getter and reads its values from
+     * somewhere else, such as a compact catalog. The fields are left empty, so every
+     * method of this class goes through the getters.
+     */
+    BoardGame() {
+        this(null, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
     /**
      * Get the name of the game.
      * 
@@ -165,30 +182,78 @@ public class BoardGame {
      * @return value of Name (value) pair
      */
     public String toStringWithInfo(GameData col) {
+        return appendWithInfo(new StringBuilder(32), col).toString();
+    }
+
+    /**
+     * Appends the Name (value) pair based on the GameData enum, the same text as
+     * {@link #toStringWithInfo(GameData)}, without creating any intermediate strings.
+     * 
+     * Doubles are shown with two decimals, rounded half up like {@code %.2f}.
+     * 
+     * @param sb  builder to append to, can be reused between games
+     * @param col GameData enum value
+     * @return sb
+     */
+    public StringBuilder appendWithInfo(StringBuilder sb, GameData col) {
+        sb.append(getName());
         switch (col) {
-            case NAME:
-                return name;
             case RATING:
-                return String.format("%s (%.2f)", name, averageRating);
+                return appendTwoDecimals(sb.append(" ("), getRating()).append(')');
             case DIFFICULTY:
-                return String.format("%s (%.2f)", name, difficulty);
+                return appendTwoDecimals(sb.append(" ("), getDifficulty()).append(')');
             case RANK:
-                return String.format("%s (%d)", name, rank);
+                return sb.append(" (").append(getRank()).append(')');
             case MIN_PLAYERS:
-                return String.format("%s (%d)", name, minPlayers);
+                return sb.append(" (").append(getMinPlayers()).append(')');
             case MAX_PLAYERS:
-                return String.format("%s (%d)", name, maxPlayers);
+                return sb.append(" (").append(getMaxPlayers()).append(')');
             case MIN_TIME:
-                return String.format("%s (%d)", name, minPlayTime);
+                return sb.append(" (").append(getMinPlayTime()).append(')');
             case MAX_TIME:
-                return String.format("%s (%d)", name, maxPlayTime);
+                return sb.append(" (").append(getMaxPlayTime()).append(')');
             case YEAR:
-                return String.format("%s (%d)", name, yearPublished);
+                return sb.append(" (").append(getYearPublished()).append(')');
+            case NAME:
             default:
-                return name;
+                return sb;
         }
     }
 
+    /**
+     * Appends a double with two decimals, giving the same digits as {@code %.2f}.
+     * 
+     * The formatter rounds the shortest decimal form of the double half up, so a value
+     * such as 8.725 (stored as 8.72499...) shows as 8.73. This is matched by comparing with
+     * the double closest to the halfway point, rather than with value * 100. Large values
+     * (where the shortest form can drop the halfway digit) and NaN or infinity still use
+     * String.format.
+     * 
+     * @param sb    builder to append to
+     * @param value the value
+     * @return sb
+     */
+    static StringBuilder appendTwoDecimals(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e9) {
+            return sb.append(String.format(Locale.ROOT, "%.2f", value));
+        }
+        if (Double.doubleToRawLongBits(value) < 0) { // includes -0.0, shown as -0.00
+            sb.append('-');
+            value = -value;
+        }
+        long hundredths = (long) Math.floor(value * 100);
+        // (hundredths + 0.5) / 100 is the double closest to the halfway point
+        if (value >= (hundredths + 0.5) / 100) {
+            hundredths++;
+        }
+        sb.append(hundredths / 100).append('.');
+        int cents = (int) (hundredths % 100);
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents);
+    }
+
     /**
      * Get a toString that shows all values of the object.
      * 
@@ -196,42 +261,66 @@ public class BoardGame {
      */
     @Override
     public String toString() {
-        return "BoardGame{" + "name='" + name + '\'' + ", id=" + id + ", minPlayers=" + minPlayers
-                + ", maxPlayers=" + maxPlayers + ", maxPlayTime=" + maxPlayTime + ", minPlayTime="
-                + minPlayTime + ", difficulty=" + difficulty + ", rank=" + rank + ", averageRating="
-                + averageRating + ", yearPublished=" + yearPublished + '}';
+        return appendTo(new StringBuilder(192)).toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()}.
+     * 
+     * @param sb builder to append to, can be reused between games
+     * @return sb
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append("BoardGame{name='").append(getName()).append("', id=").append(getId())
+                .append(", minPlayers=").append(getMinPlayers())
+                .append(", maxPlayers=").append(getMaxPlayers())
+                .append(", maxPlayTime=").append(getMaxPlayTime())
+                .append(", minPlayTime=").append(getMinPlayTime())
+                .append(", difficulty=").append(getDifficulty())
+                .append(", rank=").append(getRank())
+                .append(", averageRating=").append(getRating())
+                .append(", yearPublished=").append(getYearPublished()).append('}');
     }
 
     /**
      * Check if two BoardGame objects are equal.
      * 
-     * Two BoardGame objects are considered equal if all fields are equal, except for the following:
-     * - minPlayers - maxPlayers - maxPlayTime - minPlayTime - difficulty - rank - averageRating -
-     * yearPublished
+     * Two BoardGame objects are considered equal if they have the same id and name. The other
+     * fields (minPlayers, maxPlayers, maxPlayTime, minPlayTime, difficulty, rank, averageRating,
+     * yearPublished) are not compared. The id is compared first, so games with different ids
+     * are told apart without looking at their names.
      * 
      * @param obj object to compare
      * @return true if the objects are equal, false otherwise
      */
     @Override
     public boolean equals(Object obj) {
-        return EqualsBuilder.reflectionEquals(this, obj, // exclude the following fields
-                List.of("minPlayers", "maxPlayers", "maxPlayTime", "minPlayTime", "difficulty",
-                        "rank", "averageRating", "yearPublished"));
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BoardGame)) {
+            return false;
+        }
+        BoardGame other = (BoardGame) obj;
+        return getId() == other.getId() && Objects.equals(getName(), other.getName());
     }
 
     /**
      * Get the hash code of the object.
      * 
-     * The hash code is based on all fields, except for the following: - minPlayers - maxPlayers -
-     * maxPlayTime - minPlayTime - difficulty - rank - averageRating - yearPublished
+     * The hash code is based on the id and name, the same fields as equals. It is computed
+     * once and cached.
      * 
      * @return hash code of the object
      */
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this, // exclude the following fields
-                List.of("minPlayers", "maxPlayers", "maxPlayTime", "minPlayTime", "difficulty",
-                        "rank", "averageRating", "yearPublished"));
+        int h = hash;
+        if (h == 0) {
+            h = 31 * getId() + Objects.hashCode(getName());
+            hash = h;
+        }
+        return h;
     }
 
 
@@ -0,0 +1,93 @@
+package student;
+
+/**
+ * Compares a primitive column against a value for every row, writing the matches into a
+ * bitmask (bit i of mask[i / 64] is set when row i matches, the same layout as
+ * {@link java.util.BitSet#valueOf(long[])}).
+ *
+ * The comparisons follow Filter: == and != on doubles use the same 1e-9 tolerance.
+ *
+ * Two engines are available. The scalar engine is always used unless the system property
+ * {@value #SIMD_PROPERTY} is true and the jdk.incubator.vector module is present (run with
+ * {@code --add-modules jdk.incubator.vector}) and the engine was built (gradle -Psimd, see
+ * build.gradle), in which case the Vector API engine compares many rows per instruction.
+ * Both engines give identical results.
+ */
+interface ColumnScan {
+    /** System property that opts in to the Vector API engine. */
+    String SIMD_PROPERTY = "planner.simd";
+
+    /**
+     * Sets the bits of the rows where column[row] op value holds.
+     *
+     * @param column the column.
+     * @param size   number of rows to scan.
+     * @param op     comparison, any but CONTAINS.
+     * @param value  value to compare with.
+     * @param mask   zeroed mask of at least (size + 63) / 64 words.
+     */
+    void scan(int[] column, int size, Operations op, int value, long[] mask);
+
+    /**
+     * Sets the bits of the rows where column[row] op value holds.
+     *
+     * @param column the column.
+     * @param size   number of rows to scan.
+     * @param op     comparison, any but CONTAINS.
+     * @param value  value to compare with.
+     * @param mask   zeroed mask of at least (size + 63) / 64 words.
+     */
+    void scan(double[] column, int size, Operations op, double value, long[] mask);
+
+    /**
+     * Gets the engine selected for this process.
+     *
+     * @return the engine.
+     */
+    static ColumnScan get() {
+        return Engine.SELECTED;
+    }
+
+    /** Holds the selected engine, chosen once when first used. */
+    final class Engine {
+        /** the engine used by {@link ColumnScan#get()}. */
+        static final ColumnScan SELECTED = select();
+
+        /** Not instantiated. */
+        private Engine() {
+        }
+
+        /**
+         * Chooses the Vector API engine if it was asked for and can be loaded.
+         *
+         * @return the engine.
+         */
+        private static ColumnScan select() {
+            if (Boolean.getBoolean(SIMD_PROPERTY)) {
+                ColumnScan vector = vector();
+                if (vector != null) {
+                    return vector;
+                }
+            }
+            return new ScalarColumnScan();
+        }
+
+        /**
+         * Loads the Vector API engine by name, so this class links without the module.
+         *
+         * @return the engine, or null if it was not built or jdk.incubator.vector is not
+         * available.
+         */
+        static ColumnScan vector() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return null;
+            }
+            try {
+                return (ColumnScan) Class.forName("student.VectorColumnScan")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+/**
+ * The numeric columns of a catalog stored as primitive arrays indexed by ordinal.
+ *
+ * Scans over a column read one array, instead of following a reference to every
+ * BoardGame and calling its getter. The store is a snapshot of the catalog when it
+ * was built, see {@link GameCatalog#columns()}. Each column is copied from the games the
+ * first time it is used, so a catalog only holds the columns its queries read: a compact
+ * catalog keeps its games in narrow columns, and a full width copy of those it scans.
+ *
+ * For sorting, the store also keeps the dense rank of each game in a column and the order
+ * of the games by name, computed on first use (see {@link PackedSort}). For range slices,
+ * it keeps the order of the games by each numeric column, also computed on first use.
+ */
+final class ColumnStore {
+    /** number of catalog ordinals covered (0 to size - 1). */
+    private final int size;
+    /**
+     * int columns by GameData ordinal, null for the others and until first used. Replaced,
+     * never modified, when a column is added, so it is read without the lock.
+     */
+    private volatile int[][] ints = new int[GameData.values().length][];
+    /** double columns by GameData ordinal, as ints. */
+    private volatile double[][] doubles = new double[GameData.values().length][];
+    /** the games of the catalog by ordinal, for copying columns and reading names. */
+    private final IntFunction<BoardGame> games;
+    /** smallest value of each numeric column, filled in by {@link #stats(GameData)}. */
+    private final double[] mins = new double[GameData.values().length];
+    /** largest value of each numeric column, filled in by {@link #stats(GameData)}. */
+    private final double[] maxes = new double[GameData.values().length];
+    /** columns whose smallest and largest value have been found. */
+    private final boolean[] counted = new boolean[GameData.values().length];
+    /** dense ranks by GameData ordinal, filled in by {@link #ranks(GameData)}. */
+    private final Ranks[] ranks = new Ranks[GameData.values().length];
+    /** ordinals sorted by lowercase name then ordinal, filled in by {@link #names()}. */
+    private int[] nameOrder;
+    /** position of each ordinal in nameOrder. */
+    private int[] namePositions;
+    /** ordinals sorted by value by GameData ordinal, filled in by {@link #valueOrder(GameData)}. */
+    private final int[][] valueOrders = new int[GameData.values().length][];
+
+    /**
+     * Dense ranks of a column: equal values share a rank, and ranks run from 0 to
+     * distinct - 1 in the column's ascending sort order.
+     */
+    static final class Ranks {
+        /** rank of each ordinal. */
+        private final int[] values;
+        /** number of distinct values. */
+        private final int distinct;
+
+        /**
+         * Constructor for ranks.
+         *
+         * @param values   rank of each ordinal.
+         * @param distinct number of distinct values.
+         */
+        Ranks(int[] values, int distinct) {
+            this.values = values;
+            this.distinct = distinct;
+        }
+
+        /**
+         * Gets the rank of each ordinal. The array is shared and must not be modified.
+         *
+         * @return the ranks by ordinal.
+         */
+        int[] values() {
+            return values;
+        }
+
+        /**
+         * Gets the number of distinct values, one more than the highest rank.
+         *
+         * @return the count.
+         */
+        int distinct() {
+            return distinct;
+        }
+    }
+
+    /**
+     * Creates the store of the first size games of a catalog. No column is copied yet.
+     *
+     * @param games the games of the catalog by ordinal, covering at least size games, such
+     *              as {@link GameCatalog#reader()}.
+     * @param size  number of games covered.
+     */
+    ColumnStore(IntFunction<BoardGame> games, int size) {
+        this.games = games;
+        this.size = size;
+    }
+
+    /**
+     * Checks if the column holds doubles (rating and difficulty).
+     *
+     * @param col the column.
+     * @return true for a double column.
+     */
+    static boolean isDouble(GameData col) {
+        return col == GameData.RATING || col == GameData.DIFFICULTY;
+    }
+
+    /**
+     * Checks if the column holds ints usable in filters (not name or id).
+     *
+     * @param col the column.
+     * @return true for an int column.
+     */
+    static boolean isInt(GameData col) {
+        return col != GameData.NAME && col != GameData.ID && !isDouble(col);
+    }
+
+    /**
+     * Number of catalog ordinals covered.
+     *
+     * @return the size of the catalog when the store was built.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes used by the columns, orders and ranks built so far, not counting the array
+     * headers.
+     *
+     * @return the bytes used.
+     */
+    synchronized long bytesUsed() {
+        long bytes = 0;
+        for (int c = 0; c < ints.length; c++) {
+            bytes += ints[c] == null ? 0 : 4L * ints[c].length;
+            bytes += doubles[c] == null ? 0 : 8L * doubles[c].length;
+            bytes += valueOrders[c] == null ? 0 : 4L * valueOrders[c].length;
+            // NAME and ID share their ranks
+            bytes += ranks[c] == null || c == GameData.ID.ordinal() && ranks[c] == ranks[GameData.NAME.ordinal()]
+                    ? 0 : 4L * ranks[c].values().length;
+        }
+        bytes += nameOrder == null ? 0 : 4L * (nameOrder.length + namePositions.length);
+        return bytes;
+    }
+
+    /**
+     * Gets an int column, copying it from the games on first use. The array is shared and
+     * must not be modified.
+     *
+     * @param col the column.
+     * @return the values by ordinal.
+     * @throws IllegalArgumentException if the column does not hold ints.
+     */
+    int[] ints(GameData col) {
+        int[] values = ints[col.ordinal()];
+        return values != null ? values : copyInts(col);
+    }
+
+    /**
+     * Copies an int column from the games, unless another thread just did.
+     *
+     * @param col the column.
+     * @return the values by ordinal.
+     * @throws IllegalArgumentException if the column does not hold ints.
+     */
+    private synchronized int[] copyInts(GameData col) {
+        if (!isInt(col)) {
+            throw new IllegalArgumentException("Not an int column: " + col);
+        }
+        int[] values = ints[col.ordinal()];
+        if (values == null) {
+            values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = Filter.getIntVal(games.apply(i), col);
+            }
+            int[][] columns = ints.clone();
+            columns[col.ordinal()] = values;
+            ints = columns;
+        }
+        return values;
+    }
+
+    /**
+     * Gets a double column, copying it from the games on first use. The array is shared and
+     * must not be modified.
+     *
+     * @param col the column.
+     * @return the values by ordinal.
+     * @throws IllegalArgumentException if the column does not hold doubles.
+     */
+    double[] doubles(GameData col) {
+        double[] values = doubles[col.ordinal()];
+        return values != null ? values : copyDoubles(col);
+    }
+
+    /**
+     * Copies a double column from the games, unless another thread just did.
+     *
+     * @param col the column.
+     * @return the values by ordinal.
+     * @throws IllegalArgumentException if the column does not hold doubles.
+     */
+    private synchronized double[] copyDoubles(GameData col) {
+        if (!isDouble(col)) {
+            throw new IllegalArgumentException("Not a double column: " + col);
+        }
+        double[] values = doubles[col.ordinal()];
+        if (values == null) {
+            values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = Filter.getDoubleVal(games.apply(i), col);
+            }
+            double[][] columns = doubles.clone();
+            columns[col.ordinal()] = values;
+            doubles = columns;
+        }
+        return values;
+    }
+
+    /**
+     * Gets a value of any numeric column as a double.
+     *
+     * @param col     the column.
+     * @param ordinal the game's ordinal.
+     * @return the value.
+     */
+    double value(GameData col, int ordinal) {
+        return isDouble(col) ? doubles(col)[ordinal] : ints(col)[ordinal];
+    }
+
+    /**
+     * Compares a column against a value for every game, using the ColumnScan engine.
+     *
+     * @param col   the column.
+     * @param op    the comparison, any but CONTAINS.
+     * @param value the value as written in the filter.
+     * @return ordinals of the matching games, or null if the column is not numeric.
+     * @throws NumberFormatException if the value does not parse for the column.
+     */
+    BitSet scan(GameData col, Operations op, String value) {
+        long[] mask = new long[(size + 63) >>> 6];
+        if (isDouble(col)) {
+            ColumnScan.get().scan(doubles(col), size, op, Double.parseDouble(value), mask);
+        } else if (isInt(col)) {
+            ColumnScan.get().scan(ints(col), size, op, Integer.parseInt(value), mask);
+        } else {
+            return null;
+        }
+        return BitSet.valueOf(mask);
+    }
+
+    /**
+     * Gets the smallest value in a numeric column.
+     *
+     * @param col the column.
+     * @return the smallest value, 0 if the store is empty.
+     */
+    synchronized double min(GameData col) {
+        stats(col);
+        return mins[col.ordinal()];
+    }
+
+    /**
+     * Gets the largest value in a numeric column.
+     *
+     * @param col the column.
+     * @return the largest value, 0 if the store is empty.
+     */
+    synchronized double max(GameData col) {
+        stats(col);
+        return maxes[col.ordinal()];
+    }
+
+    /**
+     * Finds the smallest and largest value of a numeric column, once.
+     *
+     * @param col the column.
+     */
+    private void stats(GameData col) {
+        if (counted[col.ordinal()] || !isInt(col) && !isDouble(col)) {
+            return;
+        }
+        double low = size > 0 ? Double.POSITIVE_INFINITY : 0;
+        double high = size > 0 ? Double.NEGATIVE_INFINITY : 0;
+        for (int i = 0; i < size; i++) {
+            double v = value(col, i);
+            low = Math.min(low, v);
+            high = Math.max(high, v);
+        }
+        mins[col.ordinal()] = low;
+        maxes[col.ordinal()] = high;
+        counted[col.ordinal()] = true;
+    }
+
+    /**
+     * Gets the dense ranks of a column in the order {@link Sorting} sorts it: by value for
+     * numeric columns (as {@link Double#compare(double, double)} orders doubles), by
+     * lowercase name for NAME and ID.
+     *
+     * @param col the column.
+     * @return the ranks, computed once.
+     */
+    synchronized Ranks ranks(GameData col) {
+        Ranks result = ranks[col.ordinal()];
+        if (result != null) {
+            return result;
+        }
+        if (isInt(col) || isDouble(col)) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = isDouble(col) ? sortable(doubles(col)[i]) : ints(col)[i];
+            }
+            long[] distinct = keys.clone();
+            Arrays.sort(distinct);
+            int count = 0;
+            for (int i = 0; i < distinct.length; i++) {
+                if (i == 0 || distinct[i] != distinct[count - 1]) {
+                    distinct[count++] = distinct[i];
+                }
+            }
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = Arrays.binarySearch(distinct, 0, count, keys[i]);
+            }
+            result = new Ranks(values, count);
+        } else {
+            names();
+            result = ranks[GameData.NAME.ordinal()];
+        }
+        ranks[col.ordinal()] = result;
+        return result;
+    }
+
+    /**
+     * Gets the ordinals sorted by lowercase name, ties in ordinal order: the order
+     * {@link Sorting} leaves games in when every other key ties.
+     *
+     * @return the ordinals. The array is shared and must not be modified.
+     */
+    synchronized int[] nameOrder() {
+        names();
+        return nameOrder;
+    }
+
+    /**
+     * Gets the position of each ordinal in {@link #nameOrder()}.
+     *
+     * @return the positions by ordinal. The array is shared and must not be modified.
+     */
+    synchronized int[] namePositions() {
+        names();
+        return namePositions;
+    }
+
+    /** Sorts the names and computes the name ranks, once. */
+    private void names() {
+        if (nameOrder != null) {
+            return;
+        }
+        String[] lower = new String[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            lower[i] = games.apply(i).getName().toLowerCase(); // as Sorting compares them
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> lower[a].compareTo(lower[b])); // stable, ties by ordinal
+        int[] sorted = new int[size];
+        int[] positions = new int[size];
+        int[] nameRanks = new int[size];
+        int distinct = 0;
+        for (int p = 0; p < size; p++) {
+            sorted[p] = order[p];
+            positions[order[p]] = p;
+            if (p == 0 || !lower[order[p]].equals(lower[order[p - 1]])) {
+                distinct++;
+            }
+            nameRanks[order[p]] = distinct - 1;
+        }
+        ranks[GameData.NAME.ordinal()] = new Ranks(nameRanks, distinct);
+        nameOrder = sorted;
+        namePositions = positions;
+    }
+
+    /**
+     * Gets the ordinals of the games with a number in a numeric column (not NaN), sorted by
+     * value, ties in ordinal order. The games matching a comparison against a value are a
+     * run at the start or end of the order, found with {@link #search(GameData, double, boolean)}.
+     *
+     * @param col the column, numeric.
+     * @return the ordinals. The array is shared and must not be modified.
+     */
+    synchronized int[] valueOrder(GameData col) {
+        int[] result = valueOrders[col.ordinal()];
+        if (result != null) {
+            return result;
+        }
+        int[] rank = ranks(col).values();
+        long[] keys = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(value(col, i))) {
+                keys[count++] = ((long) rank[i] << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        result = new int[count];
+        for (int p = 0; p < count; p++) {
+            result[p] = (int) keys[p];
+        }
+        valueOrders[col.ordinal()] = result;
+        return result;
+    }
+
+    /**
+     * Finds the first position in {@link #valueOrder(GameData)} whose value is above a value,
+     * or at least the value.
+     *
+     * @param col       the column, numeric.
+     * @param value     the value.
+     * @param inclusive true to find the first value &gt;= value, false for the first &gt; value.
+     * @return the position, the length of the order if there is none.
+     */
+    int search(GameData col, double value, boolean inclusive) {
+        int[] order = valueOrder(col);
+        int lo = 0;
+        int hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double v = value(col, order[mid]);
+            if (inclusive ? v < value : v <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Maps a double to a long that sorts as {@link Double#compare(double, double)} orders the
+     * doubles: negative values have every bit but the sign flipped, so larger magnitudes sort
+     * lower, and -0.0 sorts just below 0.0.
+     *
+     * @param value the double.
+     * @return the sortable long.
+     */
+    static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
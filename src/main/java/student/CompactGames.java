@@ -0,0 +1,243 @@
+package student;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Games stored column by column in primitive arrays, for a compact {@link GameCatalog}.
+ *
+ * Each int column uses the narrowest array type that holds its values (see PackedInts),
+ * rating and difficulty are stored as fixed point ints with five decimals, and names are
+ * kept as UTF-8 in one shared byte array. No BoardGame is kept; {@link #view(int)} creates
+ * a small view that reads the columns through the usual getters, which return exactly the
+ * values that were added.
+ *
+ * Games are only added while the catalog is being filled, under the catalog's lock.
+ */
+final class CompactGames {
+    /** fixed point scale of rating and difficulty. */
+    private static final double SCALE = 100_000;
+    /** fixed point value marking a double kept in the exact map. */
+    private static final int NOT_FIXED = Integer.MIN_VALUE;
+
+    /** game ids. */
+    private final PackedInts ids = new PackedInts();
+    /** minimum players. */
+    private final PackedInts minPlayers = new PackedInts();
+    /** maximum players. */
+    private final PackedInts maxPlayers = new PackedInts();
+    /** minimum play time. */
+    private final PackedInts minPlayTime = new PackedInts();
+    /** maximum play time. */
+    private final PackedInts maxPlayTime = new PackedInts();
+    /** ranks. */
+    private final PackedInts ranks = new PackedInts();
+    /** years published. */
+    private final PackedInts years = new PackedInts();
+    /** ratings times SCALE, or NOT_FIXED. */
+    private final PackedInts ratings = new PackedInts();
+    /** difficulties times SCALE, or NOT_FIXED. */
+    private final PackedInts difficulties = new PackedInts();
+    /** doubles that did not survive the fixed point round trip, keyed by index * 2 (+ 1 for difficulty). */
+    private final Map<Integer, Double> exact = new HashMap<>();
+    /** UTF-8 bytes of every name, one after the other. */
+    private byte[] names = new byte[256];
+    /** end of each name in names, the start is the end of the one before. */
+    private int[] nameEnds = new int[16];
+    /** number of games. */
+    private int size;
+
+    /**
+     * Adds a game at the next index.
+     *
+     * @param game the game.
+     * @return the index of the game.
+     */
+    int add(BoardGame game) {
+        byte[] name = game.getName().getBytes(StandardCharsets.UTF_8);
+        int start = nameStart(size);
+        if (start + name.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(start + name.length, names.length * 2));
+        }
+        System.arraycopy(name, 0, names, start, name.length);
+        if (size == nameEnds.length) {
+            nameEnds = Arrays.copyOf(nameEnds, size * 2 + 16);
+        }
+        nameEnds[size] = start + name.length;
+
+        ids.add(game.getId());
+        minPlayers.add(game.getMinPlayers());
+        maxPlayers.add(game.getMaxPlayers());
+        minPlayTime.add(game.getMinPlayTime());
+        maxPlayTime.add(game.getMaxPlayTime());
+        ranks.add(game.getRank());
+        years.add(game.getYearPublished());
+        ratings.add(fixed(game.getRating(), size * 2));
+        difficulties.add(fixed(game.getDifficulty(), size * 2 + 1));
+        return size++;
+    }
+
+    /**
+     * Number of games.
+     *
+     * @return the size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Creates a view of a game.
+     *
+     * @param index the index of the game.
+     * @return a BoardGame reading this storage.
+     */
+    BoardGame view(int index) {
+        return new View(this, index);
+    }
+
+    /**
+     * Checks the name of a game without decoding it.
+     *
+     * @param index the index of the game.
+     * @param name  the UTF-8 bytes of the name to compare with.
+     * @return true if the names are the same.
+     */
+    boolean nameEquals(int index, byte[] name) {
+        int start = nameStart(index);
+        return Arrays.equals(names, start, nameEnds[index], name, 0, name.length);
+    }
+
+    /** Shrinks every array to the number of games. */
+    void trim() {
+        for (PackedInts column : new PackedInts[] {ids, minPlayers, maxPlayers, minPlayTime, maxPlayTime,
+                ranks, years, ratings, difficulties}) {
+            column.trim();
+        }
+        names = Arrays.copyOf(names, nameStart(size));
+        nameEnds = Arrays.copyOf(nameEnds, size);
+    }
+
+    /**
+     * Estimates the bytes held by this storage.
+     *
+     * @return the estimate.
+     */
+    long bytesUsed() {
+        return ids.bytesUsed() + minPlayers.bytesUsed() + maxPlayers.bytesUsed() + minPlayTime.bytesUsed()
+                + maxPlayTime.bytesUsed() + ranks.bytesUsed() + years.bytesUsed() + ratings.bytesUsed()
+                + difficulties.bytesUsed() + names.length + 4L * nameEnds.length + 48L * exact.size();
+    }
+
+    /**
+     * Gets the start of a name in names.
+     *
+     * @param index the index of the game.
+     * @return the offset.
+     */
+    private int nameStart(int index) {
+        return index == 0 ? 0 : nameEnds[index - 1];
+    }
+
+    /**
+     * Converts a double to fixed point, keeping it in the exact map if the conversion
+     * would change it (including the sign of zero).
+     *
+     * @param value the value.
+     * @param key   key in the exact map.
+     * @return the fixed point value, or NOT_FIXED.
+     */
+    private int fixed(double value, int key) {
+        double scaled = Math.rint(value * SCALE);
+        int fixed = (int) scaled;
+        if (Math.abs(scaled) < Integer.MAX_VALUE && fixed != NOT_FIXED
+                && Double.doubleToLongBits(fixed / SCALE) == Double.doubleToLongBits(value)) {
+            return fixed;
+        }
+        exact.put(key, value);
+        return NOT_FIXED;
+    }
+
+    /**
+     * Converts back from fixed point.
+     *
+     * @param fixed the fixed point value.
+     * @param key   key in the exact map.
+     * @return the value.
+     */
+    private double unfixed(int fixed, int key) {
+        return fixed == NOT_FIXED ? exact.get(key) : fixed / SCALE;
+    }
+
+    /** A game read from the columns. Only the owning storage and index are held. */
+    private static final class View extends BoardGame {
+        /** the storage. */
+        private final CompactGames games;
+        /** index of the game in the storage. */
+        private final int index;
+
+        /**
+         * Constructor for a view.
+         *
+         * @param games the storage.
+         * @param index index of the game.
+         */
+        View(CompactGames games, int index) {
+            this.games = games;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            int start = games.nameStart(index);
+            return new String(games.names, start, games.nameEnds[index] - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getId() {
+            return games.ids.get(index);
+        }
+
+        @Override
+        public int getMinPlayers() {
+            return games.minPlayers.get(index);
+        }
+
+        @Override
+        public int getMaxPlayers() {
+            return games.maxPlayers.get(index);
+        }
+
+        @Override
+        public int getMaxPlayTime() {
+            return games.maxPlayTime.get(index);
+        }
+
+        @Override
+        public int getMinPlayTime() {
+            return games.minPlayTime.get(index);
+        }
+
+        @Override
+        public double getDifficulty() {
+            return games.unfixed(games.difficulties.get(index), index * 2 + 1);
+        }
+
+        @Override
+        public int getRank() {
+            return games.ranks.get(index);
+        }
+
+        @Override
+        public double getRating() {
+            return games.unfixed(games.ratings.get(index), index * 2);
+        }
+
+        @Override
+        public int getYearPublished() {
+            return games.years.get(index);
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package student;
 
-import java.util.Collections;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import java.util.Random;
 
@@ -17,10 +27,21 @@ import java.util.Random;
  * providing a progressive filter to find games, and then add them to the list.
  */
 public class ConsoleApp {
-    /** Interaction with the system terminal/command line. */
-    private static final Scanner IN = new Scanner(System.in);
+    /** Exit status when every command succeeded. */
+    public static final int EXIT_OK = 0;
+    /** Exit status when at least one command of a batch failed. */
+    public static final int EXIT_FAILED = 1;
+    /**
+     * Matches the limit option of the filter command, such as limit:20, which comes last,
+     * after the filter and its sort option.
+     */
+    private static final Pattern LIMIT = Pattern.compile("(?:^|\\s)limit:\\s*(\\S*)\\s*$");
+    /** Matches the columns option of the export command, such as columns:name,rating. */
+    private static final Pattern COLUMNS = Pattern.compile("columns:\\s*(\\S*)", Pattern.CASE_INSENSITIVE);
     /** Default name to save the game list to. */
     private static final String DEFAULT_FILENAME = "games_list.txt";
+    /** Most game names suggested for a name that was not found. */
+    private static final int MAX_SUGGESTIONS = 3;
     /** random number generator only needs to be built once. */
     private static final Random RND = new Random();
     /** scanner to help with processing the command string. */
@@ -29,17 +50,70 @@ public class ConsoleApp {
     private final IGameList gameList;
     /** The planner to help filter games. */
     private final IPlanner planner;
+    /** Where commands are read from, one per line. */
+    private final Scanner in;
+    /**
+     * Buffered output for results. Flushed once per command (when the next prompt is
+     * shown, or the next line is read), instead of on every line as System.out does.
+     */
+    private final PrintWriter out;
+    /** Where errors go in batch mode. */
+    private final PrintWriter err;
+    /** How filter results are written. */
+    private final OutputFormat format;
+    /** If true, there are no prompts or messages, and errors go to err. */
+    private final boolean batch;
+    /** Reused for every row of a result. */
+    private final StringBuilder row = new StringBuilder(256);
+    /** Reused to copy a row into the output, grown as needed. */
+    private char[] rowChars = new char[256];
+    /** Number of lines read so far, for error messages in batch mode. */
+    private int lineNumber;
+    /** Set when a command of a batch fails. */
+    private boolean failed;
 
     /**
-     * Constructor for the console app.
+     * Constructor for the console app, interactive on the system terminal.
      * 
      * @param gameList the game list to manage.
      * @param planner  the planner to help filter games.
      */
     public ConsoleApp(IGameList gameList, IPlanner planner) {
+        this(gameList, planner, new Scanner(System.in), stdout(), new PrintWriter(System.err, true),
+                OutputFormat.TEXT, false);
+    }
+
+    /**
+     * Constructor for the console app.
+     * 
+     * @param gameList the game list to manage.
+     * @param planner  the planner to help filter games.
+     * @param in       where commands are read from.
+     * @param out      where output is written, flushed once per command.
+     * @param err      where errors are written in batch mode.
+     * @param format   how filter results are written.
+     * @param batch    if true, run without prompts or messages and report errors on err.
+     */
+    public ConsoleApp(IGameList gameList, IPlanner planner, Scanner in, PrintWriter out, PrintWriter err,
+            OutputFormat format, boolean batch) {
         this.gameList = gameList;
         this.planner = planner;
-    }    
+        this.in = in;
+        this.out = out;
+        this.err = err;
+        this.format = format;
+        this.batch = batch;
+    }
+
+    /**
+     * Creates a large buffered writer on System.out, that only writes when flushed.
+     * 
+     * @return the writer.
+     */
+    static PrintWriter stdout() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()),
+                1 << 16), false);
+    }
 
     /**
      * Start the console application.
@@ -47,43 +121,84 @@ public class ConsoleApp {
      * Processes the main menu commands and redirects.
      */
     public void start() {
-        printOutput("%s%n", ConsoleText.WELCOME);
-        ConsoleText ct = nextCommand();
-        while (ct != ConsoleText.CMD_EXIT) {
-            switch (ct) {
-                case CMD_QUESTION: // same as help
-                case CMD_HELP:
-                    processHelp();
-                    break;
-                case CMD_FILTER:
-                    processFilter();
-                    break;
-                case CMD_LIST:
-                    processListCommands();
-                    break;
-                case CMD_EASTER_EGG:
-                    randomNumber();
-                    break;
-                case INVALID:
-                default:
-                    printOutput("%s%n", ConsoleText.INVALID);
+        run();
+    }
+
+    /**
+     * Runs commands until exit or the end of the input.
+     * 
+     * In batch mode blank lines and lines starting with # are skipped.
+     * 
+     * @return {@link #EXIT_OK}, or {@link #EXIT_FAILED} if any command of a batch failed.
+     */
+    public int run() {
+        try {
+            if (!batch) {
+                printOutput("%s%n", ConsoleText.WELCOME);
             }
+            ConsoleText ct = nextCommand();
+            while (ct != ConsoleText.CMD_EXIT) {
+                switch (ct) {
+                    case CMD_QUESTION: // same as help
+                    case CMD_HELP:
+                        processHelp();
+                        break;
+                    case CMD_FILTER:
+                        processFilter();
+                        break;
+                    case CMD_LIST:
+                        processListCommands();
+                        break;
+                    case CMD_EXPORT:
+                        processExport();
+                        break;
+                    case CMD_EASTER_EGG:
+                        randomNumber();
+                        break;
+                    case CMD_MEMORY:
+                        printMemory();
+                        break;
+                    case INVALID:
+                    default:
+                        printError("%s%n", ConsoleText.INVALID);
+                }
 
-            // clean up scanner.
-            current.close();
-            current = null;
-            // get the next prompt
-            ct = nextCommand();
+                // clean up scanner.
+                current.close();
+                current = null;
+                // get the next prompt
+                ct = nextCommand();
+            }
+
+            if (!batch) {
+                printOutput("%s%n", ConsoleText.GOODBYE);
+            }
+        } finally {
+            // also when a command throws, so buffered results are not lost
+            out.flush();
+            err.flush();
         }
+        return failed ? EXIT_FAILED : EXIT_OK;
+    }
 
-        printOutput("%s%n", ConsoleText.GOODBYE);
+    /**
+     * Print the estimated memory used by the games, indexes and filter results, by part, and
+     * the budget it is kept under.
+     */
+    private void printMemory() {
+        MemoryUsage usage = MemoryBudget.usage();
+        printOutput("%s %s%n", ConsoleText.MEMORY, MemoryUsage.format(usage.total()));
+        for (Map.Entry<String, Long> part : usage.getParts().entrySet()) {
+            printOutput("    %s: %s%n", part.getKey(), MemoryUsage.format(part.getValue()));
+        }
+        printOutput("%s %s%n", ConsoleText.MEMORY_BUDGET, MemoryUsage.format(MemoryBudget.getLimit()));
     }
 
     /**
      * Generate a random number based on the current filter.
      */
     private void randomNumber() {
-        int max = (int) planner.filter("").count();
+        int max = (int) currentGames().count();
         if (max > 0) {
             int random = RND.nextInt(max) + 1; // random is 0-(max-1) so add 1.
             printOutput("%s %d%n", ConsoleText.EASTER_EGG, random);
@@ -91,6 +206,16 @@ public class ConsoleApp {
         // else do nothing, not a secret easter egg if filter is empty.
     }
 
+    /**
+     * Gets the current filter results, without adding a step to the filter history when the
+     * planner keeps one.
+     *
+     * @return a stream of the current results.
+     */
+    private Stream<BoardGame> currentGames() {
+        return planner instanceof Planner ? ((Planner) planner).current() : planner.filter("");
+    }
+
     /**
      * Process the help command.
      */
@@ -117,11 +242,24 @@ public class ConsoleApp {
     private void processFilter() {
         Stream<BoardGame> result = null;
         GameData sortON = GameData.NAME; // default
+        long limit = Long.MAX_VALUE; // default, print every game
 
         if (current.hasNext()) {
             String filter = remainder();
-            filter = filter.replaceAll("\\s", ""); // remove spaces
-            filter = filter.toLowerCase(); // make it lower case
+            filter = filter.toLowerCase(); // make it lower case (spaces are handled by the filter parser)
+            Matcher limitOption = LIMIT.matcher(filter);
+            if (limitOption.find()) {
+                try {
+                    limit = Long.parseLong(limitOption.group(1));
+                } catch (NumberFormatException e) {
+                    limit = -1;
+                }
+                if (limit < 0) {
+                    printError("%s%n", ConsoleText.INVALID);
+                    return; // leave early.
+                }
+                filter = (filter.substring(0, limitOption.start()) + filter.substring(limitOption.end())).trim();
+            }
             if (filter.equalsIgnoreCase(ConsoleText.CMD_QUESTION.toString())) {
                 printOutput("%s%n", ConsoleText.FILTER_HELP);
                 return; // leave early. only doing ? as help could be a game name.
@@ -129,14 +267,26 @@ public class ConsoleApp {
 
             if (filter.equalsIgnoreCase(ConsoleText.CMD_CLEAR.toString())) {
                 planner.reset();
-                printOutput("%s%n", ConsoleText.FILTERED_CLEAR);
+                printMessage("%s%n", ConsoleText.FILTERED_CLEAR);
                 return; // leave early.
             }
+            if (planner instanceof Planner && processHistory((Planner) planner, filter)) {
+                return; // leave early, undo, redo or history.
+            }
             if (filter.contains(ConsoleText.CMD_SORT_OPTION.toString())) {
                 // break it up, figure out sort
                 boolean ascending = true; // default
                 String[] parts = filter.split(ConsoleText.CMD_SORT_OPTION.toString());
-                if (parts.length == 2) {
+                List<SortKey> keys = null; // several sort keys, such as sort:rating desc, year
+                if (parts.length == 2 && parts[1].contains(",") && planner instanceof Planner) {
+                    try {
+                        keys = SortKey.parse(parts[1]);
+                    } catch (IllegalArgumentException e) {
+                        printError("%s%n", ConsoleText.INVALID);
+                        return; // leave early.
+                    }
+                    sortON = keys.get(0).getColumn();
+                } else if (parts.length == 2) {
                     String sort = parts[1];
                     if (sort.contains(ConsoleText.CMD_SORT_OPTION_DIRECTION_ASC.toString())) {
                         ascending = true;
@@ -149,36 +299,158 @@ public class ConsoleApp {
                                 .indexOf(ConsoleText.CMD_SORT_OPTION_DIRECTION_DESC.toString()));
                     }
                     try {
-                        sortON = GameData.fromString(sort);
+                        sortON = GameData.fromString(sort.trim());
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s%n", ConsoleText.INVALID);
+                        printError("%s%n", ConsoleText.INVALID);
                         return; // leave early.
                     }
                 }
 
-                result = planner.filter(parts[0], sortON, ascending);  // NOTICE: sortON and ascending are used here.
+                try {
+                    result = keys != null ? ((Planner) planner).filter(parts[0], keys)
+                            : planner.filter(parts[0], sortON, ascending);  // NOTICE: sortON and ascending are used here.
+                } catch (IllegalArgumentException e) {
+                    printError("%s %s%n", ConsoleText.INVALID_FILTER, e.getMessage());
+                    return; // leave early, current filter is unchanged.
+                }
             } else {
-                result = planner.filter(filter); // default sort
+                try {
+                    result = planner.filter(filter); // default sort
+                } catch (IllegalArgumentException e) {
+                    printError("%s %s%n", ConsoleText.INVALID_FILTER, e.getMessage());
+                    return; // leave early, current filter is unchanged.
+                }
             }
         } else {
-            printOutput("%s%n", ConsoleText.NO_FILTER);
-            result = planner.filter("");
+            printMessage("%s%n", ConsoleText.NO_FILTER);
+            result = currentGames();
         }
-        printFilterStream(result, sortON);
+        printFilterStream(result, sortON, limit);
+    }
+
+    /**
+     * Process the filter history options: undo, redo, history to list the steps, and
+     * history [#] to go back (or forward) to a step. The results of the step are printed.
+     *
+     * @param history the planner.
+     * @param filter  the rest of the filter command, lower case.
+     * @return true if it was a history option, false if it is a filter.
+     */
+    private boolean processHistory(Planner history, String filter) {
+        String[] words = filter.trim().split("\\s+");
+        boolean moved;
+        if (words.length == 1 && words[0].equals(ConsoleText.CMD_UNDO.toString())) {
+            moved = history.undo();
+        } else if (words.length == 1 && words[0].equals(ConsoleText.CMD_REDO.toString())) {
+            moved = history.redo();
+        } else if (words.length == 1 && words[0].equals(ConsoleText.CMD_HISTORY.toString())) {
+            FilterHistory steps = history.history();
+            for (int i = 0; i < steps.size(); i++) {
+                String label = steps.label(i).isEmpty() ? ConsoleText.HISTORY_START.toString() : steps.label(i);
+                String mark = i == steps.position() ? "*" : " ";
+                if (steps.count(i) == 0) { // no results, the next filter starts from all games
+                    printOutput("%s%d: %s%n", mark, i, label);
+                } else {
+                    printOutput("%s%d: %s (%d)%n", mark, i, label, steps.count(i));
+                }
+            }
+            return true;
+        } else if (words.length == 2 && words[0].equals(ConsoleText.CMD_HISTORY.toString())) {
+            try {
+                history.jumpTo(Integer.parseInt(words[1]));
+                moved = true;
+            } catch (IllegalArgumentException e) { // includes NumberFormatException
+                moved = false;
+            }
+        } else {
+            return false;
+        }
+        if (!moved) {
+            printError("%s%n", ConsoleText.NO_STEP);
+            return true;
+        }
+        ResultSnapshot snapshot = history.snapshot();
+        printFilterStream(snapshot.stream(),
+                snapshot.keys().isEmpty() ? GameData.NAME : snapshot.keys().get(0).getColumn(), Long.MAX_VALUE);
+        return true;
     }
 
     /**
      * Print the filtered stream of games.
      * 
+     * Games are written straight from the stream into the output buffer, in the
+     * output format, without collecting them into a list or going through printf.
+     * Each row is built in the same StringBuilder and copied through the same char
+     * array, so printing creates next to no garbage.
+     * 
      * @param games  the stream of games to print.
      * @param sortON also is the column used for 'extra info' based on the sort
      *               type.
+     * @param limit  the most games to print, the rest are only counted.
      */
-    private static void printFilterStream(Stream<BoardGame> games, GameData sortON) {
-        int counter = 1;
-        List<BoardGame> gameList = games != null ? games.toList() : Collections.emptyList();
-        for (BoardGame game : gameList) {
-            printOutput("%d: %s%n", counter++, game.toStringWithInfo(sortON));
+    private void printFilterStream(Stream<BoardGame> games, GameData sortON, long limit) {
+        if (games == null) {
+            return;
+        }
+        long counter = 0;
+        Iterator<BoardGame> it = games.iterator();
+        if (format.appendHeader(row, OutputFormat.ALL_COLUMNS)) {
+            writeRow();
+        }
+        while (it.hasNext() && counter < limit) {
+            format.appendGame(row, ++counter, it.next(), sortON, OutputFormat.ALL_COLUMNS);
+            writeRow();
+        }
+        long more = 0;
+        for (; it.hasNext(); it.next()) {
+            more++;
+        }
+        if (more > 0) {
+            printMessage("%d %s%n", more, ConsoleText.MORE_RESULTS);
+        }
+    }
+
+    /**
+     * Writes the row as a line of output and clears it for the next one.
+     */
+    private void writeRow() {
+        int length = row.length();
+        if (rowChars.length < length) {
+            rowChars = new char[Math.max(length, rowChars.length * 2)];
+        }
+        row.getChars(0, length, rowChars, 0);
+        out.write(rowChars, 0, length);
+        out.println();
+        row.setLength(0);
+    }
+
+    /**
+     * Process the export command, writing the current filter results to a file.
+     * 
+     * The format comes from the file extension (.csv, .tsv or .jsonl, with .gz for gzip),
+     * and columns:col,col,... picks the columns (all by default).
+     */
+    private void processExport() {
+        String args = remainder();
+        List<GameData> columns = OutputFormat.ALL_COLUMNS;
+        Matcher columnsOption = COLUMNS.matcher(args);
+        try {
+            if (columnsOption.find()) {
+                columns = new ArrayList<>();
+                for (String column : columnsOption.group(1).split(",")) {
+                    columns.add(GameData.fromString(column.trim()));
+                }
+                args = args.substring(0, columnsOption.start()) + args.substring(columnsOption.end());
+            }
+            String filename = args.trim();
+            if (filename.isEmpty()) {
+                printError("%s %s%n", ConsoleText.INVALID_EXPORT, "no file name");
+                return;
+            }
+            long count = ResultExporter.forFile(filename, columns).export(currentGames(), Path.of(filename));
+            printMessage("%s %d (%s)%n", ConsoleText.EXPORTED, count, filename);
+        } catch (IllegalArgumentException | IOException e) {
+            printError("%s %s%n", ConsoleText.INVALID_EXPORT, e.getMessage());
         }
     }
 
@@ -203,9 +475,10 @@ public class ConsoleApp {
                         break;
                     }
                     try {
-                        gameList.addToList(toAdd, planner.filter(""));
+                        gameList.addToList(toAdd, currentGames());
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s %s%n", ConsoleText.INVALID_LIST, toAdd);
+                        printError("%s %s%n", ConsoleText.INVALID_LIST, toAdd);
+                        printSuggestions(toAdd, false);
                     }
                     break;
                 case CMD_REMOVE:
@@ -216,7 +489,8 @@ public class ConsoleApp {
                     try {
                         gameList.removeFromList(remove);
                     } catch (IllegalArgumentException e) {
-                        printOutput("%s %s%n", ConsoleText.INVALID_LIST, remove);
+                        printError("%s %s%n", ConsoleText.INVALID_LIST, remove);
+                        printSuggestions(remove, true);
                     }
                     break;
                 case CMD_SAVE:
@@ -232,8 +506,8 @@ public class ConsoleApp {
                     printOutput("%s%n", ConsoleText.LIST_HELP);
                     break;
                 default:
-                    printOutput("%s%n", ConsoleText.INVALID);
-                    printOutput("%s%n", ConsoleText.LIST_HELP);
+                    printError("%s%n", ConsoleText.INVALID);
+                    printMessage("%s%n", ConsoleText.LIST_HELP);
             }
         } else {
             printCurrentList(); // just print the list if "list" only is entered.
@@ -250,7 +524,7 @@ public class ConsoleApp {
                 printOutput("%d: %s%n", counter++, game);
             }
         } else {
-            printOutput("%s%n", ConsoleText.NO_GAMES_LIST);
+            printMessage("%s%n", ConsoleText.NO_GAMES_LIST);
         }
 
     }
@@ -261,9 +535,16 @@ public class ConsoleApp {
      * @return the next command.
      */
     private ConsoleText nextCommand() {
-        if (current == null || !current.hasNext()) {
+        while (current == null || !current.hasNext()) {
             String line = getInput("%s", ConsoleText.PROMPT);
-            current = new Scanner(line.trim()); // now split up the line
+            if (line == null) {
+                return ConsoleText.CMD_EXIT; // end of the input
+            }
+            line = line.trim();
+            if (batch && line.startsWith("#")) {
+                line = ""; // comment
+            }
+            current = new Scanner(line); // now split up the line
         }
         return ConsoleText.fromString(current.next()); // get the command
     }
@@ -278,22 +559,24 @@ public class ConsoleApp {
     }
 
     /** 
-     * Gets input from the client.
+     * Gets input from the client. The prompt is not shown in batch mode.
      * 
      * @param format the format string to print.
      * @param args   the arguments to the format string.
      * 
-     * @return the input from the client as a string, one line at a time.
+     * @return the input from the client as a string, one line at a time, or null at
+     *         the end of the input.
      */
-    private static String getInput(String format, Object... args) {
-        System.out.printf(format, args);
-        if (IN == null) {
-            return "";
+    private String getInput(String format, Object... args) {
+        if (!batch) {
+            out.printf(format, args);
         }
-        if (!IN.hasNextLine()) {
-            return "";
+        out.flush(); // one flush per command, with the prompt
+        if (!in.hasNextLine()) {
+            return null;
         }
-        return IN.nextLine();
+        lineNumber++;
+        return in.nextLine();
     }
 
 
@@ -301,14 +584,78 @@ public class ConsoleApp {
      * Prints output to the client.
      * 
      * We could call printf directly, but this gives us one location in case
-     * we want to change the output to a file or other location.
+     * we want to change the output to a file or other location. Output is
+     * buffered until the next prompt.
+     * 
+     * 
+     * @param format the format string to print.
+     * @param output the output to print (array to match the format).
+     */
+    private void printOutput(String format, Object... output) {
+        out.printf(format, output);
+    }
+
+    /**
+     * Prints the closest game names to a name that was not found, if there are any. Allows
+     * one typo per four characters typed, between 1 and 3.
+     *
+     * @param name   the name typed.
+     * @param inList if true, only names in the game list are suggested.
+     */
+    private void printSuggestions(String name, boolean inList) {
+        if (!(gameList instanceof GameList) || name.matches("\\d+(-\\d+)?")) {
+            return; // numbers and ranges are not names
+        }
+        GameList list = (GameList) gameList;
+        int typos = Math.max(1, Math.min(3, name.trim().length() / 4));
+        List<String> names = inList ? list.suggestInList(name, typos, MAX_SUGGESTIONS)
+                : list.suggestGames(name, typos, MAX_SUGGESTIONS);
+        if (!names.isEmpty()) {
+            printMessage("%s %s%n", ConsoleText.DID_YOU_MEAN, String.join(", ", names));
+        }
+    }
+
+    /**
+     * Prints a message meant for people, such as a hint after a result. Not printed in
+     * batch mode, so scripts only see results.
      * 
+     * @param format the format string to print.
+     * @param output the output to print (array to match the format).
+     */
+    private void printMessage(String format, Object... output) {
+        if (!batch) {
+            printOutput(format, output);
+        }
+    }
+
+    /**
+     * Prints a failed command. In batch mode the message goes to the error stream with the
+     * line number, and the run will end with {@link #EXIT_FAILED}.
      * 
      * @param format the format string to print.
      * @param output the output to print (array to match the format).
      */
-    private static void printOutput(String format, Object... output) {
-        System.out.printf(format, output);
+    private void printError(String format, Object... output) {
+        if (batch) {
+            failed = true;
+            err.printf("line %d: " + format, prepend(lineNumber, output));
+        } else {
+            printOutput(format, output);
+        }
+    }
+
+    /**
+     * Puts a value before the others.
+     * 
+     * @param first  the first value.
+     * @param others the rest.
+     * @return the combined array.
+     */
+    private static Object[] prepend(Object first, Object[] others) {
+        Object[] result = new Object[others.length + 1];
+        result[0] = first;
+        System.arraycopy(others, 0, result, 1, others.length);
+        return result;
     }
 
     /**
@@ -328,9 +675,11 @@ public class ConsoleApp {
         /** various commands and text. */
         WELCOME, HELP, INVALID, GOODBYE, PROMPT, NO_FILTER, NO_GAMES_LIST, FILTERED_CLEAR, LIST_HELP, FILTER_HELP,
         /** commands continued. */
-        INVALID_LIST, EASTER_EGG, CMD_EASTER_EGG,
+        INVALID_LIST, INVALID_FILTER, INVALID_EXPORT, EXPORTED, MORE_RESULTS, DID_YOU_MEAN, EASTER_EGG, CMD_EASTER_EGG,
+        /** filter history text. */
+        NO_STEP, HISTORY_START, CMD_UNDO, CMD_REDO, CMD_HISTORY, MEMORY, MEMORY_BUDGET, CMD_MEMORY,
         /** commands general. */
-        CMD_EXIT, CMD_HELP, CMD_QUESTION, CMD_FILTER, CMD_LIST,
+        CMD_EXIT, CMD_HELP, CMD_QUESTION, CMD_FILTER, CMD_LIST, CMD_EXPORT,
         /** commands specific to lists and filters. */
         CMD_SHOW, CMD_ADD, CMD_REMOVE, CMD_CLEAR, CMD_SAVE,
         /** more options on commands. */
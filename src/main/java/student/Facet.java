@@ -0,0 +1,179 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Describes a histogram to compute over a set of games, such as counts per decade of
+ * the year published or per rating band.
+ *
+ * A facet buckets a numeric GameData column into buckets of a fixed width starting at an
+ * origin. A facet over a GameRange counts a game in every bucket its range overlaps, so a
+ * players facet of width 1 counts how many games support each player count.
+ *
+ * Facets are computed together by {@link #count(ColumnStore, BitSet, List)} in one pass
+ * over the matching ordinals, reading the primitive columns of the catalog.
+ */
+public final class Facet {
+    /** Upper limit on the buckets in a facet, to catch a width that is far too small. */
+    private static final int MAX_BUCKETS = 1 << 20;
+
+    /** column to bucket, null for a range facet. */
+    private final GameData column;
+    /** range to bucket, null for a column facet. */
+    private final GameRange range;
+    /** width of each bucket. */
+    private final double width;
+    /** lower bound of the bucket at index 0. */
+    private final double origin;
+
+    /**
+     * Constructor for a facet.
+     *
+     * @param column column to bucket, or null.
+     * @param range  range to bucket, or null.
+     * @param width  width of each bucket.
+     * @param origin lower bound of the bucket at index 0.
+     */
+    private Facet(GameData column, GameRange range, double width, double origin) {
+        if (!(width > 0) || Double.isInfinite(width)) {
+            throw new IllegalArgumentException("Bucket width must be positive: " + width);
+        }
+        this.column = column;
+        this.range = range;
+        this.width = width;
+        this.origin = origin;
+    }
+
+    /**
+     * Facet over a numeric column with buckets starting at 0.
+     *
+     * @param column the column, any but name and id.
+     * @param width  width of each bucket, such as 10 for decades or 1.0 for rating bands.
+     * @return the facet.
+     */
+    public static Facet of(GameData column, double width) {
+        return of(column, width, 0);
+    }
+
+    /**
+     * Facet over a numeric column.
+     *
+     * @param column the column, any but name and id.
+     * @param width  width of each bucket.
+     * @param origin lower bound of one of the buckets.
+     * @return the facet.
+     */
+    public static Facet of(GameData column, double width, double origin) {
+        if (!ColumnStore.isInt(column) && !ColumnStore.isDouble(column)) {
+            throw new IllegalArgumentException("No facets on column " + column);
+        }
+        return new Facet(column, null, width, origin);
+    }
+
+    /**
+     * Facet over a range, counting each game in every bucket its range overlaps.
+     *
+     * @param range the range.
+     * @param width width of each bucket, such as 1 for player counts.
+     * @return the facet.
+     */
+    public static Facet of(GameRange range, int width) {
+        return new Facet(null, range, width, 0);
+    }
+
+    /**
+     * Get the column of a column facet.
+     *
+     * @return the column, or null for a range facet.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the range of a range facet.
+     *
+     * @return the range, or null for a column facet.
+     */
+    public GameRange getRange() {
+        return range;
+    }
+
+    /**
+     * Get the width of each bucket.
+     *
+     * @return the width.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Computes the histograms for the facets in a single pass over the matches.
+     *
+     * @param columns the catalog's columns.
+     * @param matches ordinals of the games to count.
+     * @param facets  the facets to compute.
+     * @return a histogram per facet, in the same order.
+     */
+    static List<Histogram> count(ColumnStore columns, BitSet matches, List<Facet> facets) {
+        int n = facets.size();
+        int[][] counts = new int[n][];
+        long[] firstBucket = new long[n];
+        GameData[] lowCols = new GameData[n];
+        GameData[] highCols = new GameData[n];
+        for (int f = 0; f < n; f++) {
+            Facet facet = facets.get(f);
+            lowCols[f] = facet.column != null ? facet.column : facet.range.getMinColumn();
+            highCols[f] = facet.column != null ? facet.column : facet.range.getMaxColumn();
+            firstBucket[f] = facet.bucket(Math.min(columns.min(lowCols[f]), columns.min(highCols[f])));
+            long last = facet.bucket(Math.max(columns.max(lowCols[f]), columns.max(highCols[f])));
+            if (last - firstBucket[f] >= MAX_BUCKETS) {
+                throw new IllegalArgumentException("Too many buckets for " + facet);
+            }
+            counts[f] = new int[(int) (last - firstBucket[f] + 1)];
+        }
+        for (int i = matches.nextSetBit(0); i >= 0 && i < columns.size(); i = matches.nextSetBit(i + 1)) {
+            for (int f = 0; f < n; f++) {
+                Facet facet = facets.get(f);
+                int from = (int) (facet.bucket(columns.value(lowCols[f], i)) - firstBucket[f]);
+                int to = (int) (facet.bucket(columns.value(highCols[f], i)) - firstBucket[f]);
+                for (int b = from; b <= to; b++) {
+                    counts[f][b]++;
+                }
+            }
+        }
+        List<Histogram> result = new ArrayList<>(n);
+        for (int f = 0; f < n; f++) {
+            result.add(new Histogram(facets.get(f), firstBucket[f], counts[f]));
+        }
+        return result;
+    }
+
+    /**
+     * Index of the bucket holding the value.
+     *
+     * @param value the value.
+     * @return the bucket index, relative to the origin.
+     */
+    long bucket(double value) {
+        return (long) Math.floor((value - origin) / width);
+    }
+
+    /**
+     * Lower bound of a bucket.
+     *
+     * @param bucket the bucket index, relative to the origin.
+     * @return the smallest value in the bucket.
+     */
+    double lowerBound(long bucket) {
+        return origin + bucket * width;
+    }
+
+    @Override
+    public String toString() {
+        return (column != null ? column.toString() : range.toString()) + "/" + width;
+    }
+}
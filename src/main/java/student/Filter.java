@@ -1,89 +1,85 @@
 package student;
 
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
  * Utility class for filtering a Stream of objects based on a textual filter.
  * If the filter is empty or null, the original stream is returned without any changes.
+ *
+ * Filters are parsed by FilterParser into a FilterNode tree. Conditions can be combined
+ * with commas or {@code and} / {@code &}, {@code or} / {@code |}, {@code not} / {@code !},
+ * and grouped with parentheses. Besides the Operations comparisons, a column can be tested
+ * with {@code between low and high} or {@code in (a, b, c)}.
  */
 public final class Filter {
+    /**
+     * Condition that scopes a filter to the games in the current game list. It takes no
+     * operator or value, and is evaluated by the Planner as an intersection with the list
+     * before any other condition.
+     */
+    public static final String IN_LIST = "inlist";
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
     private Filter() { }
 
     /**
-     * Splits the given filterString by commas and applies each condition
-     * sequentially to the given stream.
+     * Parses the filterString and applies it to the given stream.
+     * The {@value #IN_LIST} condition is ignored here as there is no list to check against.
      * @param games        the original stream of BoardGame objects.
-     * @param filterString a set of conditions separated by commas.
+     * @param filterString the filter, such as conditions separated by commas.
      * @return a new Stream<BoardGame> after applying all filtering conditions.
+     * @throws IllegalArgumentException if the filter is malformed.
      */
     public static Stream<BoardGame> applyFilter(Stream<BoardGame> games, String filterString) {
-        if (filterString == null || filterString.trim().isEmpty()) {
+        FilterNode root = parse(filterString);
+        if (root == FilterNode.TRUE) {
             return games;
         }
-
-        // Split by comma and trim each condition (preserve internal spaces in values)
-        String[] conditions = filterString.split(",");
-        Stream<BoardGame> result = games;
-        for (String condition : conditions) {
-            condition = condition.trim();
-            result = filterSingle(result, condition);
-        }
-        return result;
+        return games.filter(root.compile(g -> true));
     }
 
     /**
-     * Parses a single condition (e.g., "minPlayers>4") and applies it to the given stream of games.
-     * Identifies the operator and the column. If the condition is invalid or operator is unrecognized,
-     * the original stream is returned unchanged.
-     *
-     * @param games     the stream of BoardGame objects to filter.
-     * @param condition a single condition string (e.g., "maxPlayers<6").
-     * @return a new Stream<BoardGame> with the condition applied.
+     * Parses the filter into a tree that can be inspected and compiled.
+     * @param filterString the filter, may be null or empty.
+     * @return the root of the tree, {@link FilterNode#TRUE} if the filter is empty.
+     * @throws IllegalArgumentException if the filter is malformed.
      */
-    private static Stream<BoardGame> filterSingle(Stream<BoardGame> games, String condition) {
-        // Identify the operator in the condition string
-        Operations op = Operations.getOperatorFromStr(condition);
-        if (op == null) {
-            // If no valid operator is found, return the stream as is
-            return games;
-        }
-
-        // Split the condition into left and right parts around the operator
-        String[] parts = condition.split(op.getOperator());
-        if (parts.length != 2) {
-            // Invalid format, return the stream unchanged
-            return games;
-        }
-        String left = parts[0].trim();
-        String right = parts[1].trim();
+    public static FilterNode parse(String filterString) {
+        return FilterParser.parse(filterString);
+    }
 
-        // Determine the column to filter on, ignoring 'ID' (not a valid filter criterion)
-        GameData column;
-        try {
-            column = GameData.fromString(left);
-            if (column == GameData.ID) {
-                return games;
-            }
-        } catch (Exception e) {
-            // If the column name is unrecognized, skip this filter
-            return games;
-        }
+    /**
+     * Checks if the filter is scoped to the game list by the {@value #IN_LIST} condition.
+     * @param filterString the filter.
+     * @return true if the {@value #IN_LIST} condition is part of the top level AND.
+     * @throws IllegalArgumentException if the filter is malformed.
+     */
+    public static boolean scopesToList(String filterString) {
+        return parse(filterString).scopesToList();
+    }
 
-        // Apply the appropriate filtering based on the column's data type
+    /**
+     * Builds the predicate for a single comparison, based on the column's data type.
+     * @param column the column to compare.
+     * @param op     the comparison operator.
+     * @param value  the value as written in the filter.
+     * @return the predicate, or null if the condition does not apply to the column
+     * (such as a value that does not parse as a number).
+     */
+    static Predicate<BoardGame> condition(GameData column, Operations op, String value) {
         switch (column) {
             case NAME:
-                return stringFilter(games, column, op, right);
+                return stringFilter(column, op, value);
             case RATING:
             case DIFFICULTY:
                 // Double-based filter
                 try {
-                    double val = Double.parseDouble(right);
-                    return doubleFilter(games, column, op, val);
+                    return doubleFilter(column, op, Double.parseDouble(value));
                 } catch (NumberFormatException e) {
-                    return games;
+                    return null;
                 }
             case RANK:
             case MIN_PLAYERS:
@@ -93,110 +89,103 @@ public final class Filter {
             case YEAR:
                 // Integer-based filter
                 try {
-                    int val = Integer.parseInt(right);
-                    return intFilter(games, column, op, val);
+                    return intFilter(column, op, Integer.parseInt(value));
                 } catch (NumberFormatException e) {
-                    return games;
+                    return null;
                 }
             default:
-                return games;
+                return null;
         }
     }
 
     /**
-     * Applies a string-based filter to the stream (e.g., filtering by name).
-     * @param games   the stream of games.
+     * Builds a string-based predicate (e.g., filtering by name).
      * @param column  the GameData enum specifying the column (expected to be NAME).
      * @param op      the parsed operator from Operations class.
      * @param value   the string value to match against.
-     * @return a filtered stream based on the string matching rules.
+     * @return the predicate based on the string matching rules.
      */
-    private static Stream<BoardGame> stringFilter(Stream<BoardGame> games, GameData column,
-                                                  Operations op, String value) {
+    private static Predicate<BoardGame> stringFilter(GameData column, Operations op, String value) {
         final String v = value.toLowerCase();
         switch (op) {
             case CONTAINS:
                 // Name contains (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).toLowerCase().contains(v));
+                return g -> getStringVal(g, column).toLowerCase().contains(v);
             case EQUALS:
                 // Name equals (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).equalsIgnoreCase(v));
+                return g -> getStringVal(g, column).equalsIgnoreCase(v);
             case NOT_EQUALS:
                 // Name not equals (case-insensitive)
-                return games.filter(g -> !getStringVal(g, column).equalsIgnoreCase(v));
+                return g -> !getStringVal(g, column).equalsIgnoreCase(v);
 
             case GREATER_THAN:
                 // Name lexicographically greater than (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).compareToIgnoreCase(v) > 0);
+                return g -> getStringVal(g, column).compareToIgnoreCase(v) > 0;
             case GREATER_THAN_EQUALS:
                 // Name lexicographically greater than or equal to (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).compareToIgnoreCase(v) >= 0);
+                return g -> getStringVal(g, column).compareToIgnoreCase(v) >= 0;
             case LESS_THAN:
                 // Name lexicographically less than (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).compareToIgnoreCase(v) < 0);
+                return g -> getStringVal(g, column).compareToIgnoreCase(v) < 0;
             case LESS_THAN_EQUALS:
                 // Name lexicographically less than or equal to (case-insensitive)
-                return games.filter(g -> getStringVal(g, column).compareToIgnoreCase(v) <= 0);
+                return g -> getStringVal(g, column).compareToIgnoreCase(v) <= 0;
 
             default:
-                return games;
+                return null;
         }
     }
 
     /**
-     * Applies an integer-based filter to the stream.
-     * @param games   the stream of games.
+     * Builds an integer-based predicate.
      * @param column  the GameData enum specifying which int field to compare.
      * @param op      the parsed operator from Operations class.
      * @param value   the integer value used in comparison.
-     * @return a filtered stream based on the integer comparison rules.
+     * @return the predicate based on the integer comparison rules.
      */
-    private static Stream<BoardGame> intFilter(Stream<BoardGame> games, GameData column,
-                                               Operations op, int value) {
+    private static Predicate<BoardGame> intFilter(GameData column, Operations op, int value) {
         switch (op) {
             case GREATER_THAN:
-                return games.filter(g -> getIntVal(g, column) > value);
+                return g -> getIntVal(g, column) > value;
             case GREATER_THAN_EQUALS:
-                return games.filter(g -> getIntVal(g, column) >= value);
+                return g -> getIntVal(g, column) >= value;
             case LESS_THAN:
-                return games.filter(g -> getIntVal(g, column) < value);
+                return g -> getIntVal(g, column) < value;
             case LESS_THAN_EQUALS:
-                return games.filter(g -> getIntVal(g, column) <= value);
+                return g -> getIntVal(g, column) <= value;
             case EQUALS:
-                return games.filter(g -> getIntVal(g, column) == value);
+                return g -> getIntVal(g, column) == value;
             case NOT_EQUALS:
-                return games.filter(g -> getIntVal(g, column) != value);
+                return g -> getIntVal(g, column) != value;
             default:
-                return games;
+                return null;
         }
     }
 
     /**
-     * Applies a double-based filter to the stream (e.g., rating or difficulty).
-     * @param games   the stream of games.
+     * Builds a double-based predicate (e.g., rating or difficulty).
      * @param column  the GameData enum specifying which double field to compare.
      * @param op      the parsed operator from Operations class.
      * @param value   the double value used in comparison.
-     * @return a filtered stream based on the double comparison rules.
+     * @return the predicate based on the double comparison rules.
      */
-    private static Stream<BoardGame> doubleFilter(Stream<BoardGame> games, GameData column,
-                                                  Operations op, double value) {
+    private static Predicate<BoardGame> doubleFilter(GameData column, Operations op, double value) {
         switch (op) {
             case GREATER_THAN:
-                return games.filter(g -> getDoubleVal(g, column) > value);
+                return g -> getDoubleVal(g, column) > value;
             case GREATER_THAN_EQUALS:
-                return games.filter(g -> getDoubleVal(g, column) >= value);
+                return g -> getDoubleVal(g, column) >= value;
             case LESS_THAN:
-                return games.filter(g -> getDoubleVal(g, column) < value);
+                return g -> getDoubleVal(g, column) < value;
             case LESS_THAN_EQUALS:
-                return games.filter(g -> getDoubleVal(g, column) <= value);
+                return g -> getDoubleVal(g, column) <= value;
             case EQUALS:
                 // Use a small tolerance for double equality comparisons
-                return games.filter(g -> Math.abs(getDoubleVal(g, column) - value) < 1e-9);
+                return g -> Math.abs(getDoubleVal(g, column) - value) < 1e-9;
             case NOT_EQUALS:
-                return games.filter(g -> Math.abs(getDoubleVal(g, column) - value) > 1e-9);
+                return g -> Math.abs(getDoubleVal(g, column) - value) > 1e-9;
             default:
-                return games;
+                return null;
         }
     }
 
@@ -220,7 +209,7 @@ public final class Filter {
      * @param col the GameData column to extract.
      * @return the integer value of the specified column, or 0 if the column is not an integer field.
      */
-    private static int getIntVal(BoardGame game, GameData col) {
+    static int getIntVal(BoardGame game, GameData col) {
         switch (col) {
             case RANK:
                 return game.getRank();
@@ -246,7 +235,7 @@ public final class Filter {
      * @param col the GameData column to extract.
      * @return the double value of the specified column, or 0.0 if the column is not a double field.
      */
-    private static double getDoubleVal(BoardGame game, GameData col) {
+    static double getDoubleVal(BoardGame game, GameData col) {
         switch (col) {
             case RATING:
                 return game.getRating();
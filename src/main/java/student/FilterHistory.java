@@ -0,0 +1,277 @@
+package student;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The steps of a planner's cumulative filters, for undo, redo and jumping to a step.
+ *
+ * Each step is a reference to the {@link ResultSnapshot} the step produced, and snapshots
+ * share their games with each other, so a step costs a few references, not a copy of its
+ * results. Moving between steps makes the step's snapshot current again without running any
+ * filter. A history never changes: a filter, reset or move makes a new one, sharing the
+ * step arrays when it only moves. Filtering after an undo drops the steps that were undone.
+ *
+ * Step 0 is the oldest step kept, which is the planner's start until more than
+ * {@value #MAX_STEPS} steps have been taken.
+ */
+public final class FilterHistory {
+    /** Most steps kept, older steps are dropped. */
+    public static final int MAX_STEPS = 100;
+
+    /** the results of each step. */
+    private final ResultSnapshot[] steps;
+    /** the filter of each step, as given. */
+    private final String[] labels;
+    /** the parsed filter of each step, null for the start and resets. */
+    private final FilterNode[] filters;
+    /** the current step. */
+    private final int position;
+    /** the current results, the current step's games under the latest version. */
+    private final ResultSnapshot current;
+    /** bytes used by the steps, -1 until counted. */
+    private volatile long bytes;
+
+    /**
+     * Constructor for a history.
+     *
+     * @param steps    the results of each step, never modified.
+     * @param labels   the filter of each step, never modified.
+     * @param filters  the parsed filter of each step, never modified.
+     * @param position the current step.
+     * @param current  the current results.
+     */
+    private FilterHistory(ResultSnapshot[] steps, String[] labels, FilterNode[] filters, int position,
+            ResultSnapshot current) {
+        this(steps, labels, filters, position, current, -1);
+    }
+
+    /**
+     * Constructor for a history whose steps have been counted.
+     *
+     * @param steps    the results of each step, never modified.
+     * @param labels   the filter of each step, never modified.
+     * @param filters  the parsed filter of each step, never modified.
+     * @param position the current step.
+     * @param current  the current results.
+     * @param bytes    bytes used by the steps, -1 if not counted.
+     */
+    private FilterHistory(ResultSnapshot[] steps, String[] labels, FilterNode[] filters, int position,
+            ResultSnapshot current, long bytes) {
+        this.steps = steps;
+        this.labels = labels;
+        this.filters = filters;
+        this.position = position;
+        this.current = current;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates the history of a new planner: one step with no filter applied.
+     *
+     * @return the history.
+     */
+    static FilterHistory start() {
+        ResultSnapshot empty = ResultSnapshot.empty(0);
+        return new FilterHistory(new ResultSnapshot[] {empty}, new String[] {""}, new FilterNode[1], 0, empty);
+    }
+
+    /**
+     * Adds a step after the current one, dropping any steps after it.
+     *
+     * @param label    the filter of the step.
+     * @param filter   the parsed filter, null for a reset.
+     * @param snapshot the results of the step.
+     * @return the new history, at the new step.
+     */
+    FilterHistory push(String label, FilterNode filter, ResultSnapshot snapshot) {
+        return keep(position + 1, label, filter, snapshot);
+    }
+
+    /**
+     * Replaces the current step, dropping any steps after it.
+     *
+     * @param label    the filter of the step.
+     * @param filter   the parsed filter.
+     * @param snapshot the results of the step.
+     * @return the new history, at the replaced step.
+     */
+    FilterHistory replace(String label, FilterNode filter, ResultSnapshot snapshot) {
+        return keep(position, label, filter, snapshot);
+    }
+
+    /**
+     * Keeps the steps before a step, then sets the step and moves to it.
+     *
+     * @param step     the step, at most one after the current step.
+     * @param label    the filter of the step.
+     * @param filter   the parsed filter, null for a reset.
+     * @param snapshot the results of the step.
+     * @return the new history.
+     */
+    private FilterHistory keep(int step, String label, FilterNode filter, ResultSnapshot snapshot) {
+        int from = step < MAX_STEPS ? 0 : step + 1 - MAX_STEPS;
+        int size = step + 1 - from;
+        ResultSnapshot[] nextSteps = Arrays.copyOfRange(steps, from, from + size);
+        String[] nextLabels = Arrays.copyOfRange(labels, from, from + size);
+        FilterNode[] nextFilters = Arrays.copyOfRange(filters, from, from + size);
+        nextSteps[size - 1] = snapshot;
+        nextLabels[size - 1] = label;
+        nextFilters[size - 1] = filter;
+        return new FilterHistory(nextSteps, nextLabels, nextFilters, size - 1, snapshot);
+    }
+
+    /**
+     * Moves to a step, keeping every step.
+     *
+     * @param step the step.
+     * @return the new history, with the step's results current under a new version.
+     */
+    FilterHistory moveTo(int step) {
+        return new FilterHistory(steps, labels, filters, step,
+                steps[step].withVersion(current.getVersion() + 1), bytes);
+    }
+
+    /**
+     * Drops every step but the current one and, if the current one is a filter, the step it
+     * was applied to, which {@link Planner#refine} needs.
+     *
+     * @return the new history, this one if it has no other steps.
+     */
+    FilterHistory trim() {
+        int from = position > 0 && filters[position] != null ? position - 1 : position;
+        if (from == 0 && steps.length == position + 1) {
+            return this;
+        }
+        return new FilterHistory(Arrays.copyOfRange(steps, from, position + 1),
+                Arrays.copyOfRange(labels, from, position + 1), Arrays.copyOfRange(filters, from, position + 1),
+                position - from, current);
+    }
+
+    /**
+     * Estimates the bytes used by the results of the steps, counting results shared between
+     * steps once. Counted once per history, as it never changes.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        if (bytes >= 0) {
+            return bytes;
+        }
+        Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        long total = 0;
+        for (ResultSnapshot step : steps) {
+            if (counted.add(step.getGames())) {
+                total += 4L * step.size(); // a reference per game
+            }
+            if (counted.add(step.ordinals())) {
+                total += step.ordinals().size() / 8;
+            }
+        }
+        bytes = total + 8L * steps.length; // the step arrays
+        return bytes;
+    }
+
+    /**
+     * Gets the current results.
+     *
+     * @return the current results.
+     */
+    ResultSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Gets the results a step produced.
+     *
+     * @param step the step.
+     * @return the results.
+     */
+    ResultSnapshot snapshot(int step) {
+        return steps[step];
+    }
+
+    /**
+     * Gets the parsed filter of a step.
+     *
+     * @param step the step.
+     * @return the filter, null for the start and resets.
+     */
+    FilterNode filter(int step) {
+        return filters[step];
+    }
+
+    /**
+     * Number of steps kept.
+     *
+     * @return the size, at least 1.
+     */
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+     * Gets the current step.
+     *
+     * @return the step, from 0 to size - 1.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Gets the filter of a step, with its sort.
+     *
+     * @param step the step.
+     * @return the filter, empty for the start.
+     * @throws IllegalArgumentException if there is no such step.
+     */
+    public String label(int step) {
+        return labels[check(step)];
+    }
+
+    /**
+     * Gets the number of games a step produced.
+     *
+     * @param step the step.
+     * @return the number of games.
+     * @throws IllegalArgumentException if there is no such step.
+     */
+    public int count(int step) {
+        return steps[check(step)].size();
+    }
+
+    /**
+     * Checks if there is a step before the current one.
+     *
+     * @return true if undo would change the results.
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Checks if there is an undone step after the current one.
+     *
+     * @return true if redo would change the results.
+     */
+    public boolean canRedo() {
+        return position < steps.length - 1;
+    }
+
+    /**
+     * Checks a step number.
+     *
+     * @param step the step.
+     * @return the step.
+     * @throws IllegalArgumentException if there is no such step.
+     */
+    int check(int step) {
+        if (step < 0 || step >= steps.length) {
+            throw new IllegalArgumentException("No such filter step: " + step);
+        }
+        return step;
+    }
+}
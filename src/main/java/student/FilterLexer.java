@@ -0,0 +1,379 @@
+package student;
+
+/**
+ * Single pass lexer for the filter language.
+ *
+ * The lexer is pulled by the FilterParser one token at a time. Values on the right side
+ * of a comparison are read with {@link #nextValue(boolean)}, which takes everything up to the
+ * next separator (comma, &amp;, |, a closing parenthesis, or the words and / or) so
+ * values such as {@code name~=a>b} or {@code name==7 wonders} do not need quoting. In a
+ * name, &amp;, | and the words and / or only end the value when a condition follows them,
+ * so names such as {@code Tigris & Euphrates} do not need quoting either. A value can be
+ * quoted with ' or " to include separators, such as {@code name=="Oh, my"}.
+ */
+final class FilterLexer {
+    /** Kinds of tokens in the filter language. */
+    enum Kind {
+        /** a column name, keyword or bare value. */
+        WORD,
+        /** a quoted value. */
+        STRING,
+        /** a comparison operator (see Operations). */
+        OPERATOR,
+        /** grouping and separators. */
+        LPAREN, RPAREN, COMMA,
+        /** boolean operators. */
+        AND, OR, NOT,
+        /** end of the input. */
+        END
+    }
+
+    /** A token and where it started in the input. */
+    static final class Token {
+        /** kind of token. */
+        private final Kind kind;
+        /** text of the token, unquoted for strings. */
+        private final String text;
+        /** index of the first character in the input. */
+        private final int position;
+
+        /**
+         * Constructor for a token.
+         *
+         * @param kind     kind of token.
+         * @param text     text of the token.
+         * @param position index of the first character in the input.
+         */
+        Token(Kind kind, String text, int position) {
+            this.kind = kind;
+            this.text = text;
+            this.position = position;
+        }
+
+        /**
+         * Get the kind of token.
+         *
+         * @return the kind of token.
+         */
+        Kind kind() {
+            return kind;
+        }
+
+        /**
+         * Get the text of the token.
+         *
+         * @return the text of the token.
+         */
+        String text() {
+            return text;
+        }
+
+        /**
+         * Get the position of the token.
+         *
+         * @return index of the first character in the input.
+         */
+        int position() {
+            return position;
+        }
+
+        /**
+         * Checks if this is a word matching the keyword, ignoring case.
+         *
+         * @param keyword the keyword to compare.
+         * @return true if the token is the keyword.
+         */
+        boolean isKeyword(String keyword) {
+            return kind == Kind.WORD && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    /** Characters that end a word. */
+    private static final String WORD_BREAKS = "(),&|!<>=~\"'";
+
+    /** The input being lexed. */
+    private final String input;
+    /** Current index in the input. */
+    private int pos;
+    /** Token read by peek but not yet consumed. */
+    private Token peeked;
+    /** Opening parentheses read but not yet closed. */
+    private int groups;
+
+    /**
+     * Constructor for the lexer.
+     *
+     * @param input the filter text.
+     */
+    FilterLexer(String input) {
+        this.input = input;
+        this.pos = 0;
+    }
+
+    /**
+     * Looks at the next token without consuming it.
+     *
+     * @return the next token.
+     */
+    Token peek() {
+        if (peeked == null) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    /**
+     * Consumes the next token.
+     *
+     * @return the next token.
+     */
+    Token next() {
+        Token token = peek();
+        peeked = null;
+        return token;
+    }
+
+    /**
+     * Reads the value on the right side of a comparison.
+     *
+     * A quoted value is returned unquoted; a quote with no closing quote is part of the
+     * value. Otherwise the value runs until a comma, &amp;, |, the word and / or, or a
+     * closing parenthesis that is not matched inside the value, and is trimmed. In a name,
+     * &amp;, | and and / or are part of the value unless a condition follows them, and an
+     * unmatched closing parenthesis is too unless a group is open.
+     *
+     * @param name true if the value is a name.
+     * @return the value, possibly empty.
+     */
+    String nextValue(boolean name) {
+        if (peeked != null) {
+            throw new IllegalStateException("nextValue called after peek");
+        }
+        skipSpaces();
+        if (pos < input.length() && isQuote(input.charAt(pos)) && closingQuote(pos) >= 0) {
+            return quoted();
+        }
+        int start = pos;
+        int depth = 0;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (c == ',') {
+                break;
+            }
+            // the words and / or inside parentheses are part of the value, & and | are not
+            int end = depth == 0 || c == '&' || c == '|' ? separatorEnd(pos) : -1;
+            if (end >= 0 && (!name || startsCondition(end))) {
+                break;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0 && (!name || groups > 0)) {
+                    break;
+                }
+                depth = Math.max(0, depth - 1);
+            }
+            pos++;
+        }
+        return input.substring(start, pos).trim();
+    }
+
+    /**
+     * Reads the next token from the input.
+     *
+     * @return the token.
+     */
+    private Token read() {
+        skipSpaces();
+        int start = pos;
+        if (pos >= input.length()) {
+            return new Token(Kind.END, "", start);
+        }
+        char c = input.charAt(pos);
+        char n = pos + 1 < input.length() ? input.charAt(pos + 1) : '\0';
+        switch (c) {
+            case '(':
+                pos++;
+                groups++;
+                return new Token(Kind.LPAREN, "(", start);
+            case ')':
+                pos++;
+                groups--;
+                return new Token(Kind.RPAREN, ")", start);
+            case ',':
+                pos++;
+                return new Token(Kind.COMMA, ",", start);
+            case '&':
+                pos += n == '&' ? 2 : 1;
+                return new Token(Kind.AND, "&", start);
+            case '|':
+                pos += n == '|' ? 2 : 1;
+                return new Token(Kind.OR, "|", start);
+            case '!':
+                if (n == '=') {
+                    pos += 2;
+                    return new Token(Kind.OPERATOR, "!=", start);
+                }
+                pos++;
+                return new Token(Kind.NOT, "!", start);
+            case '>':
+            case '<':
+                pos += n == '=' ? 2 : 1;
+                return new Token(Kind.OPERATOR, input.substring(start, pos), start);
+            case '=':
+            case '~':
+                if (n != '=') {
+                    throw error("Expected '=' after '" + c + "'", start);
+                }
+                pos += 2;
+                return new Token(Kind.OPERATOR, input.substring(start, pos), start);
+            case '"':
+            case '\'':
+                return new Token(Kind.STRING, quoted(), start);
+            default:
+                while (pos < input.length() && !Character.isWhitespace(input.charAt(pos))
+                        && WORD_BREAKS.indexOf(input.charAt(pos)) < 0) {
+                    pos++;
+                }
+                String word = input.substring(start, pos);
+                if (word.equalsIgnoreCase("and")) {
+                    return new Token(Kind.AND, word, start);
+                } else if (word.equalsIgnoreCase("or")) {
+                    return new Token(Kind.OR, word, start);
+                } else if (word.equalsIgnoreCase("not")) {
+                    return new Token(Kind.NOT, word, start);
+                }
+                return new Token(Kind.WORD, word, start);
+        }
+    }
+
+    /**
+     * Reads a quoted string starting at the current position. A backslash escapes the
+     * next character.
+     *
+     * @return the string without quotes.
+     */
+    private String quoted() {
+        int start = pos;
+        char quote = input.charAt(pos++);
+        StringBuilder sb = new StringBuilder();
+        while (pos < input.length()) {
+            char c = input.charAt(pos++);
+            if (c == quote) {
+                return sb.toString();
+            }
+            if (c == '\\' && pos < input.length()) {
+                c = input.charAt(pos++);
+            }
+            sb.append(c);
+        }
+        throw error("Unterminated string", start);
+    }
+
+    /**
+     * Finds the quote closing a quoted string, skipping escaped characters.
+     *
+     * @param start index of the opening quote.
+     * @return index of the closing quote, or -1 if there is none.
+     */
+    private int closingQuote(int start) {
+        char quote = input.charAt(start);
+        for (int i = start + 1; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == quote) {
+                return i;
+            }
+            if (c == '\\') {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of an &amp; or | separator, or of a whitespace separated and / or
+     * keyword, starting at the index.
+     *
+     * @param index index in the input.
+     * @return the index after the separator, or -1 if no separator starts at the index.
+     */
+    private int separatorEnd(int index) {
+        char c = input.charAt(index);
+        if (c == '&' || c == '|') {
+            return index + 1 < input.length() && input.charAt(index + 1) == c ? index + 2 : index + 1;
+        }
+        if (!Character.isWhitespace(c)) {
+            return -1;
+        }
+        int start = index;
+        while (start < input.length() && Character.isWhitespace(input.charAt(start))) {
+            start++;
+        }
+        for (String keyword : new String[] {"and", "or"}) {
+            int end = start + keyword.length();
+            if (input.regionMatches(true, start, keyword, 0, keyword.length())
+                    && (end == input.length() || Character.isWhitespace(input.charAt(end))
+                        || input.charAt(end) == '(' || input.charAt(end) == '!')) {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a condition starts at the index, after any negations and opening
+     * parentheses: {@value Filter#IN_LIST}, or a word followed by an operator, between,
+     * in or not in.
+     *
+     * @param index index in the input.
+     * @return true if a condition follows.
+     */
+    private boolean startsCondition(int index) {
+        FilterLexer rest = new FilterLexer(input.substring(index));
+        try {
+            while (rest.peek().kind() == Kind.NOT || rest.peek().kind() == Kind.LPAREN) {
+                rest.next();
+            }
+            Token word = rest.next();
+            if (word.kind() != Kind.WORD) {
+                return false;
+            }
+            if (word.isKeyword(Filter.IN_LIST)) {
+                return true;
+            }
+            Token next = rest.peek();
+            return next.kind() == Kind.OPERATOR || next.kind() == Kind.NOT
+                    || next.isKeyword("between") || next.isKeyword("in");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Skips whitespace. */
+    private void skipSpaces() {
+        while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    /**
+     * Checks for a quote character.
+     *
+     * @param c the character.
+     * @return true if the character starts a quoted value.
+     */
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    /**
+     * Builds an error for invalid input.
+     *
+     * @param message  what went wrong.
+     * @param position where in the input.
+     * @return the exception to throw.
+     */
+    IllegalArgumentException error(String message, int position) {
+        return new IllegalArgumentException(message + " at position " + position + " in filter: " + input);
+    }
+}
@@ -0,0 +1,573 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A node in the abstract syntax tree of a parsed filter.
+ *
+ * Trees are built by {@link Filter#parse(String)} and compiled into a
+ * Predicate with {@link #compile(Predicate)}. AND and OR compile to
+ * short-circuiting predicate chains, evaluated left to right.
+ *
+ * Nodes that can be answered for the whole catalog at once, from an index (range
+ * conditions) or a scan of a primitive column (numeric comparisons), also return their
+ * matches as a BitSet of ordinals from {@link #bitmap(GameCatalog)}.
+ */
+public abstract class FilterNode {
+    /** Node that matches every game, used for an empty filter or an ignored condition. */
+    public static final FilterNode TRUE = new FilterNode() {
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            return g -> true;
+        }
+
+        @Override
+        public String toString() {
+            return "true";
+        }
+    };
+
+    /** Node for the {@value Filter#IN_LIST} condition. */
+    public static final FilterNode IN_LIST = new FilterNode() {
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            return inList;
+        }
+
+        @Override
+        public boolean scopesToList() {
+            return true;
+        }
+
+        @Override
+        public FilterNode withoutListScope() {
+            return TRUE;
+        }
+
+        @Override
+        public String toString() {
+            return Filter.IN_LIST;
+        }
+    };
+
+    /** Only the nested node types extend FilterNode. */
+    private FilterNode() {
+    }
+
+    /**
+     * Compiles the node into a predicate.
+     *
+     * @param inList predicate used for the {@value Filter#IN_LIST} condition.
+     * @return predicate matching the games this node selects.
+     */
+    public abstract Predicate<BoardGame> compile(Predicate<BoardGame> inList);
+
+    /**
+     * Checks if every game matched by this node must be in the game list, meaning the
+     * {@value Filter#IN_LIST} condition is part of the top level AND.
+     *
+     * @return true if the node is scoped to the game list.
+     */
+    public boolean scopesToList() {
+        return false;
+    }
+
+    /**
+     * Removes the top level {@value Filter#IN_LIST} conditions, used after the base set has
+     * already been intersected with the list.
+     *
+     * @return the node without the top level list condition.
+     */
+    public FilterNode withoutListScope() {
+        return this;
+    }
+
+    /**
+     * Answers the node from the catalog's indexes and columns, without looking at
+     * individual games.
+     *
+     * @param catalog the catalog to look up.
+     * @return ordinals of every game in the catalog the node matches, or null if the node
+     * can not be answered this way.
+     */
+    public BitSet bitmap(GameCatalog catalog) {
+        return null;
+    }
+
+    /**
+     * Checks if {@link #bitmap(GameCatalog)} scans a column for every game of the catalog,
+     * which costs more than checking a few games one by one.
+     *
+     * @return true if answering the node scans a column.
+     */
+    boolean scansColumns() {
+        return false;
+    }
+
+    /**
+     * Builds an AND of the nodes, flattening nested ANDs.
+     *
+     * @param nodes the nodes, in evaluation order.
+     * @return the combined node.
+     */
+    static FilterNode and(List<FilterNode> nodes) {
+        List<FilterNode> flat = new ArrayList<>();
+        for (FilterNode node : nodes) {
+            if (node instanceof And) {
+                flat.addAll(((And) node).children);
+            } else if (node != TRUE) {
+                flat.add(node);
+            }
+        }
+        if (flat.isEmpty()) {
+            return TRUE;
+        }
+        return flat.size() == 1 ? flat.get(0) : new And(flat);
+    }
+
+    /**
+     * Splits a filter into the conditions of its top level AND.
+     *
+     * @param root the filter.
+     * @return the conditions, or an empty list if the filter matches everything.
+     */
+    static List<FilterNode> conjuncts(FilterNode root) {
+        if (root == TRUE) {
+            return List.of();
+        }
+        return root instanceof And ? ((And) root).getChildren() : List.of(root);
+    }
+
+    /**
+     * Builds an OR of the nodes, flattening nested ORs.
+     *
+     * @param nodes the nodes, in evaluation order.
+     * @return the combined node.
+     */
+    static FilterNode or(List<FilterNode> nodes) {
+        List<FilterNode> flat = new ArrayList<>();
+        for (FilterNode node : nodes) {
+            if (node instanceof Or) {
+                flat.addAll(((Or) node).children);
+            } else {
+                flat.add(node);
+            }
+        }
+        return flat.size() == 1 ? flat.get(0) : new Or(flat);
+    }
+
+    /** All children must match. */
+    public static final class And extends FilterNode {
+        /** the conditions. */
+        private final List<FilterNode> children;
+
+        /**
+         * Constructor for an AND node.
+         *
+         * @param children the conditions, in evaluation order.
+         */
+        And(List<FilterNode> children) {
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Get the children of the node.
+         *
+         * @return the conditions, in evaluation order.
+         */
+        public List<FilterNode> getChildren() {
+            return children;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            Predicate<BoardGame> result = children.get(0).compile(inList);
+            for (int i = 1; i < children.size(); i++) {
+                result = result.and(children.get(i).compile(inList));
+            }
+            return result;
+        }
+
+        @Override
+        public boolean scopesToList() {
+            return children.stream().anyMatch(FilterNode::scopesToList);
+        }
+
+        @Override
+        public FilterNode withoutListScope() {
+            List<FilterNode> rest = new ArrayList<>();
+            for (FilterNode child : children) {
+                rest.add(child.withoutListScope());
+            }
+            return and(rest);
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            BitSet result = children.get(0).bitmap(catalog);
+            for (int i = 1; i < children.size() && result != null; i++) {
+                BitSet next = children.get(i).bitmap(catalog);
+                if (next == null) {
+                    return null;
+                }
+                result.and(next);
+            }
+            return result;
+        }
+
+        @Override
+        boolean scansColumns() {
+            for (FilterNode child : children) {
+                if (child.scansColumns()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "and" + children;
+        }
+    }
+
+    /** At least one child must match. */
+    public static final class Or extends FilterNode {
+        /** the alternatives. */
+        private final List<FilterNode> children;
+
+        /**
+         * Constructor for an OR node.
+         *
+         * @param children the alternatives, in evaluation order.
+         */
+        Or(List<FilterNode> children) {
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Get the children of the node.
+         *
+         * @return the alternatives, in evaluation order.
+         */
+        public List<FilterNode> getChildren() {
+            return children;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            Predicate<BoardGame> result = children.get(0).compile(inList);
+            for (int i = 1; i < children.size(); i++) {
+                result = result.or(children.get(i).compile(inList));
+            }
+            return result;
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            BitSet result = children.get(0).bitmap(catalog);
+            for (int i = 1; i < children.size() && result != null; i++) {
+                BitSet next = children.get(i).bitmap(catalog);
+                if (next == null) {
+                    return null;
+                }
+                result.or(next);
+            }
+            return result;
+        }
+
+        @Override
+        boolean scansColumns() {
+            for (FilterNode child : children) {
+                if (child.scansColumns()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "or" + children;
+        }
+    }
+
+    /** The child must not match. */
+    public static final class Not extends FilterNode {
+        /** the negated condition. */
+        private final FilterNode child;
+
+        /**
+         * Constructor for a NOT node.
+         *
+         * @param child the negated condition.
+         */
+        Not(FilterNode child) {
+            this.child = child;
+        }
+
+        /**
+         * Get the negated condition.
+         *
+         * @return the child node.
+         */
+        public FilterNode getChild() {
+            return child;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            return child.compile(inList).negate();
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            int size = catalog.size();
+            BitSet result = child.bitmap(catalog);
+            if (result != null) {
+                result.flip(0, size);
+            }
+            return result;
+        }
+
+        @Override
+        boolean scansColumns() {
+            return child.scansColumns();
+        }
+
+        @Override
+        public String toString() {
+            return "not(" + child + ")";
+        }
+    }
+
+    /**
+     * A value compared against the range a game covers, such as {@code players==3}.
+     *
+     * Matches if some value in the range satisfies the comparison: == checks the range
+     * contains the value, &lt;= and &lt; check the low end, &gt;= and &gt; the high end,
+     * and != is the opposite of ==.
+     */
+    public static final class Fits extends FilterNode {
+        /** range to check. */
+        private final GameRange range;
+        /** comparison operator. */
+        private final Operations op;
+        /** value to compare. */
+        private final int value;
+
+        /**
+         * Constructor for a range condition.
+         *
+         * @param range range to check.
+         * @param op    comparison operator, any but CONTAINS.
+         * @param value value to compare.
+         */
+        Fits(GameRange range, Operations op, int value) {
+            this.range = range;
+            this.op = op;
+            this.value = value;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            switch (op) {
+                case EQUALS:
+                    return g -> range.getMin(g) <= value && value <= range.getMax(g);
+                case NOT_EQUALS:
+                    return g -> range.getMin(g) > value || value > range.getMax(g);
+                case LESS_THAN_EQUALS:
+                    return g -> range.getMin(g) <= value;
+                case LESS_THAN:
+                    return g -> range.getMin(g) < value;
+                case GREATER_THAN_EQUALS:
+                    return g -> range.getMax(g) >= value;
+                case GREATER_THAN:
+                    return g -> range.getMax(g) > value;
+                default:
+                    return g -> true;
+            }
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            return catalog.intervalIndex(range).query(op, value);
+        }
+
+        @Override
+        public String toString() {
+            return range + op.getOperator() + value;
+        }
+    }
+
+    /** A column compared to a value, such as {@code minPlayers>4}. */
+    public static final class Compare extends FilterNode {
+        /** column to compare. */
+        private final GameData column;
+        /** comparison operator. */
+        private final Operations op;
+        /** value as written in the filter. */
+        private final String value;
+
+        /**
+         * Constructor for a comparison.
+         *
+         * @param column column to compare.
+         * @param op     comparison operator.
+         * @param value  value as written in the filter.
+         */
+        Compare(GameData column, Operations op, String value) {
+            this.column = column;
+            this.op = op;
+            this.value = value;
+        }
+
+        /**
+         * Get the column.
+         *
+         * @return the column compared.
+         */
+        public GameData getColumn() {
+            return column;
+        }
+
+        /**
+         * Get the operator.
+         *
+         * @return the comparison operator.
+         */
+        public Operations getOperation() {
+            return op;
+        }
+
+        /**
+         * Get the value.
+         *
+         * @return the value as written in the filter.
+         */
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            return Filter.condition(column, op, value);
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            return catalog.columns().scan(column, op, value);
+        }
+
+        @Override
+        boolean scansColumns() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return column + op.getOperator() + value;
+        }
+    }
+
+    /** A column between two values, inclusive, such as {@code year between 2000 and 2010}. */
+    public static final class Between extends FilterNode {
+        /** column to compare. */
+        private final GameData column;
+        /** lower bound as written. */
+        private final String low;
+        /** upper bound as written. */
+        private final String high;
+
+        /**
+         * Constructor for a range condition.
+         *
+         * @param column column to compare.
+         * @param low    lower bound as written, inclusive.
+         * @param high   upper bound as written, inclusive.
+         */
+        Between(GameData column, String low, String high) {
+            this.column = column;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            return Filter.condition(column, Operations.GREATER_THAN_EQUALS, low)
+                    .and(Filter.condition(column, Operations.LESS_THAN_EQUALS, high));
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            ColumnStore columns = catalog.columns();
+            BitSet result = columns.scan(column, Operations.GREATER_THAN_EQUALS, low);
+            if (result != null) {
+                result.and(columns.scan(column, Operations.LESS_THAN_EQUALS, high));
+            }
+            return result;
+        }
+
+        @Override
+        boolean scansColumns() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return column + " between " + low + " and " + high;
+        }
+    }
+
+    /** A column equal to one of a list of values, such as {@code maxPlayers in (2, 4)}. */
+    public static final class In extends FilterNode {
+        /** column to compare. */
+        private final GameData column;
+        /** values as written. */
+        private final List<String> values;
+
+        /**
+         * Constructor for a list condition.
+         *
+         * @param column column to compare.
+         * @param values values as written.
+         */
+        In(GameData column, List<String> values) {
+            this.column = column;
+            this.values = Collections.unmodifiableList(values);
+        }
+
+        @Override
+        public Predicate<BoardGame> compile(Predicate<BoardGame> inList) {
+            Predicate<BoardGame> result = Filter.condition(column, Operations.EQUALS, values.get(0));
+            for (int i = 1; i < values.size(); i++) {
+                result = result.or(Filter.condition(column, Operations.EQUALS, values.get(i)));
+            }
+            return result;
+        }
+
+        @Override
+        public BitSet bitmap(GameCatalog catalog) {
+            ColumnStore columns = catalog.columns();
+            BitSet result = columns.scan(column, Operations.EQUALS, values.get(0));
+            for (int i = 1; i < values.size() && result != null; i++) {
+                result.or(columns.scan(column, Operations.EQUALS, values.get(i)));
+            }
+            return result;
+        }
+
+        @Override
+        boolean scansColumns() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return column + " in " + values;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for the filter language, producing a FilterNode tree.
+ *
+ * <pre>
+ * filter    := or
+ * or        := and (('|' | 'or') and)*
+ * and       := unary ((',' | '&amp;' | 'and') unary)*
+ * unary     := ('!' | 'not') unary | primary
+ * primary   := '(' or ')' | condition
+ * condition := 'inList'
+ *            | column op value            (column can also be a GameRange)
+ *            | column 'between' scalar 'and' scalar
+ *            | column ['not'] 'in' '(' value (',' value)* ')'
+ * </pre>
+ *
+ * As with the original comma separated filters, a condition on an unknown column, on id,
+ * or with a value that does not parse for the column is ignored (it matches every game)
+ * when it is joined to the others by commas. Anywhere else, such as after &amp; or inside
+ * an or or a not, ignoring it would change what the filter means, so it throws an
+ * IllegalArgumentException, as do structural errors such as unbalanced parentheses.
+ */
+final class FilterParser {
+    /** Source of tokens. */
+    private final FilterLexer lexer;
+
+    /**
+     * Constructor for the parser.
+     *
+     * @param filter the filter text.
+     */
+    private FilterParser(String filter) {
+        this.lexer = new FilterLexer(filter);
+    }
+
+    /**
+     * Parses the filter into a tree.
+     *
+     * @param filter the filter text, may be null or empty.
+     * @return the root node, {@link FilterNode#TRUE} for an empty filter.
+     * @throws IllegalArgumentException if the filter is malformed.
+     */
+    static FilterNode parse(String filter) {
+        // commas alone are an empty filter, as the original split on "," found no conditions
+        if (filter == null || filter.replace(',', ' ').trim().isEmpty()) {
+            return FilterNode.TRUE;
+        }
+        FilterParser parser = new FilterParser(filter);
+        FilterNode root = parser.parseOr();
+        FilterLexer.Token end = parser.lexer.next();
+        if (end.kind() != FilterLexer.Kind.END) {
+            throw parser.lexer.error("Unexpected '" + end.text() + "'", end.position());
+        }
+        return root;
+    }
+
+    /**
+     * Parses alternatives separated by OR.
+     *
+     * @return the node.
+     */
+    private FilterNode parseOr() {
+        List<FilterNode> nodes = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        positions.add(lexer.peek().position());
+        nodes.add(parseAnd());
+        while (lexer.peek().kind() == FilterLexer.Kind.OR) {
+            lexer.next();
+            positions.add(lexer.peek().position());
+            nodes.add(parseAnd());
+        }
+        if (nodes.size() > 1) {
+            rejectIgnored(nodes, positions, "or");
+        }
+        return FilterNode.or(nodes);
+    }
+
+    /**
+     * Parses conditions separated by AND or commas.
+     *
+     * @return the node.
+     */
+    private FilterNode parseAnd() {
+        // allow leading commas, as the original split on "," did
+        while (lexer.peek().kind() == FilterLexer.Kind.COMMA) {
+            lexer.next();
+        }
+        List<FilterNode> nodes = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        positions.add(lexer.peek().position());
+        nodes.add(parseUnary());
+        boolean commasOnly = true;
+        while (lexer.peek().kind() == FilterLexer.Kind.AND
+                || lexer.peek().kind() == FilterLexer.Kind.COMMA) {
+            commasOnly &= lexer.next().kind() == FilterLexer.Kind.COMMA;
+            // allow trailing or doubled commas too
+            FilterLexer.Kind kind = lexer.peek().kind();
+            if (kind == FilterLexer.Kind.COMMA || kind == FilterLexer.Kind.END
+                    || kind == FilterLexer.Kind.RPAREN || kind == FilterLexer.Kind.OR) {
+                continue;
+            }
+            positions.add(lexer.peek().position());
+            nodes.add(parseUnary());
+        }
+        if (!commasOnly) {
+            rejectIgnored(nodes, positions, "and");
+        }
+        return FilterNode.and(nodes);
+    }
+
+    /**
+     * Parses a negation or a primary.
+     *
+     * @return the node.
+     */
+    private FilterNode parseUnary() {
+        if (lexer.peek().kind() == FilterLexer.Kind.NOT) {
+            lexer.next();
+            int position = lexer.peek().position();
+            FilterNode child = parseUnary();
+            rejectIgnored(List.of(child), List.of(position), "not");
+            return new FilterNode.Not(child);
+        }
+        return parsePrimary();
+    }
+
+    /**
+     * Parses a parenthesized group or a single condition.
+     *
+     * @return the node.
+     */
+    private FilterNode parsePrimary() {
+        FilterLexer.Token token = lexer.next();
+        if (token.kind() == FilterLexer.Kind.LPAREN) {
+            FilterNode inner = parseOr();
+            expect(FilterLexer.Kind.RPAREN, "')'");
+            return inner;
+        }
+        if (token.kind() != FilterLexer.Kind.WORD) {
+            throw lexer.error("Expected a condition but found '" + token.text() + "'",
+                    token.position());
+        }
+        if (token.isKeyword(Filter.IN_LIST)) {
+            return FilterNode.IN_LIST;
+        }
+        return parseCondition(token);
+    }
+
+    /**
+     * Parses the rest of a condition after the column name.
+     *
+     * @param columnToken the column name token.
+     * @return the node, or {@link FilterNode#TRUE} if the condition is ignored.
+     */
+    private FilterNode parseCondition(FilterLexer.Token columnToken) {
+        GameRange range = GameRange.fromString(columnToken.text());
+        GameData column = range == null ? toColumn(columnToken.text()) : null;
+        FilterLexer.Token next = lexer.peek();
+
+        if (next.kind() == FilterLexer.Kind.OPERATOR) {
+            lexer.next();
+            Operations op = Operations.fromOperator(next.text());
+            String value = lexer.nextValue(column == GameData.NAME);
+            if (range != null) {
+                return fits(range, op, value);
+            }
+            if (column == null || Filter.condition(column, op, value) == null) {
+                return FilterNode.TRUE;
+            }
+            return new FilterNode.Compare(column, op, value);
+        }
+        if (next.isKeyword("between")) {
+            lexer.next();
+            String low = scalar();
+            expect(FilterLexer.Kind.AND, "'and'");
+            String high = scalar();
+            if (range != null) {
+                // the range overlaps [low, high]
+                return FilterNode.and(List.of(fits(range, Operations.GREATER_THAN_EQUALS, low),
+                        fits(range, Operations.LESS_THAN_EQUALS, high)));
+            }
+            if (column == null || Filter.condition(column, Operations.GREATER_THAN_EQUALS, low) == null
+                    || Filter.condition(column, Operations.LESS_THAN_EQUALS, high) == null) {
+                return FilterNode.TRUE;
+            }
+            return new FilterNode.Between(column, low, high);
+        }
+        boolean negated = false;
+        if (next.kind() == FilterLexer.Kind.NOT) {
+            lexer.next();
+            negated = true;
+            next = lexer.peek();
+            if (!next.isKeyword("in")) {
+                throw lexer.error("Expected 'in'", next.position());
+            }
+        }
+        if (next.isKeyword("in")) {
+            lexer.next();
+            List<String> values = valueList(column == GameData.NAME);
+            if (range != null) {
+                List<FilterNode> options = new ArrayList<>();
+                for (String value : values) {
+                    FilterNode option = fits(range, Operations.EQUALS, value);
+                    if (option != FilterNode.TRUE) {
+                        options.add(option);
+                    }
+                }
+                if (options.isEmpty()) {
+                    return FilterNode.TRUE;
+                }
+                FilterNode in = FilterNode.or(options);
+                return negated ? new FilterNode.Not(in) : in;
+            }
+            if (column != null) {
+                values.removeIf(v -> Filter.condition(column, Operations.EQUALS, v) == null);
+            }
+            if (column == null || values.isEmpty()) {
+                return FilterNode.TRUE;
+            }
+            FilterNode in = new FilterNode.In(column, values);
+            return negated ? new FilterNode.Not(in) : in;
+        }
+        // a column with no operator is ignored, as before, when commas separate it
+        if (next.kind() != FilterLexer.Kind.COMMA && next.kind() != FilterLexer.Kind.END) {
+            throw lexer.error("Expected an operator after '" + columnToken.text() + "'", next.position());
+        }
+        return FilterNode.TRUE;
+    }
+
+    /**
+     * Rejects conditions that were ignored where ignoring them would change the filter.
+     *
+     * @param nodes     the parsed conditions.
+     * @param positions where each condition starts in the input.
+     * @param where     the operator joining them, for the error message.
+     * @throws IllegalArgumentException if a condition was ignored.
+     */
+    private void rejectIgnored(List<FilterNode> nodes, List<Integer> positions, String where) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == FilterNode.TRUE) {
+                throw lexer.error("Invalid condition in '" + where + "'", positions.get(i));
+            }
+        }
+    }
+
+    /**
+     * Builds a range condition.
+     *
+     * @param range the range.
+     * @param op    the comparison.
+     * @param value the value as written.
+     * @return the node, or {@link FilterNode#TRUE} if the value is not a whole number or the
+     * operator does not apply to ranges.
+     */
+    private static FilterNode fits(GameRange range, Operations op, String value) {
+        if (op == Operations.CONTAINS) {
+            return FilterNode.TRUE;
+        }
+        try {
+            return new FilterNode.Fits(range, op, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return FilterNode.TRUE;
+        }
+    }
+
+    /**
+     * Parses a parenthesized, comma separated list of values.
+     *
+     * @param names true if the values are names.
+     * @return the values.
+     */
+    private List<String> valueList(boolean names) {
+        expect(FilterLexer.Kind.LPAREN, "'('");
+        List<String> values = new ArrayList<>();
+        while (true) {
+            values.add(lexer.nextValue(names));
+            FilterLexer.Token sep = lexer.next();
+            if (sep.kind() == FilterLexer.Kind.RPAREN) {
+                return values;
+            }
+            if (sep.kind() != FilterLexer.Kind.COMMA) {
+                throw lexer.error("Expected ',' or ')'", sep.position());
+            }
+        }
+    }
+
+    /**
+     * Parses a single word or quoted value.
+     *
+     * @return the value.
+     */
+    private String scalar() {
+        FilterLexer.Token token = lexer.next();
+        if (token.kind() != FilterLexer.Kind.WORD && token.kind() != FilterLexer.Kind.STRING) {
+            throw lexer.error("Expected a value", token.position());
+        }
+        return token.text();
+    }
+
+    /**
+     * Consumes a token of the expected kind.
+     *
+     * @param kind        the expected kind.
+     * @param description text for the error message.
+     */
+    private void expect(FilterLexer.Kind kind, String description) {
+        FilterLexer.Token token = lexer.next();
+        if (token.kind() != kind) {
+            throw lexer.error("Expected " + description, token.position());
+        }
+    }
+
+    /**
+     * Gets the column for a name, ignoring id as it is not used in filters.
+     *
+     * @param name the column name.
+     * @return the column, or null if unknown or id.
+     */
+    private static GameData toColumn(String name) {
+        try {
+            GameData column = GameData.fromString(name);
+            return column == GameData.ID ? null : column;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package student;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Interning table that gives every distinct BoardGame a dense int ordinal.
+ *
+ * Ordinals start at 0 and are never reused, so any structure (such as a BitSet)
+ * can refer to a game by its ordinal and resolve the BoardGame only when it is
+ * needed for display. Games are distinct based on BoardGame.equals, so two games
+ * that share a name but have different ids get different ordinals.
+ *
+ * A GameList and a Planner refer to the same ordinals when the planner is given the list
+ * (or the list's catalog). Each catalog is only kept while something refers to it, so
+ * there is no process wide catalog that only grows.
+ *
+ * A compact catalog ({@link #compact()}) keeps no BoardGame objects: the values are
+ * stored column by column in narrow primitive arrays, and {@link #get(int)} returns a
+ * small view whose getters give exactly the values that were interned. It uses a fraction
+ * of the heap per game, at the cost of creating a view on each access.
+ */
+public final class GameCatalog {
+    /** Games in ordinal order (index == ordinal), empty for a compact catalog. */
+    private final ArrayList<BoardGame> games = new ArrayList<>();
+    /** Column storage of a compact catalog, null otherwise. */
+    private final CompactGames compact;
+    /**
+     * Reverse lookup from a game's id to its ordinals. Games sharing an id are told apart
+     * by name, so no BoardGame is hashed.
+     */
+    private final IdIndex ids = new IdIndex();
+    /** Range indexes, rebuilt when games have been added since they were built. */
+    private final Map<GameRange, IntervalIndex> intervalIndexes = new EnumMap<>(GameRange.class);
+    /** Numeric columns as arrays, rebuilt when games have been added since it was built. */
+    private ColumnStore columns;
+    /** Nearest neighbour index, rebuilt when games have been added since it was built. */
+    private SimilarityIndex similarity;
+    /** Typo tolerant name index, rebuilt when games have been added since it was built. */
+    private NameIndex names;
+    /** Name prefix index, rebuilt when games have been added since it was built. */
+    private PrefixIndex prefixes;
+    /** Games in ordinal order as an array, rebuilt when games have been added since it was built. */
+    private BoardGame[] byOrdinal;
+    /** Size of the catalog when storedBytes was counted, -1 if never. */
+    private int storedSize = -1;
+    /** Bytes used by the games at storedSize, see {@link #storageBytes()}. */
+    private long storedBytes;
+    /** Bytes used by the indexes when last reported to the budget. */
+    private long indexBytes;
+    /** {@link System#nanoTime()} of the last use of each index built, by {@link MemoryUsage} part. */
+    private final Map<String, Long> lastUse = new HashMap<>();
+    /** The catalog's share of the {@link MemoryBudget}. */
+    private final MemoryBudget.Account account;
+
+    /** Creates an empty catalog. */
+    public GameCatalog() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty catalog.
+     *
+     * @param compact if true, games are stored as columns instead of objects.
+     */
+    private GameCatalog(boolean compact) {
+        this.compact = compact ? new CompactGames() : null;
+        this.account = MemoryBudget.track(this);
+    }
+
+    /**
+     * Creates an empty compact catalog, storing games as primitive columns and returning
+     * views from {@link #get(int)}.
+     *
+     * @return the catalog.
+     */
+    public static GameCatalog compact() {
+        return new GameCatalog(true);
+    }
+
+    /**
+     * Checks if the catalog stores games as columns.
+     *
+     * @return true for a compact catalog.
+     */
+    public boolean isCompact() {
+        return compact != null;
+    }
+
+    /**
+     * Adds the game to the catalog if it is not already there.
+     *
+     * @param game the game to intern.
+     * @return the ordinal of the game.
+     */
+    public synchronized int intern(BoardGame game) {
+        int ordinal = find(game);
+        if (ordinal >= 0) {
+            return ordinal;
+        }
+        if (compact != null) {
+            ordinal = compact.add(game);
+        } else {
+            ordinal = games.size();
+            games.add(game);
+        }
+        ids.add(game.getId(), ordinal);
+        account.report(storageBytes(), indexBytes);
+        return ordinal;
+    }
+
+    /**
+     * Gets the ordinal of the game without adding it.
+     *
+     * @param game the game to look up.
+     * @return the ordinal of the game, or -1 if it is not in the catalog.
+     */
+    public synchronized int ordinalOf(BoardGame game) {
+        return find(game);
+    }
+
+    /**
+     * Gets the ordinal of the first game interned with the id.
+     *
+     * @param id the game id.
+     * @return the lowest ordinal with the id, or -1 if there is none.
+     */
+    public synchronized int ordinalOfId(int id) {
+        int lowest = -1;
+        for (int ordinal = ids.first(id); ordinal >= 0; ordinal = ids.next(ordinal)) {
+            lowest = ordinal; // chained most recent first
+        }
+        return lowest;
+    }
+
+    /**
+     * Gets the ordinals of every game interned with the id. Usually one, but the same id
+     * can appear under different names.
+     *
+     * @param id the game id.
+     * @return the ordinals in increasing order, empty if there are none.
+     */
+    public synchronized int[] ordinalsOfId(int id) {
+        int count = 0;
+        for (int ordinal = ids.first(id); ordinal >= 0; ordinal = ids.next(ordinal)) {
+            count++;
+        }
+        int[] result = new int[count];
+        for (int ordinal = ids.first(id); ordinal >= 0; ordinal = ids.next(ordinal)) {
+            result[--count] = ordinal;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the catalog as a read only list indexed by ordinal. The list is a live view,
+     * growing as games are interned.
+     *
+     * @return the list, where get(ordinal) is {@link #get(int)}.
+     */
+    public List<BoardGame> asList() {
+        return new Table();
+    }
+
+    /**
+     * Gets the game stored at the ordinal.
+     *
+     * @param ordinal the ordinal of the game.
+     * @return the game.
+     * @throws IndexOutOfBoundsException if the ordinal was never assigned.
+     */
+    public synchronized BoardGame get(int ordinal) {
+        if (compact != null) {
+            if (ordinal < 0 || ordinal >= compact.size()) {
+                throw new IndexOutOfBoundsException("No game with ordinal " + ordinal);
+            }
+            return compact.view(ordinal);
+        }
+        return games.get(ordinal);
+    }
+
+    /**
+     * Number of games interned so far. Also one past the largest ordinal.
+     *
+     * @return the number of games in the catalog.
+     */
+    public synchronized int size() {
+        return compact != null ? compact.size() : games.size();
+    }
+
+    /**
+     * Gets the index for a range over every game in the catalog, building it if needed.
+     *
+     * @param range the range.
+     * @return the index.
+     */
+    synchronized IntervalIndex intervalIndex(GameRange range) {
+        IntervalIndex index = intervalIndexes.get(range);
+        if (index == null || index.size() != size()) {
+            index = new IntervalIndex(this, range, size());
+            intervalIndexes.put(range, index);
+            report();
+        }
+        lastUse.put(MemoryUsage.INTERVAL_INDEXES, System.nanoTime());
+        return index;
+    }
+
+    /**
+     * Gets the numeric columns of every game in the catalog, building them if needed.
+     *
+     * @return the column store.
+     */
+    synchronized ColumnStore columns() {
+        if (columns == null || columns.size() != size()) {
+            columns = new ColumnStore(reader(), size());
+            report();
+        }
+        lastUse.put(MemoryUsage.COLUMNS, System.nanoTime());
+        return columns;
+    }
+
+    /**
+     * Gets the nearest neighbour index of every game in the catalog, building it if needed.
+     *
+     * @return the index.
+     */
+    synchronized SimilarityIndex similarityIndex() {
+        if (similarity == null || similarity.size() != size()) {
+            similarity = new SimilarityIndex(reader(), size());
+            report();
+        }
+        lastUse.put(MemoryUsage.SIMILARITY_INDEX, System.nanoTime());
+        return similarity;
+    }
+
+    /**
+     * Gets the typo tolerant name index of every game in the catalog, building it if needed.
+     *
+     * @return the index.
+     */
+    synchronized NameIndex nameIndex() {
+        if (names == null || names.size() != size()) {
+            names = new NameIndex(reader(), size());
+            report();
+        }
+        lastUse.put(MemoryUsage.NAME_INDEX, System.nanoTime());
+        return names;
+    }
+
+    /**
+     * Gets the name prefix index of every game in the catalog, building it if needed.
+     *
+     * @return the index.
+     */
+    synchronized PrefixIndex prefixIndex() {
+        if (prefixes == null || prefixes.size() != size()) {
+            ColumnStore store = columns();
+            IntFunction<BoardGame> read = reader();
+            int[] order = store.nameOrder();
+            String[] lower = new String[order.length];
+            for (int p = 0; p < order.length; p++) {
+                lower[p] = read.apply(order[p]).getName().toLowerCase(); // as name order compares them
+            }
+            prefixes = new PrefixIndex(store, lower);
+            report();
+        }
+        lastUse.put(MemoryUsage.PREFIX_INDEX, System.nanoTime());
+        return prefixes;
+    }
+
+    /**
+     * Gets a lookup of the games in the catalog by ordinal, for reading many games without
+     * taking the lock for each one. Covers the games interned so far.
+     *
+     * @return the lookup, from ordinal to game.
+     */
+    synchronized IntFunction<BoardGame> reader() {
+        if (compact != null) {
+            return compact::view;
+        }
+        if (byOrdinal == null || byOrdinal.length != games.size()) {
+            byOrdinal = games.toArray(new BoardGame[0]);
+            report();
+        }
+        lastUse.put(MemoryUsage.GAME_ARRAY, System.nanoTime());
+        BoardGame[] snapshot = byOrdinal;
+        return i -> snapshot[i];
+    }
+
+    /**
+     * Releases spare capacity once the catalog has been filled. Games can still be added
+     * afterwards.
+     */
+    public synchronized void trimToSize() {
+        if (compact != null) {
+            compact.trim();
+        } else {
+            games.trimToSize();
+        }
+        ids.trim(size());
+        report();
+    }
+
+    /**
+     * Estimates the bytes used to store the games themselves (not the indexes), for
+     * comparing the compact and object catalogs.
+     *
+     * @return the estimate.
+     */
+    synchronized long storageBytes() {
+        if (compact != null) {
+            return compact.bytesUsed() + ids.bytesUsed();
+        }
+        if (storedSize != games.size()) {
+            // only the games added since the last count are counted
+            long bytes = storedSize < 0 ? 0 : storedBytes;
+            for (int i = Math.max(0, storedSize); i < games.size(); i++) {
+                // object header and fields, name string and its bytes, list slot
+                bytes += 64 + 40 + games.get(i).getName().length() + 8;
+            }
+            storedBytes = bytes;
+            storedSize = games.size();
+        }
+        return storedBytes + ids.bytesUsed();
+    }
+
+    /**
+     * Estimates the bytes used by the games and by each index built so far.
+     *
+     * @return the usage, by part.
+     */
+    synchronized MemoryUsage memoryUsage() {
+        Map<String, Long> parts = new LinkedHashMap<>();
+        parts.put(MemoryUsage.GAMES, storageBytes());
+        parts.put(MemoryUsage.COLUMNS, columns == null ? 0 : columns.bytesUsed());
+        long intervals = 0;
+        for (IntervalIndex index : intervalIndexes.values()) {
+            intervals += index.bytesUsed();
+        }
+        parts.put(MemoryUsage.INTERVAL_INDEXES, intervals);
+        parts.put(MemoryUsage.SIMILARITY_INDEX, similarity == null ? 0 : similarity.bytesUsed());
+        parts.put(MemoryUsage.NAME_INDEX, names == null ? 0 : names.bytesUsed());
+        parts.put(MemoryUsage.PREFIX_INDEX, prefixes == null ? 0 : prefixes.bytesUsed());
+        parts.put(MemoryUsage.GAME_ARRAY, byOrdinal == null ? 0 : 4L * byOrdinal.length);
+        return new MemoryUsage(parts);
+    }
+
+    /**
+     * Gets the indexes built so far, with when each was last used.
+     *
+     * @return {@link System#nanoTime()} of the last use, by {@link MemoryUsage} part.
+     */
+    synchronized Map<String, Long> indexUses() {
+        return new HashMap<>(lastUse);
+    }
+
+    /**
+     * Drops an index, to be rebuilt the next time it is needed. Dropping the columns also
+     * drops the prefix index, which is built from them. Queries running meanwhile keep using the indexes
+     * they already have.
+     *
+     * @param part the index, as its {@link MemoryUsage} part.
+     * @return the estimated bytes given back.
+     */
+    synchronized long evictIndex(String part) {
+        long before = indexBytes;
+        switch (part) {
+            case MemoryUsage.COLUMNS:
+                columns = null;
+                prefixes = null;
+                lastUse.remove(MemoryUsage.PREFIX_INDEX);
+                break;
+            case MemoryUsage.INTERVAL_INDEXES:
+                intervalIndexes.clear();
+                break;
+            case MemoryUsage.SIMILARITY_INDEX:
+                similarity = null;
+                break;
+            case MemoryUsage.NAME_INDEX:
+                names = null;
+                break;
+            case MemoryUsage.PREFIX_INDEX:
+                prefixes = null;
+                break;
+            case MemoryUsage.GAME_ARRAY:
+                byOrdinal = null;
+                break;
+            default:
+                throw new IllegalArgumentException("Not an index: " + part);
+        }
+        lastUse.remove(part);
+        report();
+        return before - indexBytes;
+    }
+
+    /** Reports the bytes used by the games and the indexes to the {@link MemoryBudget}. */
+    private void report() {
+        long stored = storageBytes();
+        indexBytes = memoryUsage().total() - stored;
+        account.report(stored, indexBytes);
+    }
+
+    /**
+     * Finds a game by id, then name.
+     *
+     * @param game the game to look up.
+     * @return the ordinal, or -1 if it is not in the catalog.
+     */
+    private int find(BoardGame game) {
+        int ordinal = ids.first(game.getId());
+        if (ordinal < 0) {
+            return -1;
+        }
+        if (compact == null) {
+            for (; ordinal >= 0; ordinal = ids.next(ordinal)) {
+                if (game.getName().equals(games.get(ordinal).getName())) {
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+        byte[] name = game.getName().getBytes(StandardCharsets.UTF_8);
+        for (; ordinal >= 0; ordinal = ids.next(ordinal)) {
+            if (compact.nameEquals(ordinal, name)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /** Read only list view of the catalog. */
+    private final class Table extends AbstractList<BoardGame> implements RandomAccess {
+        @Override
+        public BoardGame get(int ordinal) {
+            return GameCatalog.this.get(ordinal);
+        }
+
+        @Override
+        public int size() {
+            return GameCatalog.this.size();
+        }
+    }
+}
@@ -2,26 +2,46 @@ package student;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * The GameList implements the IGameList interface.
- * Manages a collection of board game names (unique strings) and allows adding or removing names.
+ * Manages a collection of board games and allows adding or removing them.
+ *
+ * Games are stored as catalog ordinals in a BitSet, and names are only resolved
+ * when the list is displayed or saved. Games that share a name but are different
+ * games (different ids) are kept apart.
  */
 public class GameList implements IGameList {
-    /**
-     * A Set to store the names of board games.
-     * The names in the set are unique (insertion order is not guaranteed by HashSet).
-     */
-    private Set<String> gamesName;
+    /** Orders games by name ignoring case, which is the order used for display and indexing. */
+    private static final Comparator<BoardGame> NAME_ORDER =
+            Comparator.comparing(BoardGame::getName, String.CASE_INSENSITIVE_ORDER);
 
-    /** Constructor for GameList. Initializes an empty set of game names. */
+    /** The catalog the ordinals refer to. */
+    private final GameCatalog catalog;
+    /** Ordinals of the games in the list. */
+    private final BitSet ordinals;
+    /** The list's share of the {@link MemoryBudget}. */
+    private final MemoryBudget.Account account;
+
+    /** Constructor for GameList. Initializes an empty list over a catalog of its own. */
     public GameList() {
-        gamesName = new HashSet<>();
+        this(new GameCatalog());
+    }
+
+    /**
+     * Constructor for GameList using a specific catalog.
+     * @param catalog the catalog to resolve games from.
+     */
+    public GameList(GameCatalog catalog) {
+        this.catalog = catalog;
+        this.ordinals = new BitSet();
+        this.account = MemoryBudget.track(this);
     }
 
     /**
@@ -30,25 +50,69 @@ public class GameList implements IGameList {
      */
     @Override
     public List<String> getGameNames() {
-        // Stream the set, sort ignoring case, and collect into a List
-        return gamesName.stream()
-                .sorted(String.CASE_INSENSITIVE_ORDER)
+        return sortedGames().stream()
+                .map(BoardGame::getName)
                 .collect(Collectors.toList());
     }
 
-    /** Clears all game names from the list. */
+    /** Clears all games from the list. */
     @Override
     public void clear() {
-        gamesName.clear();
+        ordinals.clear();
     }
 
     /**
      * Returns the number of games in the list.
-     * @return total count of game names stored.
+     * @return total count of games stored.
      */
     @Override
     public int count() {
-        return gamesName.size();
+        return ordinals.cardinality();
+    }
+
+    /**
+     * Checks if the game is in the list.
+     * @param game the game to check.
+     * @return true if the game is in the list.
+     */
+    public boolean contains(BoardGame game) {
+        int ordinal = catalog.ordinalOf(game);
+        return ordinal >= 0 && ordinals.get(ordinal);
+    }
+
+    /**
+     * Intersects the list with a set of catalog ordinals (such as a filter result).
+     * @param matches ordinals to intersect with, left unchanged.
+     * @return a new BitSet with the ordinals in both the list and matches.
+     */
+    public BitSet intersect(BitSet matches) {
+        BitSet result = (BitSet) ordinals.clone();
+        result.and(matches);
+        return result;
+    }
+
+    /**
+     * Gets a copy of the ordinals in the list.
+     * @return the ordinals of the games in the list.
+     */
+    public BitSet toBitSet() {
+        return (BitSet) ordinals.clone();
+    }
+
+    /**
+     * Gets the catalog the list's ordinals refer to.
+     * @return the catalog.
+     */
+    public GameCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Estimates the bytes used by the list, not counting the games, which the catalog holds.
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        return ordinals.size() / 8;
     }
 
     /**
@@ -76,26 +140,43 @@ public class GameList implements IGameList {
      * - or a game name (case-insensitive) to add that specific game.
      *
      * @param str      the selection string (name, index, range, or "all").
-     * @param filtered the filtered Stream of BoardGame objects from which to pick names.
+     * @param filtered the filtered Stream of BoardGame objects from which to pick games.
      * @throws IllegalArgumentException if the input is null/empty, an invalid range/index,
      * or no matching game is found.
      */
     @Override
     public void addToList(String str, Stream<BoardGame> filtered) throws IllegalArgumentException {
+        try {
+            add(str, filtered);
+        } finally {
+            // only adding grows the ordinals, removing keeps their capacity
+            account.report(bytesUsed(), 0);
+        }
+    }
+
+    /**
+     * Adds games to the list, see {@link #addToList(String, Stream)}.
+     *
+     * @param str      the selection string (name, index, range, or "all").
+     * @param filtered the filtered Stream of BoardGame objects from which to pick games.
+     * @throws IllegalArgumentException if the selection is not valid.
+     */
+    private void add(String str, Stream<BoardGame> filtered) {
         if (str == null || str.trim().isEmpty()) {
             throw new IllegalArgumentException("Empty string for addToList");
         }
         String input = str.trim().toLowerCase();  // prepare input for case-insensitive comparison
 
-        // Get a sorted list of game names from the filtered stream (for consistent ordering and indexing)
-        List<String> filteredNames = filtered
-                .map(BoardGame::getName)
-                .sorted(String.CASE_INSENSITIVE_ORDER)
+        // Sort the filtered games by name (for consistent ordering and indexing)
+        List<BoardGame> filteredGames = filtered
+                .sorted(NAME_ORDER)
                 .collect(Collectors.toList());
 
         if (IGameList.ADD_ALL.equalsIgnoreCase(input)) {
-            // "all" -> add all filtered names
-            gamesName.addAll(filteredNames);
+            // "all" -> add all filtered games
+            for (BoardGame game : filteredGames) {
+                ordinals.set(catalog.intern(game));
+            }
             return;
         }
         // Check for a range input like "2-5"
@@ -103,35 +184,31 @@ public class GameList implements IGameList {
             String[] rangeParts = input.split("-");
             int start = Integer.parseInt(rangeParts[0]);
             int end = Integer.parseInt(rangeParts[1]);
-            if (start <= 0 || end < start || end > filteredNames.size()) {
+            if (start <= 0 || end < start || end > filteredGames.size()) {
                 throw new IllegalArgumentException("Invalid range: " + str);
             }
             for (int i = start; i <= end; i++) {
-                gamesName.add(filteredNames.get(i - 1));
+                ordinals.set(catalog.intern(filteredGames.get(i - 1)));
             }
             return;
         }
         // Check for a single index input like "3"
         if (input.matches("\\d+")) {
             int index = Integer.parseInt(input);
-            if (index <= 0 || index > filteredNames.size()) {
+            if (index <= 0 || index > filteredGames.size()) {
                 throw new IllegalArgumentException("Invalid number: " + str);
             }
-            gamesName.add(filteredNames.get(index - 1));
+            ordinals.set(catalog.intern(filteredGames.get(index - 1)));
             return;
         }
         // Otherwise, treat the input as a game name to add (case-insensitive match)
-        boolean found = false;
-        for (String gameName : filteredNames) {
-            if (gameName.equalsIgnoreCase(input)) {
-                gamesName.add(gameName);
-                found = true;
-                break;
+        for (BoardGame game : filteredGames) {
+            if (game.getName().equalsIgnoreCase(input)) {
+                ordinals.set(catalog.intern(game));
+                return;
             }
         }
-        if (!found) {
-            throw new IllegalArgumentException("No matching game found for: " + str);
-        }
+        throw new IllegalArgumentException("No matching game found for: " + str);
     }
 
     /**
@@ -157,8 +234,8 @@ public class GameList implements IGameList {
             clear();
             return;
         }
-        // Work with a sorted copy of current names for index-based removal
-        List<String> currentList = getGameNames();
+        // Work with a sorted copy of current games for index-based removal
+        List<BoardGame> currentList = sortedGames();
         if (input.matches("\\d+-\\d+")) {
             // Range removal
             String[] parts = input.split("-");
@@ -168,7 +245,7 @@ public class GameList implements IGameList {
                 throw new IllegalArgumentException("Invalid remove range: " + str);
             }
             for (int i = start; i <= end; i++) {
-                gamesName.remove(currentList.get(i - 1));
+                ordinals.clear(catalog.ordinalOf(currentList.get(i - 1)));
             }
             return;
         }
@@ -178,20 +255,73 @@ public class GameList implements IGameList {
             if (index <= 0 || index > currentList.size()) {
                 throw new IllegalArgumentException("Invalid remove number: " + str);
             }
-            gamesName.remove(currentList.get(index - 1));
+            ordinals.clear(catalog.ordinalOf(currentList.get(index - 1)));
             return;
         }
         // Name removal (case-insensitive match)
-        boolean removed = false;
-        for (String gameName : currentList) {
-            if (gameName.equalsIgnoreCase(input)) {
-                gamesName.remove(gameName);
-                removed = true;
-                break;
+        for (BoardGame game : currentList) {
+            if (game.getName().equalsIgnoreCase(input)) {
+                ordinals.clear(catalog.ordinalOf(game));
+                return;
             }
         }
-        if (!removed) {
-            throw new IllegalArgumentException("Game name not found in list: " + str);
+        throw new IllegalArgumentException("Game name not found in list: " + str);
+    }
+
+    /**
+     * Suggests catalog game names close to a name that was not found, such as "Catan" for
+     * "catn". Uses the catalog's name index, so the catalog is not scanned.
+     *
+     * @param name        the name typed.
+     * @param maxDistance the most typos (characters inserted, deleted or changed) allowed.
+     * @param limit       the most names to return.
+     * @return the closest names, fewest typos first, then by name.
+     */
+    public List<String> suggestGames(String name, int maxDistance, int limit) {
+        return suggest(name, maxDistance, limit, false);
+    }
+
+    /**
+     * Suggests names of games in this list close to a name that was not found, for
+     * {@link #removeFromList(String)}.
+     *
+     * @param name        the name typed.
+     * @param maxDistance the most typos (characters inserted, deleted or changed) allowed.
+     * @param limit       the most names to return.
+     * @return the closest names, fewest typos first, then by name.
+     */
+    public List<String> suggestInList(String name, int maxDistance, int limit) {
+        return suggest(name, maxDistance, limit, true);
+    }
+
+    /**
+     * Looks up close names in the catalog's name index.
+     *
+     * @param name        the name typed.
+     * @param maxDistance the most typos allowed.
+     * @param limit       the most names to return.
+     * @param inList      if true, only games in this list are suggested.
+     * @return the closest names.
+     */
+    private List<String> suggest(String name, int maxDistance, int limit, boolean inList) {
+        int[] closest = catalog.nameIndex().closest(name, maxDistance, limit, inList ? ordinals::get : null);
+        List<String> result = new ArrayList<>(closest.length);
+        for (int ordinal : closest) {
+            result.add(catalog.get(ordinal).getName());
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the ordinals in the list to games, sorted by name ignoring case.
+     * @return the games in the list in display order.
+     */
+    private List<BoardGame> sortedGames() {
+        List<BoardGame> result = new ArrayList<>(ordinals.cardinality());
+        for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) {
+            result.add(catalog.get(i));
         }
+        result.sort(NAME_ORDER);
+        return result;
     }
 }
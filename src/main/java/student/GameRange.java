@@ -0,0 +1,89 @@
+package student;
+
+/**
+ * Enum for the ranges a game covers, made up of a minimum and maximum column.
+ *
+ * Filters on a range check if the game supports a value, instead of comparing
+ * one column. For example players==3 matches every game where
+ * minPlayers &lt;= 3 &lt;= maxPlayers, and time&lt;=45 matches every game that
+ * can be played in 45 minutes (minPlayTime &lt;= 45).
+ */
+public enum GameRange {
+    /** minPlayers to maxPlayers. */
+    PLAYERS("players", GameData.MIN_PLAYERS, GameData.MAX_PLAYERS),
+    /** minPlayTime to maxPlayTime, can be written as time or playtime. */
+    TIME("playtime", GameData.MIN_TIME, GameData.MAX_TIME);
+
+    /** the name used in filters (along with the enum name). */
+    private final String filterName;
+    /** column holding the low end of the range. */
+    private final GameData minColumn;
+    /** column holding the high end of the range. */
+    private final GameData maxColumn;
+
+    /**
+     * Constructor for the enum.
+     *
+     * @param filterName the name used in filters.
+     * @param minColumn  column holding the low end of the range.
+     * @param maxColumn  column holding the high end of the range.
+     */
+    GameRange(String filterName, GameData minColumn, GameData maxColumn) {
+        this.filterName = filterName;
+        this.minColumn = minColumn;
+        this.maxColumn = maxColumn;
+    }
+
+    /**
+     * Getter for the column holding the low end of the range.
+     *
+     * @return the minimum column.
+     */
+    public GameData getMinColumn() {
+        return minColumn;
+    }
+
+    /**
+     * Getter for the column holding the high end of the range.
+     *
+     * @return the maximum column.
+     */
+    public GameData getMaxColumn() {
+        return maxColumn;
+    }
+
+    /**
+     * Gets the low end of the range for a game.
+     *
+     * @param game the game.
+     * @return the minimum value.
+     */
+    public int getMin(BoardGame game) {
+        return Filter.getIntVal(game, minColumn);
+    }
+
+    /**
+     * Gets the high end of the range for a game.
+     *
+     * @param game the game.
+     * @return the maximum value.
+     */
+    public int getMax(BoardGame game) {
+        return Filter.getIntVal(game, maxColumn);
+    }
+
+    /**
+     * Get the enum from the enum name or filter name, ignoring case.
+     *
+     * @param name the name of the range.
+     * @return the enum that matches the name, or null if none does.
+     */
+    public static GameRange fromString(String name) {
+        for (GameRange range : GameRange.values()) {
+            if (range.name().equalsIgnoreCase(name) || range.filterName.equalsIgnoreCase(name)) {
+                return range;
+            }
+        }
+        return null;
+    }
+}
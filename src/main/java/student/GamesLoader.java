@@ -5,7 +5,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,6 +19,8 @@ import java.util.stream.Collectors;
  * It assumes there are no comma's in the data (and does not handle errors if
  * there are extra commas like in the name).
  * 
+ * Games are returned in the order of the file, so loading the same file always gives
+ * the same catalog ordinals.
  */
 public final class GamesLoader {
     /** Standard csv delim. */
@@ -32,11 +34,12 @@ public final class GamesLoader {
      * Loads the games from the csv file into a set of BoardGame objects.
      * 
      * @param filename the name of the file to load
-     * @return a set of BoardGame objects
+     * @return a set of BoardGame objects, iterating in file order (the first of any
+     *         duplicates is kept)
      */
     public static Set<BoardGame> loadGamesFile(String filename) {
 
-        Set<BoardGame> games = new HashSet<>();
+        Set<BoardGame> games = new LinkedHashSet<>();
 
         List<String> lines;
         try {
@@ -56,12 +59,40 @@ public final class GamesLoader {
         Map<GameData, Integer> columnMap = processHeader(lines.remove(0));
 
         games = lines.stream().map(line -> toBoardGame(line, columnMap))
-                .filter(game -> game != null).collect(Collectors.toSet());
+                .filter(game -> game != null).collect(Collectors.toCollection(LinkedHashSet::new));
 
         return games;
 
     }
 
+    /**
+     * Loads the games from the csv file into a new catalog, giving them ordinals 0, 1, 2, ...
+     * in file order.
+     * 
+     * @param filename the name of the file to load
+     * @return the catalog
+     */
+    public static GameCatalog loadCatalog(String filename) {
+        return loadCatalog(filename, new GameCatalog());
+    }
+
+    /**
+     * Loads the games from the csv file into a catalog, in file order, and builds its
+     * index for {@link Planner#similar(BoardGame, int)}.
+     * 
+     * @param filename the name of the file to load
+     * @param catalog  the catalog to add to, such as {@link GameCatalog#compact()}
+     * @return the catalog
+     */
+    public static GameCatalog loadCatalog(String filename, GameCatalog catalog) {
+        for (BoardGame game : loadGamesFile(filename)) {
+            catalog.intern(game);
+        }
+        catalog.trimToSize();
+        catalog.similarityIndex(); // built with the catalog, not on the first similar games query
+        return catalog;
+    }
+
     /**
      * Converts a line from the csv file into a BoardGame object.
      * 
@@ -0,0 +1,69 @@
+package student;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Counts of games per bucket of a Facet.
+ *
+ * Buckets are keyed by their lower bound, so a decade facet on YEAR has keys such as
+ * 1990.0 and 2000.0. Only buckets with at least one game are included.
+ */
+public final class Histogram {
+    /** the facet computed. */
+    private final Facet facet;
+    /** count per bucket lower bound, in ascending order. */
+    private final SortedMap<Double, Integer> counts;
+
+    /**
+     * Constructor for a histogram from dense bucket counts.
+     *
+     * @param facet       the facet computed.
+     * @param firstBucket bucket index of counts[0].
+     * @param counts      counts per bucket, starting at firstBucket.
+     */
+    Histogram(Facet facet, long firstBucket, int[] counts) {
+        this.facet = facet;
+        SortedMap<Double, Integer> map = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                map.put(facet.lowerBound(firstBucket + i), counts[i]);
+            }
+        }
+        this.counts = Collections.unmodifiableSortedMap(map);
+    }
+
+    /**
+     * Get the facet computed.
+     *
+     * @return the facet.
+     */
+    public Facet getFacet() {
+        return facet;
+    }
+
+    /**
+     * Get the counts per bucket.
+     *
+     * @return bucket lower bound to count, ascending, only non empty buckets.
+     */
+    public SortedMap<Double, Integer> getCounts() {
+        return counts;
+    }
+
+    /**
+     * Get the count of the bucket holding the value.
+     *
+     * @param value any value in the bucket.
+     * @return number of games in the bucket.
+     */
+    public int getCount(double value) {
+        return counts.getOrDefault(facet.lowerBound(facet.bucket(value)), 0);
+    }
+
+    @Override
+    public String toString() {
+        return facet + counts.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * Maps game ids to ordinals with open addressing over primitive arrays, so a lookup hashes
+ * an int instead of a BoardGame. Several ordinals can share an id (the same id under
+ * different names); they are chained through {@link #next(int)}, most recent first.
+ */
+final class IdIndex {
+    /** marks an empty slot in heads. */
+    private static final int EMPTY = -1;
+
+    /** id in each slot. */
+    private int[] keys = new int[16];
+    /** most recent ordinal with the slot's id, or EMPTY. */
+    private int[] heads = filled(16);
+    /** for each ordinal, the previous ordinal with the same id, or EMPTY. */
+    private int[] next = new int[16];
+    /** number of ids in the table. */
+    private int ids;
+
+    /**
+     * Adds an ordinal under an id. Ordinals must be added in increasing order, starting at 0.
+     *
+     * @param id      the game id.
+     * @param ordinal the ordinal.
+     */
+    void add(int id, int ordinal) {
+        if (ordinal >= next.length) {
+            next = Arrays.copyOf(next, Math.max(ordinal + 1, next.length * 2 + 16));
+        }
+        if ((ids + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int slot = slot(id);
+        if (heads[slot] == EMPTY) {
+            keys[slot] = id;
+            ids++;
+        }
+        next[ordinal] = heads[slot];
+        heads[slot] = ordinal;
+    }
+
+    /**
+     * Gets the most recent ordinal added under the id.
+     *
+     * @param id the game id.
+     * @return the ordinal, or -1 if there is none.
+     */
+    int first(int id) {
+        return heads[slot(id)];
+    }
+
+    /**
+     * Gets the ordinal added under the same id before this one.
+     *
+     * @param ordinal an ordinal from {@link #first(int)} or next.
+     * @return the ordinal, or -1 if there is none.
+     */
+    int next(int ordinal) {
+        return next[ordinal];
+    }
+
+    /**
+     * Shrinks the chain array to the ordinals added.
+     *
+     * @param ordinals number of ordinals added.
+     */
+    void trim(int ordinals) {
+        next = Arrays.copyOf(next, ordinals);
+    }
+
+    /**
+     * Bytes used by the backing arrays, not counting the array headers.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        return 4L * (keys.length + heads.length + next.length);
+    }
+
+    /**
+     * Finds the slot holding the id, or the empty slot where it would go.
+     *
+     * @param id the game id.
+     * @return the slot.
+     */
+    private int slot(int id) {
+        int mask = keys.length - 1;
+        int hash = id * 0x9E3779B9; // spread sequential ids
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (heads[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Moves every id into a larger table.
+     *
+     * @param capacity the new number of slots, a power of two.
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new int[capacity];
+        heads = filled(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    /**
+     * Creates an array of EMPTY.
+     *
+     * @param length the length.
+     * @return the array.
+     */
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, EMPTY);
+        return array;
+    }
+}
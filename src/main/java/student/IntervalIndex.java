@@ -0,0 +1,192 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Index answering range conditions (see GameRange) for every game in a catalog.
+ *
+ * Ordinals are kept twice, sorted by the low end and by the high end of the range.
+ * A "supports at most T" query is a prefix of the first, "supports at least T" a
+ * suffix of the second, and "supports exactly N" the AND of both. The answers for
+ * small exact values (such as player counts) are cached as BitSets.
+ */
+final class IntervalIndex {
+    /** Exact values below this are cached. */
+    private static final int SMALL_VALUES = 32;
+
+    /** number of catalog ordinals covered (0 to size - 1). */
+    private final int size;
+    /** ordinals sorted by the low end of the range. */
+    private final int[] byMin;
+    /** low ends, sorted, parallel to byMin. */
+    private final int[] mins;
+    /** ordinals sorted by the high end of the range. */
+    private final int[] byMax;
+    /** high ends, sorted, parallel to byMax. */
+    private final int[] maxes;
+    /** cached exact matches for small values. */
+    private final BitSet[] small = new BitSet[SMALL_VALUES];
+
+    /**
+     * Builds the index over the first size games of the catalog.
+     *
+     * @param catalog the catalog.
+     * @param range   the range to index.
+     * @param size    number of games to index.
+     */
+    IntervalIndex(GameCatalog catalog, GameRange range, int size) {
+        this.size = size;
+        long[] minKeys = new long[size];
+        long[] maxKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            BoardGame game = catalog.get(i);
+            // value in the high 32 bits, ordinal in the low, so a sort orders by value
+            minKeys[i] = ((long) range.getMin(game) << 32) | i;
+            maxKeys[i] = ((long) range.getMax(game) << 32) | i;
+        }
+        Arrays.sort(minKeys);
+        Arrays.sort(maxKeys);
+        byMin = new int[size];
+        mins = new int[size];
+        byMax = new int[size];
+        maxes = new int[size];
+        for (int i = 0; i < size; i++) {
+            byMin[i] = (int) minKeys[i];
+            mins[i] = (int) (minKeys[i] >> 32);
+            byMax[i] = (int) maxKeys[i];
+            maxes[i] = (int) (maxKeys[i] >> 32);
+        }
+    }
+
+    /**
+     * Number of catalog ordinals covered by the index.
+     *
+     * @return the size of the catalog when the index was built.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes used by the backing arrays and cached matches, not counting the array headers.
+     *
+     * @return the bytes used.
+     */
+    synchronized long bytesUsed() {
+        long bytes = 4L * (byMin.length + mins.length + byMax.length + maxes.length);
+        for (BitSet cached : small) {
+            bytes += cached == null ? 0 : cached.size() / 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds the games whose range satisfies the comparison for some value in it.
+     *
+     * @param op    the comparison.
+     * @param value the value to compare.
+     * @return ordinals of the matching games, or null if op does not apply to ranges.
+     */
+    synchronized BitSet query(Operations op, int value) {
+        switch (op) {
+            case LESS_THAN_EQUALS:
+                return prefix(byMin, firstAbove(mins, value));
+            case LESS_THAN:
+                return prefix(byMin, firstAtLeast(mins, value));
+            case GREATER_THAN_EQUALS:
+                return suffix(byMax, firstAtLeast(maxes, value));
+            case GREATER_THAN:
+                return suffix(byMax, firstAbove(maxes, value));
+            case EQUALS:
+                return (BitSet) exactly(value).clone();
+            case NOT_EQUALS:
+                BitSet result = (BitSet) exactly(value).clone();
+                result.flip(0, size);
+                return result;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Finds the games whose range contains the value, using the cache for small values.
+     *
+     * @param value the value.
+     * @return the matching ordinals, must not be modified.
+     */
+    private BitSet exactly(int value) {
+        boolean cacheable = value >= 0 && value < SMALL_VALUES;
+        if (cacheable && small[value] != null) {
+            return small[value];
+        }
+        BitSet result = prefix(byMin, firstAbove(mins, value));
+        result.and(suffix(byMax, firstAtLeast(maxes, value)));
+        if (cacheable) {
+            small[value] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Builds a BitSet of the first count ordinals.
+     *
+     * @param ordinals sorted ordinals.
+     * @param count    how many to include.
+     * @return the BitSet.
+     */
+    private BitSet prefix(int[] ordinals, int count) {
+        BitSet result = new BitSet(size);
+        for (int i = 0; i < count; i++) {
+            result.set(ordinals[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a BitSet of the ordinals from start to the end.
+     *
+     * @param ordinals sorted ordinals.
+     * @param start    first index to include.
+     * @return the BitSet.
+     */
+    private BitSet suffix(int[] ordinals, int start) {
+        BitSet result = new BitSet(size);
+        for (int i = start; i < ordinals.length; i++) {
+            result.set(ordinals[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Index of the first value greater than or equal to the key.
+     *
+     * @param sorted sorted values.
+     * @param key    the key.
+     * @return the index, sorted.length if there is none.
+     */
+    private static int firstAtLeast(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the first value greater than the key.
+     *
+     * @param sorted sorted values.
+     * @param key    the key.
+     * @return the index, sorted.length if there is none.
+     */
+    private static int firstAbove(int[] sorted, int key) {
+        return key == Integer.MAX_VALUE ? sorted.length : firstAtLeast(sorted, key + 1);
+    }
+}
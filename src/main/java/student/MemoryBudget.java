@@ -0,0 +1,318 @@
+package student;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts for the heap used by every catalog, planner and games list, and keeps it under a
+ * global budget.
+ *
+ * The structures register themselves when created and report their size to their
+ * {@link Account} when it changes, such as when a filter adds a step or an index is built,
+ * so the budget keeps a running total and the check after each query reads two counters
+ * instead of adding up every structure. An account leaves the total once its structure is
+ * garbage. {@link #usage()} still adds up every live structure, by part, for reporting.
+ *
+ * The total is split into what can be given back and what can not: the games themselves,
+ * the games lists and each planner's current results, and the step they were filtered
+ * from, are never dropped. When the total is
+ * over the budget, memory is given back until it is at most {@value #LOW_WATER_PERCENT}% of
+ * the budget, so that the next query growing it a little does not start another round, in
+ * order of how easily it is regained:
+ *
+ * <ol>
+ * <li>the filter history of planners is trimmed to their current results and the step they
+ * were filtered from, least recently used planner first, so idle sessions give up their
+ * undo steps before busy ones;</li>
+ * <li>the indexes of catalogs are dropped one at a time, least recently used first, and
+ * largest first among those last used together. They are rebuilt the next time they are
+ * needed. After a query, indexes used within the last {@value #HOT_MILLIS} ms are kept, so
+ * that an index every query needs is not rebuilt by every query.</li>
+ * </ol>
+ *
+ * When what can not be given back is over the budget by itself, nothing is dropped, since
+ * that could not bring the total within it. The budget defaults to the
+ * {@value #BUDGET_PROPERTY} system property, in bytes, or half of the maximum heap.
+ */
+public final class MemoryBudget {
+    /** System property overriding the default budget, in bytes. */
+    public static final String BUDGET_PROPERTY = "planner.memoryBudget";
+    /** Memory is given back until the total is at most this share of the budget. */
+    static final int LOW_WATER_PERCENT = 75;
+    /** Indexes used this recently are kept when the budget is enforced after a query. */
+    static final long HOT_MILLIS = 1000;
+
+    /** live catalogs. */
+    private static final Map<GameCatalog, Boolean> CATALOGS = new WeakHashMap<>();
+    /** live planners. */
+    private static final Map<Planner, Boolean> PLANNERS = new WeakHashMap<>();
+    /** live games lists. */
+    private static final Map<GameList, Boolean> LISTS = new WeakHashMap<>();
+    /** accounts in the total, keeping them reachable until their structure is garbage. */
+    private static final Set<Account> ACCOUNTS = ConcurrentHashMap.newKeySet();
+    /** accounts whose structure is garbage. */
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<>();
+    /** bytes that can not be given back. */
+    private static final AtomicLong FIXED = new AtomicLong();
+    /** bytes that can be given back. */
+    private static final AtomicLong EVICTABLE = new AtomicLong();
+    /** set while a query gives memory back, so that other queries do not wait for it. */
+    private static final AtomicBoolean ENFORCING = new AtomicBoolean();
+    /** the budget in bytes. */
+    private static volatile long limit = defaultLimit();
+
+    /** Private constructor to prevent instantiation. */
+    private MemoryBudget() { }
+
+    /** The bytes last reported by a catalog, planner or games list. */
+    static final class Account extends WeakReference<Object> {
+        /** bytes that can not be given back. */
+        private long fixed;
+        /** bytes that can be given back. */
+        private long evictable;
+
+        /**
+         * Constructor for an account, adding it to the total.
+         *
+         * @param owner the structure accounted for.
+         */
+        private Account(Object owner) {
+            super(owner, COLLECTED);
+            ACCOUNTS.add(this);
+        }
+
+        /**
+         * Reports the size of the structure, replacing the last report in the total.
+         *
+         * @param fixedBytes     bytes that can not be given back.
+         * @param evictableBytes bytes that can be given back.
+         */
+        synchronized void report(long fixedBytes, long evictableBytes) {
+            FIXED.addAndGet(fixedBytes - fixed);
+            EVICTABLE.addAndGet(evictableBytes - evictable);
+            fixed = fixedBytes;
+            evictable = evictableBytes;
+        }
+    }
+
+    /**
+     * Gets the default budget: the {@value #BUDGET_PROPERTY} system property, or half of the
+     * maximum heap.
+     *
+     * @return the budget in bytes.
+     */
+    static long defaultLimit() {
+        return Long.getLong(BUDGET_PROPERTY, Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * Gets the budget.
+     *
+     * @return the budget in bytes.
+     */
+    public static long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the budget. It is enforced after the next planner query, or by {@link #enforce()}.
+     *
+     * @param bytes the budget in bytes, {@link Long#MAX_VALUE} for no budget.
+     * @throws IllegalArgumentException if the budget is negative.
+     */
+    public static void setLimit(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative: " + bytes);
+        }
+        limit = bytes;
+    }
+
+    /**
+     * Registers a catalog for accounting.
+     *
+     * @param catalog the catalog.
+     * @return the account the catalog reports its size to.
+     */
+    static synchronized Account track(GameCatalog catalog) {
+        CATALOGS.put(catalog, Boolean.TRUE);
+        return new Account(catalog);
+    }
+
+    /**
+     * Registers a planner for accounting.
+     *
+     * @param planner the planner.
+     * @return the account the planner reports its size to.
+     */
+    static synchronized Account track(Planner planner) {
+        PLANNERS.put(planner, Boolean.TRUE);
+        return new Account(planner);
+    }
+
+    /**
+     * Registers a games list for accounting.
+     *
+     * @param list the list.
+     * @return the account the list reports its size to.
+     */
+    static synchronized Account track(GameList list) {
+        LISTS.put(list, Boolean.TRUE);
+        return new Account(list);
+    }
+
+    /**
+     * Gets the running total of the bytes reported by every live structure.
+     *
+     * @return the bytes used.
+     */
+    static long used() {
+        collect();
+        return FIXED.get() + EVICTABLE.get();
+    }
+
+    /**
+     * Gets the part of the running total that can not be given back.
+     *
+     * @return the bytes used.
+     */
+    static long fixed() {
+        collect();
+        return FIXED.get();
+    }
+
+    /** Takes the accounts of structures that are garbage out of the total. */
+    private static void collect() {
+        for (Object gone = COLLECTED.poll(); gone != null; gone = COLLECTED.poll()) {
+            ACCOUNTS.remove(gone);
+            ((Account) gone).report(0, 0);
+        }
+    }
+
+    /**
+     * Estimates the heap used by every live catalog, planner and games list, by part.
+     *
+     * @return the usage.
+     */
+    public static synchronized MemoryUsage usage() {
+        List<MemoryUsage> usages = new ArrayList<>();
+        for (GameCatalog catalog : new ArrayList<>(CATALOGS.keySet())) {
+            usages.add(catalog.memoryUsage());
+        }
+        long sessions = 0;
+        for (Planner planner : new ArrayList<>(PLANNERS.keySet())) {
+            sessions += planner.sessionBytes();
+        }
+        long lists = 0;
+        for (GameList list : new ArrayList<>(LISTS.keySet())) {
+            lists += list.bytesUsed();
+        }
+        Map<String, Long> rest = new LinkedHashMap<>();
+        rest.put(MemoryUsage.SESSIONS, sessions);
+        rest.put(MemoryUsage.GAME_LISTS, lists);
+        usages.add(new MemoryUsage(rest));
+        return MemoryUsage.sum(usages);
+    }
+
+    /**
+     * Enforces the budget after a query, keeping the indexes in use. Within the budget, this
+     * only reads the running total; if another query is already giving memory back, this one
+     * does not wait for it.
+     */
+    static void check() {
+        long budget = limit;
+        if (used() <= budget || FIXED.get() >= budget || !ENFORCING.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            enforce(true);
+        } finally {
+            ENFORCING.set(false);
+        }
+    }
+
+    /**
+     * Gives back memory, as described above, dropping indexes however recently they were used.
+     *
+     * @return the estimated bytes given back.
+     */
+    public static long enforce() {
+        return enforce(false);
+    }
+
+    /**
+     * Gives back memory, as described above.
+     *
+     * @param keepHot if true, indexes used within the last {@value #HOT_MILLIS} ms are kept.
+     * @return the estimated bytes given back.
+     */
+    private static synchronized long enforce(boolean keepHot) {
+        long budget = limit;
+        long before = used();
+        if (before <= budget || FIXED.get() >= budget) {
+            return 0;
+        }
+        long target = budget / 100 * LOW_WATER_PERCENT;
+        List<Planner> planners = new ArrayList<>(PLANNERS.keySet());
+        planners.sort(Comparator.comparingLong(Planner::lastUsed));
+        for (Planner planner : planners) {
+            if (used() <= target) {
+                return before - used();
+            }
+            planner.trimHistory();
+        }
+
+        List<IndexUse> indexes = new ArrayList<>();
+        for (GameCatalog catalog : new ArrayList<>(CATALOGS.keySet())) {
+            MemoryUsage usage = catalog.memoryUsage();
+            catalog.indexUses().forEach((part, lastUse) ->
+                    indexes.add(new IndexUse(catalog, part, lastUse, usage.get(part))));
+        }
+        indexes.sort(Comparator.comparingLong((IndexUse index) -> index.lastUse)
+                .thenComparing(Comparator.comparingLong((IndexUse index) -> index.bytes).reversed()));
+        long hot = System.nanoTime() - HOT_MILLIS * 1_000_000;
+        for (IndexUse index : indexes) {
+            if (used() <= target || keepHot && index.lastUse - hot > 0) {
+                break;
+            }
+            index.catalog.evictIndex(index.part);
+        }
+        return Math.max(0, before - used());
+    }
+
+    /** An index of a catalog that could be dropped. */
+    private static final class IndexUse {
+        /** the catalog. */
+        private final GameCatalog catalog;
+        /** the index, as its {@link MemoryUsage} part. */
+        private final String part;
+        /** {@link System#nanoTime()} of its last use. */
+        private final long lastUse;
+        /** its estimated size. */
+        private final long bytes;
+
+        /**
+         * Constructor for an index.
+         *
+         * @param catalog the catalog.
+         * @param part    the index, as its {@link MemoryUsage} part.
+         * @param lastUse {@link System#nanoTime()} of its last use.
+         * @param bytes   its estimated size.
+         */
+        IndexUse(GameCatalog catalog, String part, long lastUse, long bytes) {
+            this.catalog = catalog;
+            this.part = part;
+            this.lastUse = lastUse;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package student;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimated heap used by the planner's data structures, by part, such as the games of the
+ * catalogs and each of their indexes. The estimates count the arrays and strings held, not
+ * object headers, so they track growth rather than give exact sizes.
+ */
+public final class MemoryUsage {
+    /** The games themselves, see {@link GameCatalog#compact()}. */
+    public static final String GAMES = "games";
+    /** Numeric columns, ranks and sort orders. */
+    public static final String COLUMNS = "columns";
+    /** Player count and play time indexes. */
+    public static final String INTERVAL_INDEXES = "interval indexes";
+    /** Nearest neighbour index. */
+    public static final String SIMILARITY_INDEX = "similarity index";
+    /** Typo tolerant name index. */
+    public static final String NAME_INDEX = "name index";
+    /** Name prefix index. */
+    public static final String PREFIX_INDEX = "prefix index";
+    /** Array of the games by ordinal, for reading without a lock. */
+    public static final String GAME_ARRAY = "game array";
+    /** Planner state: the games of each planner, and its results and their history. */
+    public static final String SESSIONS = "sessions";
+    /** Games lists. */
+    public static final String GAME_LISTS = "game lists";
+
+    /** bytes by part, in the order added. */
+    private final Map<String, Long> parts;
+
+    /**
+     * Constructor for a usage.
+     *
+     * @param parts bytes by part, copied.
+     */
+    MemoryUsage(Map<String, Long> parts) {
+        this.parts = Collections.unmodifiableMap(new LinkedHashMap<>(parts));
+    }
+
+    /**
+     * Gets the bytes used by each part.
+     *
+     * @return bytes by part, unmodifiable.
+     */
+    public Map<String, Long> getParts() {
+        return parts;
+    }
+
+    /**
+     * Gets the bytes used by a part.
+     *
+     * @param part the part, such as {@link #COLUMNS}.
+     * @return the bytes, 0 if the part is not counted.
+     */
+    public long get(String part) {
+        return parts.getOrDefault(part, 0L);
+    }
+
+    /**
+     * Gets the bytes used by every part.
+     *
+     * @return the total.
+     */
+    public long total() {
+        long total = 0;
+        for (long bytes : parts.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Adds up the parts of several usages.
+     *
+     * @param usages the usages.
+     * @return the sum, parts in the order first seen.
+     */
+    static MemoryUsage sum(Iterable<MemoryUsage> usages) {
+        Map<String, Long> sum = new LinkedHashMap<>();
+        for (MemoryUsage usage : usages) {
+            usage.parts.forEach((part, bytes) -> sum.merge(part, bytes, Long::sum));
+        }
+        return new MemoryUsage(sum);
+    }
+
+    /**
+     * Formats a number of bytes, such as 1.5 MB.
+     *
+     * @param bytes the bytes.
+     * @return the text.
+     */
+    static String format(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10; // 1 for KB, 2 for MB, ...
+        return String.format(Locale.ROOT, "%.1f %sB", bytes / (double) (1L << (10 * unit)),
+                "KMGTPE".charAt(unit - 1));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(format(total()));
+        String separator = " (";
+        for (Map.Entry<String, Long> part : parts.entrySet()) {
+            text.append(separator).append(part.getKey()).append(' ').append(format(part.getValue()));
+            separator = ", ";
+        }
+        return parts.isEmpty() ? text.toString() : text.append(')').toString();
+    }
+}
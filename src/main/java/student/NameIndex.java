@@ -0,0 +1,254 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * A BK-tree over the normalized names of a catalog (trimmed, lower case), for finding the
+ * names within a few typos of what was typed.
+ *
+ * Each distinct name is a node, and each child hangs off its parent by their edit
+ * (Levenshtein) distance. By the triangle inequality, names within distance k of the query
+ * can only be under children whose edge is within k of the query's distance to the parent,
+ * so a search computes the distance to a small part of the names instead of all of them.
+ * Games sharing a normalized name are chained on the node in ordinal order.
+ */
+final class NameIndex {
+    /** marks no node or ordinal. */
+    private static final int NONE = -1;
+
+    /** number of catalog ordinals covered. */
+    private final int size;
+    /** normalized name of each node. */
+    private final List<String> names = new ArrayList<>();
+    /** first child of each node. */
+    private int[] firstChild = new int[16];
+    /** next child of the same parent. */
+    private int[] nextSibling = new int[16];
+    /** distance from each node to its parent. */
+    private int[] edge = new int[16];
+    /** largest edge to a child of each node. */
+    private int[] maxEdge = new int[16];
+    /** first ordinal with each node's name. */
+    private int[] firstOrdinal = new int[16];
+    /** last ordinal with each node's name, for appending. */
+    private int[] lastOrdinal = new int[16];
+    /** next ordinal with the same name, by ordinal. */
+    private final int[] nextOrdinal;
+    /** estimated bytes of the names, counted once built. */
+    private final long nameBytes;
+
+    /**
+     * Builds the index over the first size games of the catalog.
+     *
+     * @param games the catalog's games by ordinal.
+     * @param size  number of games to index.
+     */
+    NameIndex(IntFunction<BoardGame> games, int size) {
+        this.size = size;
+        this.nextOrdinal = new int[size];
+        Arrays.fill(nextOrdinal, NONE);
+        Distance distance = new Distance();
+        for (int i = 0; i < size; i++) {
+            add(normalize(games.apply(i).getName()), i, distance);
+        }
+        long bytes = 0;
+        for (String name : names) {
+            bytes += 40 + name.length(); // string object and its bytes
+        }
+        this.nameBytes = bytes;
+    }
+
+    /**
+     * Normalizes a name for lookups.
+     *
+     * @param name the name.
+     * @return the name trimmed and in lower case.
+     */
+    static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    /**
+     * Number of catalog ordinals covered.
+     *
+     * @return the size of the catalog when the index was built.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes used by the names and the backing arrays, not counting the array headers.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        return nameBytes + 4L * names.size() + 4L * (firstChild.length + nextSibling.length + edge.length
+                + maxEdge.length + firstOrdinal.length + lastOrdinal.length + nextOrdinal.length);
+    }
+
+    /**
+     * Finds the games whose names are closest to a query, within an edit distance.
+     *
+     * @param query       the name typed, normalized here.
+     * @param maxDistance the most edits (insert, delete or change a character) allowed.
+     * @param limit       the most games to return.
+     * @param accept      which ordinals may be returned, null for all.
+     * @return ordinals of the closest games, one per name, nearest first, then by name.
+     */
+    int[] closest(String query, int maxDistance, int limit, IntPredicate accept) {
+        if (names.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        String target = normalize(query);
+        Distance distance = new Distance();
+        List<long[]> found = new ArrayList<>(); // {distance, node}
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            // a distance past every child's edge by more than maxDistance prunes them all
+            int d = distance.between(target, names.get(node), maxEdge[node] + maxDistance);
+            if (d <= maxDistance) {
+                found.add(new long[] {d, node});
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - d) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        found.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : names.get((int) a[1]).compareTo(names.get((int) b[1])));
+        int[] result = new int[Math.min(limit, found.size())];
+        int n = 0;
+        for (int f = 0; f < found.size() && n < result.length; f++) {
+            for (int i = firstOrdinal[(int) found.get(f)[1]]; i != NONE; i = nextOrdinal[i]) {
+                if (accept == null || accept.test(i)) {
+                    result[n++] = i;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Adds a name to the tree.
+     *
+     * @param name     the normalized name.
+     * @param ordinal  the game's ordinal.
+     * @param distance distance calculator to reuse.
+     */
+    private void add(String name, int ordinal, Distance distance) {
+        if (names.isEmpty()) {
+            newNode(name, ordinal, 0);
+            return;
+        }
+        int node = 0;
+        while (true) {
+            int d = distance.between(name, names.get(node), Integer.MAX_VALUE - 1);
+            if (d == 0) {
+                nextOrdinal[lastOrdinal[node]] = ordinal;
+                lastOrdinal[node] = ordinal;
+                return;
+            }
+            int child = firstChild[node];
+            while (child != NONE && edge[child] != d) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                int created = newNode(name, ordinal, d);
+                maxEdge[node] = Math.max(maxEdge[node], d);
+                nextSibling[created] = firstChild[node];
+                firstChild[node] = created;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Creates a node with no children.
+     *
+     * @param name    the normalized name.
+     * @param ordinal the first game with the name.
+     * @param d       distance to the parent.
+     * @return the node.
+     */
+    private int newNode(String name, int ordinal, int d) {
+        int node = names.size();
+        if (node == firstChild.length) {
+            int capacity = node * 2;
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+            maxEdge = Arrays.copyOf(maxEdge, capacity);
+            firstOrdinal = Arrays.copyOf(firstOrdinal, capacity);
+            lastOrdinal = Arrays.copyOf(lastOrdinal, capacity);
+        }
+        names.add(name);
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        edge[node] = d;
+        maxEdge[node] = 0;
+        firstOrdinal[node] = ordinal;
+        lastOrdinal[node] = ordinal;
+        return node;
+    }
+
+    /** Levenshtein distance with two reused rows. */
+    private static final class Distance {
+        /** the previous row. */
+        private int[] previous = new int[32];
+        /** the row being filled. */
+        private int[] row = new int[32];
+
+        /**
+         * Computes the number of single character inserts, deletes and changes that turn
+         * one string into the other, stopping once it is known to be more than a cap.
+         *
+         * @param a   one string.
+         * @param b   the other.
+         * @param cap the largest distance that needs to be exact.
+         * @return the distance, or cap + 1 if it is larger than cap.
+         */
+        int between(String a, String b, int cap) {
+            if (Math.abs(a.length() - b.length()) > cap) {
+                return cap + 1;
+            }
+            if (previous.length <= b.length()) {
+                previous = new int[b.length() + 1];
+                row = new int[b.length() + 1];
+            }
+            for (int j = 0; j <= b.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= a.length(); i++) {
+                row[0] = i;
+                int smallest = i;
+                char ca = a.charAt(i - 1);
+                for (int j = 1; j <= b.length(); j++) {
+                    int change = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                    row[j] = Math.min(change, Math.min(previous[j], row[j - 1]) + 1);
+                    smallest = Math.min(smallest, row[j]);
+                }
+                if (smallest > cap) {
+                    return cap + 1; // rows never decrease
+                }
+                int[] swap = previous;
+                previous = row;
+                row = swap;
+            }
+            return Math.min(previous[b.length()], cap + 1);
+        }
+    }
+}
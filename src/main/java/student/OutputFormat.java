@@ -0,0 +1,231 @@
+package student;
+
+import java.util.List;
+
+/**
+ * How the console and {@link ResultExporter} write the games of a filter result.
+ *
+ * TEXT is the numbered list shown to people. The other formats write the chosen columns
+ * (all of them by default) of each game, one game per line, for scripts: TSV and CSV
+ * after a header line of the csv column names, JSONL as one JSON object per game keyed
+ * by the same names.
+ */
+public enum OutputFormat {
+    /** Numbered names with the sorted on value, such as {@code 1: Chess (8.50)}. */
+    TEXT,
+    /** Tab separated values with a header line. */
+    TSV,
+    /** Comma separated values with a header line, names quoted when needed. */
+    CSV,
+    /** One JSON object per line. */
+    JSONL;
+
+    /** Every column, in declaration order. */
+    static final List<GameData> ALL_COLUMNS = List.of(GameData.values());
+
+    /**
+     * Get the format from its name.
+     *
+     * @param name the name, any case.
+     * @return the format.
+     * @throws IllegalArgumentException if there is no format with the name.
+     */
+    public static OutputFormat fromString(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("No output format with name " + name);
+    }
+
+    /**
+     * Appends what comes before the first game of a result, the column names for TSV
+     * and CSV.
+     *
+     * @param row     builder to append to.
+     * @param columns the columns written.
+     * @return true if anything was appended.
+     */
+    boolean appendHeader(StringBuilder row, List<GameData> columns) {
+        if (this != TSV && this != CSV) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                row.append(separator());
+            }
+            row.append(columns.get(i).getColumnName());
+        }
+        return true;
+    }
+
+    /**
+     * Appends one game of a result, without the line break. Only appends to the builder,
+     * so writing many games through one builder creates no garbage.
+     *
+     * @param row    builder to append to.
+     * @param number position of the game in the result, starting at 1.
+     * @param game   the game.
+     * @param sortOn  the column the result is sorted on, shown by TEXT.
+     * @param columns the columns written, ignored by TEXT.
+     */
+    void appendGame(StringBuilder row, long number, BoardGame game, GameData sortOn,
+            List<GameData> columns) {
+        switch (this) {
+            case TSV:
+            case CSV:
+                appendSeparated(row, game, columns);
+                break;
+            case JSONL:
+                appendJson(row, game, columns);
+                break;
+            case TEXT:
+            default:
+                game.appendWithInfo(row.append(number).append(": "), sortOn);
+        }
+    }
+
+    /**
+     * Gets the separator between columns of TSV and CSV.
+     *
+     * @return the separator.
+     */
+    private char separator() {
+        return this == CSV ? ',' : '\t';
+    }
+
+    /**
+     * Appends the columns of the game, tab or comma separated.
+     *
+     * @param row     builder to append to.
+     * @param game    the game.
+     * @param columns the columns.
+     */
+    private void appendSeparated(StringBuilder row, BoardGame game, List<GameData> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                row.append(separator());
+            }
+            if (columns.get(i) != GameData.NAME) {
+                appendNumber(row, game, columns.get(i));
+            } else if (this == CSV) {
+                appendCsvString(row, game.getName());
+            } else {
+                String name = game.getName();
+                for (int c = 0; c < name.length(); c++) {
+                    char ch = name.charAt(c);
+                    // tabs and line breaks would split the row
+                    row.append(ch == '\t' || ch == '\n' || ch == '\r' ? ' ' : ch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the columns of the game as a JSON object.
+     *
+     * @param row     builder to append to.
+     * @param game    the game.
+     * @param columns the columns.
+     */
+    private static void appendJson(StringBuilder row, BoardGame game, List<GameData> columns) {
+        row.append('{');
+        boolean first = true;
+        for (GameData column : columns) {
+            if (!first) {
+                row.append(',');
+            }
+            first = false;
+            row.append('"').append(column.getColumnName()).append("\":");
+            if (column == GameData.NAME) {
+                appendJsonString(row, game.getName());
+            } else {
+                appendNumber(row, game, column);
+            }
+        }
+        row.append('}');
+    }
+
+    /**
+     * Appends a numeric column of the game.
+     *
+     * @param row    builder to append to.
+     * @param game   the game.
+     * @param column a column other than NAME.
+     */
+    private static void appendNumber(StringBuilder row, BoardGame game, GameData column) {
+        if (column == GameData.ID) {
+            row.append(game.getId());
+        } else if (ColumnStore.isDouble(column)) {
+            row.append(Filter.getDoubleVal(game, column));
+        } else {
+            row.append(Filter.getIntVal(game, column));
+        }
+    }
+
+    /**
+     * Appends a CSV field, quoted if it has a comma, quote or line break.
+     *
+     * @param row   builder to append to.
+     * @param value the string.
+     */
+    static void appendCsvString(StringBuilder row, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"'); // doubled
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Appends a quoted JSON string.
+     *
+     * @param row   builder to append to.
+     * @param value the string.
+     */
+    static void appendJsonString(StringBuilder row, String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    row.append("\\\"");
+                    break;
+                case '\\':
+                    row.append("\\\\");
+                    break;
+                case '\n':
+                    row.append("\\n");
+                    break;
+                case '\r':
+                    row.append("\\r");
+                    break;
+                case '\t':
+                    row.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        row.append("\\u00").append(Character.forDigit(c >> 4, 16))
+                                .append(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        row.append(c);
+                    }
+            }
+        }
+        row.append('"');
+    }
+}
@@ -0,0 +1,102 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints stored in the narrowest array that holds every value added so
+ * far: bytes, then shorts, then ints. Columns such as player counts fit in a byte per game.
+ */
+final class PackedInts {
+    /** values while they all fit in a byte. */
+    private byte[] bytes = new byte[16];
+    /** values once one needed a short, null before. */
+    private short[] shorts;
+    /** values once one needed an int, null before. */
+    private int[] ints;
+    /** number of values. */
+    private int size;
+
+    /**
+     * Adds a value at the end, widening the storage if it does not fit.
+     *
+     * @param value the value.
+     */
+    void add(int value) {
+        if (ints == null && shorts == null && (byte) value != value) {
+            shorts = new short[bytes.length];
+            for (int i = 0; i < size; i++) {
+                shorts[i] = bytes[i];
+            }
+            bytes = null;
+        }
+        if (ints == null && shorts != null && (short) value != value) {
+            ints = new int[shorts.length];
+            for (int i = 0; i < size; i++) {
+                ints[i] = shorts[i];
+            }
+            shorts = null;
+        }
+        if (ints != null) {
+            if (size == ints.length) {
+                ints = Arrays.copyOf(ints, size * 2 + 16);
+            }
+            ints[size] = value;
+        } else if (shorts != null) {
+            if (size == shorts.length) {
+                shorts = Arrays.copyOf(shorts, size * 2 + 16);
+            }
+            shorts[size] = (short) value;
+        } else {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2 + 16);
+            }
+            bytes[size] = (byte) value;
+        }
+        size++;
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param index position of the value, less than {@link #size()}.
+     * @return the value.
+     */
+    int get(int index) {
+        if (ints != null) {
+            return ints[index];
+        }
+        return shorts != null ? shorts[index] : bytes[index];
+    }
+
+    /**
+     * Number of values added.
+     *
+     * @return the size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes used by the backing array, not counting the array header.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        if (ints != null) {
+            return 4L * ints.length;
+        }
+        return shorts != null ? 2L * shorts.length : bytes.length;
+    }
+
+    /** Shrinks the backing array to the number of values. */
+    void trim() {
+        if (ints != null) {
+            ints = Arrays.copyOf(ints, size);
+        } else if (shorts != null) {
+            shorts = Arrays.copyOf(shorts, size);
+        } else {
+            bytes = Arrays.copyOf(bytes, size);
+        }
+    }
+}
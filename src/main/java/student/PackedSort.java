@@ -0,0 +1,121 @@
+package student;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Sorts games on a list of {@link SortKey}s by packing every key of a game into one long
+ * and sorting the longs, instead of comparing BoardGames with chained comparators.
+ *
+ * Each key becomes the game's dense rank in the column (see {@link ColumnStore#ranks}),
+ * flipped for a descending key, using just enough bits for the column's distinct values.
+ * The game's position in name order goes in the lowest bits, so ties fall back to name and
+ * then ordinal, exactly as {@link Sorting#comparator(List)} orders them, and the position
+ * also decodes back to the ordinal. The order is the same as the comparator's.
+ *
+ * Keys only fit while their bits add up to at most 63; {@link #of} returns null otherwise.
+ */
+final class PackedSort {
+    /** bits available in a key, leaving the sign bit clear. */
+    private static final int MAX_BITS = 63;
+
+    /** ranks of each key column. */
+    private final int[][] ranks;
+    /** highest rank of each key column, to flip descending keys. */
+    private final int[] highest;
+    /** true for an ascending key. */
+    private final boolean[] ascending;
+    /** bits used by each key. */
+    private final int[] bits;
+    /** ordinals in name order. */
+    private final int[] nameOrder;
+    /** position of each ordinal in nameOrder. */
+    private final int[] namePositions;
+    /** bits used by the name position. */
+    private final int positionBits;
+
+    /**
+     * Constructor for a packed sort.
+     *
+     * @param columns the columns of the catalog.
+     * @param keys    the sort keys.
+     * @param bits    bits used by each key.
+     */
+    private PackedSort(ColumnStore columns, List<SortKey> keys, int[] bits) {
+        this.ranks = new int[keys.size()][];
+        this.highest = new int[keys.size()];
+        this.ascending = new boolean[keys.size()];
+        this.bits = bits;
+        for (int k = 0; k < keys.size(); k++) {
+            ColumnStore.Ranks columnRanks = columns.ranks(keys.get(k).getColumn());
+            ranks[k] = columnRanks.values();
+            highest[k] = columnRanks.distinct() - 1;
+            ascending[k] = keys.get(k).isAscending();
+        }
+        this.nameOrder = columns.nameOrder();
+        this.namePositions = columns.namePositions();
+        this.positionBits = bitsFor(columns.size());
+    }
+
+    /**
+     * Creates a packed sort over the columns, if the keys fit in a long.
+     *
+     * @param columns the columns of the catalog.
+     * @param keys    the sort keys, in order.
+     * @return the packed sort, or null if the keys need more than 63 bits.
+     */
+    static PackedSort of(ColumnStore columns, List<SortKey> keys) {
+        int[] bits = new int[keys.size()];
+        int total = bitsFor(columns.size());
+        for (int k = 0; k < keys.size(); k++) {
+            bits[k] = bitsFor(columns.ranks(keys.get(k).getColumn()).distinct());
+            total += bits[k];
+        }
+        return total <= MAX_BITS ? new PackedSort(columns, keys, bits) : null;
+    }
+
+    /**
+     * Sorts games.
+     *
+     * @param matches  ordinals of the games to sort, all covered by the columns.
+     * @param games    the catalog's games by ordinal.
+     * @param parallel if true, the longs are sorted with {@link Arrays#parallelSort(long[])}.
+     * @return the games in sorted order, unmodifiable.
+     */
+    List<BoardGame> sort(BitSet matches, IntFunction<BoardGame> games, boolean parallel) {
+        long[] packed = new long[matches.cardinality()];
+        int n = 0;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            long key = 0;
+            for (int k = 0; k < ranks.length; k++) {
+                int rank = ascending[k] ? ranks[k][i] : highest[k] - ranks[k][i];
+                key = (key << bits[k]) | rank;
+            }
+            packed[n++] = (key << positionBits) | namePositions[i];
+        }
+        if (parallel) {
+            Arrays.parallelSort(packed);
+        } else {
+            Arrays.sort(packed);
+        }
+        long mask = (1L << positionBits) - 1;
+        BoardGame[] sorted = new BoardGame[n];
+        for (int j = 0; j < n; j++) {
+            sorted[j] = games.apply(nameOrder[(int) (packed[j] & mask)]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    /**
+     * Number of bits needed for values 0 to count - 1.
+     *
+     * @param count number of values.
+     * @return the bits, 0 for a single value.
+     */
+    private static int bitsFor(int count) {
+        return count <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(count - 1);
+    }
+}
@@ -1,27 +1,99 @@
 package student;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Planner implements the IPlanner interface.
  * Manages a full collection of board games and a "current" subset that can be filtered cumulatively.
+ *
+ * Games are tracked by their ordinal in a GameCatalog, so the current subset and the
+ * game list can be combined with BitSet operations.
+ *
+ * The current subset is held as an immutable {@link ResultSnapshot}, replaced by each
+ * filter or reset with a compare-and-set, so a stream returned by a filter is never changed
+ * by later filters, and queries can read the current subset from any thread without a lock.
+ * Each filter and reset is kept as a step of a {@link FilterHistory}, so it can be undone
+ * and redone without running the filters again.
  */
 public class Planner implements IPlanner {
-    /** The complete set of all available board games. */
-    private final Set<BoardGame> allGames;
-    /** The currently filtered subset of board games (maintained between filters). */
-    private Set<BoardGame> current;
+    /** The catalog the ordinals refer to. */
+    private final GameCatalog catalog;
+    /** Ordinals of the complete set of all available board games. */
+    private final BitSet allGames;
+    /** The list used by the "in list" filter condition, may be null. */
+    private final IGameList gameList;
+    /** The filter steps, whose current step is the currently filtered subset of board games. */
+    private final AtomicReference<FilterHistory> history = new AtomicReference<>(FilterHistory.start());
+    /** The label of a reset in the history. */
+    static final String RESET_LABEL = "reset";
+    /**
+     * A column scan is skipped for a base with fewer than one game in this many of the
+     * catalog, whose games are checked one by one instead.
+     */
+    static final int SCAN_RATIO = 16;
+    /** Number of candidate games at which a filter is checked and sorted in parallel. */
+    private int parallelThreshold = ScanExecutor.defaultThreshold();
+    /** {@link System#nanoTime()} of the last query, for {@link MemoryBudget}. */
+    private volatile long lastUsed = System.nanoTime();
+    /** The planner's share of the {@link MemoryBudget}. */
+    private final MemoryBudget.Account account;
 
     /**
-     * Constructs a Planner with the specified set of BoardGame objects.
+     * Constructs a Planner with the specified set of BoardGame objects, in a catalog of its
+     * own.
      * @param games the full set of board games to manage and filter.
      */
     public Planner(Set<BoardGame> games) {
-        this.allGames = games;
-        this.current = new LinkedHashSet<>();  // start with an empty current set (no filters applied yet)
+        this(games, null);
+    }
+
+    /**
+     * Constructs a Planner with the specified set of BoardGame objects and a game list
+     * that filters can be scoped to. The games are added to the list's catalog if it is a
+     * GameList, so both refer to the same ordinals, or else to a catalog of the planner's own.
+     * @param games    the full set of board games to manage and filter.
+     * @param gameList the list used by the {@value Filter#IN_LIST} condition.
+     */
+    public Planner(Set<BoardGame> games, IGameList gameList) {
+        this.catalog = gameList instanceof GameList ? ((GameList) gameList).getCatalog()
+                : new GameCatalog();
+        this.allGames = new BitSet();
+        for (BoardGame game : games) {
+            allGames.set(catalog.intern(game));
+        }
+        catalog.trimToSize();
+        this.gameList = gameList;  // the current set starts empty (no filters applied yet)
+        this.account = MemoryBudget.track(this);
+        report();
+    }
+
+    /**
+     * Constructs a Planner over every game in a catalog when it is called, such as one from
+     * {@link GamesLoader#loadCatalog(String)}, without going through a Set.
+     * @param catalog  the catalog of games to manage and filter.
+     * @param gameList the list used by the {@value Filter#IN_LIST} condition, ideally
+     *                 a GameList on the same catalog.
+     */
+    public Planner(GameCatalog catalog, IGameList gameList) {
+        this.catalog = catalog;
+        this.allGames = new BitSet();
+        allGames.set(0, catalog.size());
+        this.gameList = gameList;
+        this.account = MemoryBudget.track(this);
+        report();
     }
 
     @Override
@@ -39,36 +111,672 @@ public class Planner implements IPlanner {
      * then sorts by the specified column in either ascending or descending order.
      * The result becomes the new current list for subsequent filters (cumulative filtering).
      *
+     * If the filter contains the {@value Filter#IN_LIST} condition, the base set is first
+     * intersected with the game list before any other condition is evaluated. Conditions
+     * that can be answered from a catalog index (such as players==3) or a scan of a numeric
+     * column (such as rating>=8) are then intersected in the same way, and only the
+     * remaining conditions are checked game by game. When at least
+     * {@link #setParallelThreshold(int) the parallel threshold} games are left to check, that
+     * work and the sort are split across the common ForkJoinPool; the result is the same.
+     *
      * @param filter    the filter criteria to apply (e.g., "minPlayers>3,rating>=8").
      * @param sortOn    the column to sort the results on.
      * @param ascending whether to sort in ascending order (true) or descending order (false).
      * @return a stream of the newly filtered and sorted board games.
+     * @throws IllegalArgumentException if the filter is malformed.
      */
     @Override
     public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        return filter(filter, List.of(SortKey.of(sortOn, ascending)));
+    }
+
+    /**
+     * Filters the current list of BoardGame objects as {@link #filter(String, GameData, boolean)}
+     * does, then sorts on several columns: the first key, then the next key for ties, and
+     * so on, then name. For example, {@code filter("players==4", SortKey.parse("rating desc, difficulty"))}.
+     *
+     * The sort packs the keys of each game into a single long when they fit (see
+     * {@link PackedSort}), and falls back to comparing games otherwise; the order is the same.
+     *
+     * @param filter the filter criteria to apply (e.g., "minPlayers>3,rating>=8").
+     * @param keys   the sort keys, in order.
+     * @return a stream of the newly filtered and sorted board games.
+     * @throws IllegalArgumentException if the filter is malformed.
+     */
+    public Stream<BoardGame> filter(String filter, List<SortKey> keys) {
+        return filterSnapshot(filter, keys).stream();
+    }
+
+    /**
+     * Filters and sorts as {@link #filter(String, List)} does, and returns the new current
+     * results as a snapshot, with its version.
+     *
+     * If another thread changes the current results while the filter runs, the filter is
+     * run again on its results, so filters from several threads each apply once, in some
+     * order, and none is lost.
+     *
+     * @param filter the filter criteria to apply (e.g., "minPlayers>3,rating>=8").
+     * @param keys   the sort keys, in order.
+     * @return the new current results.
+     * @throws IllegalArgumentException if the filter is malformed.
+     */
+    public ResultSnapshot filterSnapshot(String filter, List<SortKey> keys) {
+        FilterNode root = Filter.parse(filter);
+        String label = label(filter, keys);
+        while (true) {
+            FilterHistory before = history.get();
+            ResultSnapshot after = next(before.current(), root, keys);
+            if (history.compareAndSet(before, before.push(label, root, after))) {
+                return used(after);
+            }
+        }
+    }
+
+    /**
+     * Replaces the last filter with an edited one, such as {@code rating>7} edited into
+     * {@code rating>7.5} by a slider, and sorts the results. The results are those of undoing
+     * the last filter and applying the edited one, and the edit replaces the last step of the
+     * {@link #history()}. If the last step is not a filter (a reset, or no step), this is a
+     * plain filter. The step before a filter is kept when the {@link MemoryBudget} trims the
+     * history, but not once it is older than the {@value FilterHistory#MAX_STEPS} steps kept.
+     *
+     * When the edit tightens one condition (a bound on the same column in the same
+     * direction, or a longer {@code name~=} value), only the games the last filter matched
+     * are checked. When it loosens a bound, only the games between the old and new bound are
+     * checked, from a sorted index of the column (see {@link Refinement}). Any other edit is
+     * evaluated in full.
+     *
+     * @param filter the edited filter, in the syntax of {@link #filter(String)}.
+     * @param keys   the sort keys, in order.
+     * @return the new current results.
+     * @throws IllegalArgumentException if the filter is malformed.
+     * @throws IllegalStateException if the step the last filter was applied to is no longer kept.
+     */
+    public ResultSnapshot refine(String filter, List<SortKey> keys) {
+        FilterNode root = Filter.parse(filter);
+        String label = label(filter, keys);
+        while (true) {
+            FilterHistory before = history.get();
+            FilterNode last = before.filter(before.position());
+            if (last != null && before.position() == 0) {
+                throw new IllegalStateException("The step the last filter was applied to is no longer kept: "
+                        + before.label(0));
+            }
+            if (last == null) {
+                ResultSnapshot after = next(before.current(), root, keys);
+                if (history.compareAndSet(before, before.push(label, root, after))) {
+                    return used(after);
+                }
+                continue;
+            }
+            ResultSnapshot previous = before.snapshot(before.position() - 1);
+            ResultSnapshot current = before.current();
+            Refinement edit = Refinement.of(last, root, catalog.columns());
+            ResultSnapshot after;
+            if (edit == null) {
+                after = next(previous, root, keys).withVersion(current.getVersion() + 1);
+            } else {
+                after = refined(edit, baseOf(previous), current, root, keys);
+            }
+            if (history.compareAndSet(before, before.replace(label, root, after))) {
+                return used(after);
+            }
+        }
+    }
+
+    /**
+     * Applies an edit to the results of the filter it edits, and sorts them.
+     *
+     * @param edit    the edit.
+     * @param base    the ordinals the edited filter was applied to.
+     * @param current the results of the filter before the edit.
+     * @param root    the edited filter.
+     * @param keys    the sort keys.
+     * @return the next snapshot, one version after current.
+     */
+    private ResultSnapshot refined(Refinement edit, BitSet base, ResultSnapshot current, FilterNode root,
+            List<SortKey> keys) {
+        long version = current.getVersion() + 1;
+        BitSet matches = edit.apply(current.ordinals(), base, root.compile(listCondition()), catalog.reader(),
+                catalog.columns());
+        if (!keys.equals(current.keys()) || !edit.isTighter()) {
+            return new ResultSnapshot(version, select(matches, null, keys).games(), matches, keys);
+        }
+        if (matches == current.ordinals()) {
+            return current.withVersion(version);
+        }
+        // the games are already in order, keep the ones still matching
+        List<BoardGame> games = new ArrayList<>(matches.cardinality());
+        for (BoardGame game : current.getGames()) {
+            if (edit.keeps(game)) {
+                games.add(game);
+            }
+        }
+        return new ResultSnapshot(version, Collections.unmodifiableList(games), matches, keys);
+    }
+
+    /**
+     * Describes a filter step for the history.
+     *
+     * @param filter the filter, as given.
+     * @param keys   the sort keys.
+     * @return the label.
+     */
+    private static String label(String filter, List<SortKey> keys) {
+        return filter.trim() + " sort:" + keys.stream().map(SortKey::toString).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Applies a filter to a snapshot. The games and ordinals of the snapshot are reused when
+     * the filter keeps all of them, instead of holding a copy.
+     *
+     * @param before the current results to filter.
+     * @param root   the parsed filter.
+     * @param keys   the sort keys.
+     * @return the next snapshot, one version after before.
+     */
+    private ResultSnapshot next(ResultSnapshot before, FilterNode root, List<SortKey> keys) {
         // Determine the base set for filtering: use current subset if available, otherwise all games
-        Stream<BoardGame> baseStream = current.isEmpty() ? allGames.stream() : current.stream();
+        BitSet base = baseOf(before);
+        List<FilterNode> residual = new ArrayList<>();
+        BitSet candidates = narrow(root, base, residual);
+        FilterNode rest = FilterNode.and(residual);
+        long version = before.getVersion() + 1;
+        boolean sameOrder = keys.equals(before.keys());
+        if (candidates == base && rest == FilterNode.TRUE && !before.isEmpty() && sameOrder) {
+            return before.withVersion(version);
+        }
 
-        // If no filter is provided, simply sort the base set and update current
-        if (filter == null || filter.trim().isEmpty()) {
-            Stream<BoardGame> sortedStream = Sorting.sort(baseStream, sortOn, ascending);
-            current = sortedStream.collect(Collectors.toCollection(LinkedHashSet::new));
-            return current.stream();
+        // Check the remaining conditions (skipped for an empty filter), then sort
+        ScanExecutor.Result result = select(candidates,
+                rest == FilterNode.TRUE ? null : rest.compile(listCondition()), keys);
+        if (!before.isEmpty() && result.ordinals().equals(before.ordinals())) {
+            return new ResultSnapshot(version, sameOrder ? before.getGames() : result.games(),
+                    before.ordinals(), keys);
         }
+        return new ResultSnapshot(version, result.games(), result.ordinals(), keys);
+    }
 
-        // Apply the filter conditions to the base set
-        Stream<BoardGame> filteredStream = Filter.applyFilter(baseStream, filter);
-        // Sort the filtered results and update the current set
-        Stream<BoardGame> sortedStream = Sorting.sort(filteredStream, sortOn, ascending);
-        current = sortedStream.collect(Collectors.toCollection(LinkedHashSet::new));
-        return current.stream();
+    /**
+     * Narrows a base set with the parts of a filter that do not need the games: the list
+     * scope, and conditions answered from an index or a column scan. A column scan reads
+     * the column for every game of the catalog, so once the base is small (see
+     * {@link #SCAN_RATIO}) its conditions are left to be checked game by game.
+     *
+     * @param root     the parsed filter.
+     * @param base     the ordinals to start from, left unchanged.
+     * @param residual receives the conditions that have to be checked game by game.
+     * @return the ordinals that can still match.
+     */
+    private BitSet narrow(FilterNode root, BitSet base, List<FilterNode> residual) {
+        if (root.scopesToList()) {
+            base = intersectWithList(base);
+            root = root.withoutListScope();
+        }
+        for (FilterNode condition : FilterNode.conjuncts(root)) {
+            if (condition.scansColumns() && (long) base.cardinality() * SCAN_RATIO < catalog.size()) {
+                residual.add(condition);
+                continue;
+            }
+            BitSet matches = condition.bitmap(catalog);
+            if (matches == null) {
+                residual.add(condition);
+            } else {
+                matches.and(base);
+                base = matches;
+            }
+        }
+        return base;
+    }
+
+    /**
+     * Checks the candidates against a predicate and sorts the matches, with a packed sort
+     * when the keys fit and a comparator otherwise.
+     *
+     * @param candidates ordinals to check, left unchanged.
+     * @param predicate  the conditions to check, null if every candidate matches.
+     * @param keys       the sort keys.
+     * @return the sorted matches.
+     */
+    private ScanExecutor.Result select(BitSet candidates, Predicate<BoardGame> predicate, List<SortKey> keys) {
+        PackedSort packed = PackedSort.of(catalog.columns(), keys);
+        if (packed == null) {
+            return ScanExecutor.run(catalog, candidates, predicate, Sorting.comparator(keys), parallelThreshold);
+        }
+        BitSet matches = ScanExecutor.run(catalog, candidates, predicate, null, parallelThreshold).ordinals();
+        boolean parallel = matches.cardinality() >= parallelThreshold;
+        return new ScanExecutor.Result(packed.sort(matches, catalog.reader(), parallel), matches);
+    }
+
+    /**
+     * Runs many filters at once, each against the games the next call to filter would start
+     * from (the current results, or all games if there are none). The current results are
+     * not changed.
+     *
+     * Conditions shared between filters, such as rating>=8 in several of them, are answered
+     * from the catalog once and reused. The conditions that have to be checked game by game
+     * are then checked for every filter in a single pass, so the catalog is read once
+     * instead of once per filter.
+     *
+     * @param filters   the filters, in the syntax of {@link #filter(String)}.
+     * @param sortOn    the column to sort each result on.
+     * @param ascending whether to sort in ascending order (true) or descending order (false).
+     * @return the sorted matches of each filter, in the same order as the filters.
+     * @throws IllegalArgumentException if any filter is malformed.
+     */
+    public List<List<BoardGame>> filterBatch(List<String> filters, GameData sortOn, boolean ascending) {
+        BitSet base = baseOf(snapshot());
+        BitSet listBase = null;
+        Map<String, BitSet> shared = new HashMap<>();
+        BitSet[] candidates = new BitSet[filters.size()];
+        List<Predicate<BoardGame>> predicates = new ArrayList<>(filters.size());
+        for (int q = 0; q < candidates.length; q++) {
+            FilterNode root = Filter.parse(filters.get(q));
+            BitSet matches;
+            if (root.scopesToList()) {
+                if (listBase == null) {
+                    listBase = intersectWithList(base);
+                }
+                matches = (BitSet) listBase.clone();
+                root = root.withoutListScope();
+            } else {
+                matches = (BitSet) base.clone();
+            }
+            List<FilterNode> residual = new ArrayList<>();
+            for (FilterNode condition : FilterNode.conjuncts(root)) {
+                String key = condition.toString();
+                if (!shared.containsKey(key)) {
+                    shared.put(key, condition.bitmap(catalog));
+                }
+                BitSet answered = shared.get(key);
+                if (answered == null) {
+                    residual.add(condition);
+                } else {
+                    matches.and(answered);
+                }
+            }
+            root = FilterNode.and(residual);
+            candidates[q] = matches;
+            predicates.add(root == FilterNode.TRUE ? null : root.compile(listCondition()));
+        }
+
+        ScanExecutor.retainAll(catalog, candidates, predicates);
+        List<SortKey> keys = List.of(SortKey.of(sortOn, ascending));
+        List<List<BoardGame>> results = new ArrayList<>(candidates.length);
+        for (BitSet matches : candidates) {
+            results.add(select(matches, null, keys).games());
+        }
+        return used(results);
+    }
+
+    /**
+     * Gets the current filter results. The snapshot is never changed, a filter or reset
+     * replaces it, so it can be read at any pace and handed to other threads.
+     *
+     * @return the current results, empty if no filter has been applied.
+     */
+    public ResultSnapshot snapshot() {
+        return history.get().current();
+    }
+
+    /**
+     * Gets the current filter results, in the order of the last filter, without running a
+     * filter or adding a step to the {@link #history()}. Before any filter, or when the last
+     * filter left no games, these are all the games sorted by name, which is what the next
+     * filter starts from.
+     *
+     * @return a stream of the current results.
+     */
+    public Stream<BoardGame> current() {
+        ResultSnapshot snapshot = snapshot();
+        if (!snapshot.isEmpty()) {
+            return used(snapshot.stream());
+        }
+        return used(next(snapshot, FilterNode.TRUE, List.of(SortKey.of(GameData.NAME, true))).stream());
+    }
+
+    /**
+     * Gets the filter steps taken so far, for undo, redo and {@link #jumpTo(int)}.
+     *
+     * @return the history, which is not changed by later filters.
+     */
+    public FilterHistory history() {
+        return history.get();
+    }
+
+    /**
+     * Goes back to the results before the last filter or reset, without running any filter.
+     *
+     * @return true if there was a step to undo.
+     */
+    public boolean undo() {
+        return used(move(-1));
+    }
+
+    /**
+     * Goes forward to the results of the last undone step, without running any filter.
+     *
+     * @return true if there was a step to redo.
+     */
+    public boolean redo() {
+        return used(move(1));
+    }
+
+    /**
+     * Goes to the results of a step of the history, without running any filter. Later
+     * filters build on those results, and drop the steps after it.
+     *
+     * @param step the step, from 0 to {@link FilterHistory#size()} - 1.
+     * @return the step's results, now the current results.
+     * @throws IllegalArgumentException if there is no such step.
+     */
+    public ResultSnapshot jumpTo(int step) {
+        while (true) {
+            FilterHistory before = history.get();
+            FilterHistory after = before.moveTo(before.check(step));
+            if (history.compareAndSet(before, after)) {
+                return used(after.current());
+            }
+        }
+    }
+
+    /**
+     * Moves a number of steps through the history.
+     *
+     * @param delta the steps to move, negative to go back.
+     * @return true if there was such a step.
+     */
+    private boolean move(int delta) {
+        while (true) {
+            FilterHistory before = history.get();
+            int step = before.position() + delta;
+            if (step < 0 || step >= before.size()) {
+                return false;
+            }
+            if (history.compareAndSet(before, before.moveTo(step))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the games a filter, facet or ranking of a snapshot starts from.
+     *
+     * @param snapshot the current results.
+     * @return their ordinals, or all games if there are none.
+     */
+    private BitSet baseOf(ResultSnapshot snapshot) {
+        return snapshot.isEmpty() ? allGames : snapshot.ordinals();
+    }
+
+    /**
+     * Estimates the heap used by the planner: its catalog's games and indexes, and its own
+     * games, results and history (the {@value MemoryUsage#SESSIONS} part). See
+     * {@link MemoryBudget} for the usage of every planner and the budget they share.
+     *
+     * @return the usage, by part.
+     */
+    public MemoryUsage memoryUsage() {
+        Map<String, Long> parts = new LinkedHashMap<>(catalog.memoryUsage().getParts());
+        parts.put(MemoryUsage.SESSIONS, sessionBytes());
+        return new MemoryUsage(parts);
+    }
+
+    /**
+     * Estimates the bytes used by the planner's own games, results and history.
+     *
+     * @return the bytes used.
+     */
+    long sessionBytes() {
+        return allGames.size() / 8 + history.get().bytesUsed();
+    }
+
+    /**
+     * Drops the filter history but for the current results and the step they were filtered
+     * from, to give memory back.
+     *
+     * @return the estimated bytes given back.
+     */
+    long trimHistory() {
+        FilterHistory before = history.getAndUpdate(FilterHistory::trim);
+        report();
+        return Math.max(0, before.bytesUsed() - before.trim().bytesUsed());
+    }
+
+    /**
+     * Reports the bytes used by the planner's own games, results and history to the
+     * {@link MemoryBudget}. Only the steps {@link FilterHistory#trim()} drops can be given
+     * back.
+     */
+    private void report() {
+        FilterHistory current = history.get();
+        long kept = current.trim().bytesUsed();
+        account.report(allGames.size() / 8 + kept, Math.max(0, current.bytesUsed() - kept));
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} of the last query.
+     *
+     * @return the time.
+     */
+    long lastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Gets the catalog the planner's ordinals refer to.
+     *
+     * @return the catalog.
+     */
+    GameCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Notes that the planner was used, then keeps memory within the {@link MemoryBudget}.
+     *
+     * @param result the result of the query.
+     * @param <T>    the result type.
+     * @return the result.
+     */
+    private <T> T used(T result) {
+        lastUsed = System.nanoTime();
+        report();
+        MemoryBudget.check();
+        return result;
+    }
+
+    /**
+     * Sets the number of games left to check at which a filter runs in parallel. Defaults to
+     * the {@value ScanExecutor#THRESHOLD_PROPERTY} system property, or
+     * {@value ScanExecutor#DEFAULT_THRESHOLD}.
+     *
+     * @param threshold the threshold, {@link Integer#MAX_VALUE} to always run sequentially.
+     * @throws IllegalArgumentException if the threshold is negative.
+     */
+    public void setParallelThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold must not be negative: " + threshold);
+        }
+        this.parallelThreshold = threshold;
     }
 
     /**
      * Resets the current filtered set, reverting back to the full collection for the next filter operation.
+     * The reset is a step of the history, so it can be undone.
      */
     @Override
     public void reset() {
-        current = new LinkedHashSet<>();
+        history.updateAndGet(before -> before.push(RESET_LABEL, null,
+                ResultSnapshot.empty(before.current().getVersion() + 1)));
+        used(null);
+    }
+
+    /**
+     * Computes histograms over the current filter results (all games if no filter has been
+     * applied), in a single pass over the matching games.
+     *
+     * For example, {@code facets(List.of(Facet.of(GameRange.PLAYERS, 1), Facet.of(GameData.YEAR, 10)))}
+     * counts the current games per supported player count and per decade.
+     *
+     * @param facets the histograms to compute.
+     * @return a histogram per facet, in the same order.
+     */
+    public List<Histogram> facets(List<Facet> facets) {
+        BitSet matches = baseOf(snapshot());
+        return used(Facet.count(catalog.columns(), matches, facets));
+    }
+
+    /**
+     * Ranks the current filter results (all games if no filter has been applied) by a
+     * weighted score and returns the best, such as
+     * {@code top(ScoringSpec.of(1).withPlayers(4, 2).withTime(60, 1), 10)} for the ten best
+     * games for four players with an hour to spare. The current results are not changed.
+     *
+     * @param spec how games are scored, see {@link ScoringSpec}.
+     * @param k    the number of games to return.
+     * @return up to k games, best score first, ties by name.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public List<BoardGame> top(ScoringSpec spec, int k) {
+        BitSet matches = baseOf(snapshot());
+        int[] best = Scoring.top(catalog.columns(), matches, spec, k);
+        List<BoardGame> result = new ArrayList<>(best.length);
+        for (int ordinal : best) {
+            result.add(catalog.get(ordinal));
+        }
+        return used(Collections.unmodifiableList(result));
+    }
+
+    /**
+     * Finds the games most like a game, by rating, difficulty, player count, play time and
+     * year (see {@link SimilarityIndex}). The game itself is left out. The current results
+     * are not used or changed.
+     *
+     * @param game the game to find games like, which need not be in the planner.
+     * @param k    the number of games to return.
+     * @return up to k games, most similar first.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public List<BoardGame> similar(BoardGame game, int k) {
+        return similar(game, k, "");
+    }
+
+    /**
+     * Finds the games most like a game among those matching a filter, such as
+     * {@code similar(game, 5, "players==2")} for two player games like it. The current
+     * results are not used or changed.
+     *
+     * @param game   the game to find games like, which need not be in the planner.
+     * @param k      the number of games to return.
+     * @param filter the games that may be returned, in the syntax of {@link #filter(String)}.
+     * @return up to k matching games, most similar first.
+     * @throws IllegalArgumentException if k is negative or the filter is malformed.
+     */
+    public List<BoardGame> similar(BoardGame game, int k, String filter) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative: " + k);
+        }
+        List<FilterNode> residual = new ArrayList<>();
+        BitSet candidates = (BitSet) narrow(Filter.parse(filter), allGames, residual).clone();
+        FilterNode root = FilterNode.and(residual);
+        Predicate<BoardGame> predicate = root == FilterNode.TRUE ? null : root.compile(listCondition());
+        int self = catalog.ordinalOf(game);
+        if (self >= 0) {
+            candidates.clear(self);
+        }
+        SimilarityIndex index = catalog.similarityIndex();
+        IntFunction<BoardGame> games = catalog.reader();
+        int[] nearest = index.nearest(index.features(game), k,
+                i -> candidates.get(i) && (predicate == null || predicate.test(games.apply(i))));
+        List<BoardGame> result = new ArrayList<>(nearest.length);
+        for (int ordinal : nearest) {
+            result.add(games.apply(ordinal));
+        }
+        return used(Collections.unmodifiableList(result));
+    }
+
+    /**
+     * Completes the start of a name to the highest rated games whose names start with it,
+     * ignoring case, for type-ahead such as {@code complete("tick", 5)}.
+     *
+     * @param prefix the start of a name.
+     * @param n      the most games to return.
+     * @return up to n games, highest rating first, ties by name.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public List<BoardGame> complete(String prefix, int n) {
+        return complete(prefix, n, SortKey.of(GameData.RATING, false));
+    }
+
+    /**
+     * Completes the start of a name to the best games whose names start with it, ignoring
+     * case, such as {@code complete("cat", 10, SortKey.of(GameData.RANK, true))}. Only the
+     * best games are looked at, not every game with the prefix (see {@link PrefixIndex}).
+     * The current results are not used or changed.
+     *
+     * @param prefix the start of a name.
+     * @param n      the most games to return.
+     * @param order  how to rank the games, ties by name.
+     * @return up to n games, best first.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public List<BoardGame> complete(String prefix, int n, SortKey order) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative: " + n);
+        }
+        PrefixIndex index = catalog.prefixIndex();
+        // a planner over part of a catalog only completes to its own games
+        int[] best = index.complete(prefix, n, order,
+                allGames.cardinality() == index.size() ? null : allGames::get);
+        List<BoardGame> result = new ArrayList<>(best.length);
+        for (int ordinal : best) {
+            result.add(catalog.get(ordinal));
+        }
+        return used(Collections.unmodifiableList(result));
+    }
+
+    /**
+     * Builds the check for whether a game is in the game list, used for a list condition
+     * nested under OR or NOT. A list that is not a GameList is read once, here, rather than
+     * for every game checked.
+     *
+     * @return the check.
+     */
+    private Predicate<BoardGame> listCondition() {
+        if (gameList == null) {
+            return game -> false;
+        }
+        if (gameList instanceof GameList) {
+            return ((GameList) gameList)::contains;
+        }
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(gameList.getGameNames());
+        return game -> names.contains(game.getName());
+    }
+
+    /**
+     * Intersects the base ordinals with the game list. When the list shares the planner's
+     * catalog this is a single BitSet AND, otherwise games are matched by name.
+     *
+     * @param base the ordinals to intersect with, left unchanged.
+     * @return the ordinals in both base and the game list.
+     */
+    private BitSet intersectWithList(BitSet base) {
+        if (gameList == null) {
+            return new BitSet();
+        }
+        if (gameList instanceof GameList && ((GameList) gameList).getCatalog() == catalog) {
+            return ((GameList) gameList).intersect(base);
+        }
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(gameList.getGameNames());
+        BitSet result = new BitSet();
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            if (names.contains(catalog.get(i).getName())) {
+                result.set(i);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,283 @@
+package student;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Completes name prefixes to the best games starting with them, for type-ahead.
+ *
+ * Names are kept in lower case in name order (see {@link ColumnStore#nameOrder()}), so the
+ * games starting with a prefix are one run of positions, found by binary search. For each
+ * order completions can be ranked by, a segment tree over the positions holds the best
+ * game of every power of two sized block. The best N games of a run come from a small heap
+ * of sub-runs: take the best game of the best sub-run, then split that sub-run around it.
+ * A completion reads O(N log n) entries and never visits the other games of the run.
+ */
+final class PrefixIndex {
+    /** number of catalog ordinals covered. */
+    private final int size;
+    /** lower case names in name order. */
+    private final String[] names;
+    /** ordinal at each position. */
+    private final int[] ordinals;
+    /** the catalog's columns, for ranks. */
+    private final ColumnStore columns;
+    /** segment trees by column ordinal * 2 (+ 1 if ascending), built on first use. */
+    private final int[][] trees = new int[GameData.values().length * 2][];
+    /** keys of each tree's positions, in the same slots as trees. */
+    private final long[][] keys = new long[GameData.values().length * 2][];
+    /** number of leaves in each tree, a power of two. */
+    private final int leaves;
+    /** estimated bytes of the names. */
+    private final long nameBytes;
+
+    /**
+     * Builds the index over every game covered by the columns.
+     *
+     * @param columns the catalog's columns.
+     * @param names   lower case name of each position in {@link ColumnStore#nameOrder()}.
+     */
+    PrefixIndex(ColumnStore columns, String[] names) {
+        this.size = columns.size();
+        this.columns = columns;
+        this.names = names;
+        this.ordinals = columns.nameOrder();
+        this.leaves = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        long bytes = 4L * names.length;
+        for (String name : names) {
+            bytes += 40 + name.length(); // string object and its bytes
+        }
+        this.nameBytes = bytes;
+    }
+
+    /**
+     * Number of catalog ordinals covered.
+     *
+     * @return the size of the catalog when the index was built.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes used by the names and the trees built so far, not counting the array headers or
+     * the name order, which belongs to the columns.
+     *
+     * @return the bytes used.
+     */
+    synchronized long bytesUsed() {
+        long bytes = nameBytes;
+        for (int slot = 0; slot < trees.length; slot++) {
+            if (trees[slot] != null) {
+                bytes += 4L * trees[slot].length + 8L * keys[slot].length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds the best games whose lower case name starts with a prefix.
+     *
+     * @param prefix the prefix, compared in lower case.
+     * @param n      the most games to return.
+     * @param order  how to rank the games, ties by name.
+     * @param accept which ordinals may be returned, null for all.
+     * @return ordinals of the best games, best first.
+     */
+    int[] complete(String prefix, int n, SortKey order, IntPredicate accept) {
+        String lower = prefix.toLowerCase();
+        int from = lowerBound(lower);
+        int to = from;
+        for (int step = Integer.highestOneBit(Math.max(1, size)); step > 0; step >>= 1) {
+            if (to + step <= size && names[to + step - 1].startsWith(lower)) {
+                to += step;
+            }
+        }
+        int slot = order.getColumn().ordinal() * 2 + (order.isAscending() ? 1 : 0);
+        int[] tree = tree(slot, order);
+        long[] key = keys[slot];
+
+        int[] result = new int[Math.min(n, to - from)];
+        int found = 0;
+        // heap of sub-runs [lo, hi) keyed by the key of their best position
+        long[] heapKeys = new long[8];
+        int[] heapLo = new int[8];
+        int[] heapHi = new int[8];
+        int count = 0;
+        if (from < to) {
+            heapKeys[0] = key[best(tree, key, from, to)];
+            heapLo[0] = from;
+            heapHi[0] = to;
+            count = 1;
+        }
+        while (count > 0 && found < result.length) {
+            long top = heapKeys[0];
+            int lo = heapLo[0];
+            int hi = heapHi[0];
+            count--;
+            heapKeys[0] = heapKeys[count];
+            heapLo[0] = heapLo[count];
+            heapHi[0] = heapHi[count];
+            siftDown(heapKeys, heapLo, heapHi, count);
+            int position = (int) top; // low half of the key
+            if (accept == null || accept.test(ordinals[position])) {
+                result[found++] = ordinals[position];
+            }
+            for (int side = 0; side < 2; side++) {
+                int a = side == 0 ? lo : position + 1;
+                int b = side == 0 ? position : hi;
+                if (a < b) {
+                    if (count == heapKeys.length) {
+                        heapKeys = Arrays.copyOf(heapKeys, count * 2);
+                        heapLo = Arrays.copyOf(heapLo, count * 2);
+                        heapHi = Arrays.copyOf(heapHi, count * 2);
+                    }
+                    heapKeys[count] = key[best(tree, key, a, b)];
+                    heapLo[count] = a;
+                    heapHi[count] = b;
+                    siftUp(heapKeys, heapLo, heapHi, count++);
+                }
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Finds the first position whose name is not less than a prefix.
+     *
+     * @param prefix the lower case prefix.
+     * @return the position, size if there is none.
+     */
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (names[mid].compareTo(prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Gets the segment tree for an order, building it on first use. A position's key is
+     * its rank in the order (flipped when descending) in the high half and the position,
+     * which is the name order, in the low half, so smaller keys rank first.
+     *
+     * @param slot  the slot of the order.
+     * @param order the order.
+     * @return the tree, each node the position with the smallest key under it.
+     */
+    private synchronized int[] tree(int slot, SortKey order) {
+        if (trees[slot] != null) {
+            return trees[slot];
+        }
+        ColumnStore.Ranks ranks = columns.ranks(order.getColumn());
+        long[] key = new long[size];
+        for (int p = 0; p < size; p++) {
+            int rank = ranks.values()[ordinals[p]];
+            if (!order.isAscending()) {
+                rank = ranks.distinct() - 1 - rank;
+            }
+            key[p] = ((long) rank << 32) | p;
+        }
+        int[] tree = new int[2 * leaves];
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = Math.min(i, size - 1); // padding repeats the last position
+        }
+        for (int i = leaves - 1; i > 0; i--) {
+            int left = tree[2 * i];
+            int right = tree[2 * i + 1];
+            tree[i] = size == 0 || key[left] <= key[right] ? left : right;
+        }
+        keys[slot] = key;
+        trees[slot] = tree;
+        return tree;
+    }
+
+    /**
+     * Finds the position with the smallest key in a run.
+     *
+     * @param tree the segment tree.
+     * @param key  the keys.
+     * @param from first position, inclusive.
+     * @param to   last position, exclusive.
+     * @return the position.
+     */
+    private int best(int[] tree, long[] key, int from, int to) {
+        int best = from;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = key[tree[lo]] < key[best] ? tree[lo] : best;
+                lo++;
+            }
+            if ((hi & 1) == 1) {
+                hi--;
+                best = key[tree[hi]] < key[best] ? tree[hi] : best;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves a heap entry up to its place.
+     *
+     * @param keys heap keys.
+     * @param lo   heap run starts.
+     * @param hi   heap run ends.
+     * @param at   index of the entry.
+     */
+    private static void siftUp(long[] keys, int[] lo, int[] hi, int at) {
+        while (at > 0 && keys[at] < keys[(at - 1) >>> 1]) {
+            swap(keys, lo, hi, at, (at - 1) >>> 1);
+            at = (at - 1) >>> 1;
+        }
+    }
+
+    /**
+     * Moves the heap root down to its place.
+     *
+     * @param keys  heap keys.
+     * @param lo    heap run starts.
+     * @param hi    heap run ends.
+     * @param count number of entries in the heap.
+     */
+    private static void siftDown(long[] keys, int[] lo, int[] hi, int count) {
+        int at = 0;
+        while (2 * at + 1 < count) {
+            int child = 2 * at + 1;
+            if (child + 1 < count && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[at] <= keys[child]) {
+                return;
+            }
+            swap(keys, lo, hi, at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * Swaps two heap entries.
+     *
+     * @param keys heap keys.
+     * @param lo   heap run starts.
+     * @param hi   heap run ends.
+     * @param a    one entry.
+     * @param b    the other.
+     */
+    private static void swap(long[] keys, int[] lo, int[] hi, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int start = lo[a];
+        lo[a] = lo[b];
+        lo[b] = start;
+        int end = hi[a];
+        hi[a] = hi[b];
+        hi[b] = end;
+    }
+}
@@ -0,0 +1,197 @@
+package student;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * An edit of a filter that changes one condition in a way whose matches can be worked out
+ * from the matches of the filter before the edit, such as {@code rating>7} edited into
+ * {@code rating>7.5} by a slider.
+ *
+ * A tighter bound on the same column in the same direction (&gt; and &gt;=, or &lt; and
+ * &lt;=), or a longer {@code name~=} value containing the old one, can only drop games, so
+ * only the previous matches are checked. A looser bound can only add games, and the games it
+ * adds are a slice of the column's {@link ColumnStore#valueOrder(GameData) value order}
+ * between the old and new bound, so only that slice is checked.
+ */
+final class Refinement {
+    /** the new condition, null if the filter is unchanged or the edit adds games. */
+    private final Predicate<BoardGame> condition;
+    /** the column of the slice of added games, null if the edit only drops games. */
+    private final GameData column;
+    /** first position of the slice, inclusive. */
+    private final int from;
+    /** last position of the slice, exclusive. */
+    private final int to;
+
+    /**
+     * Constructor for a refinement.
+     *
+     * @param condition the new condition, for an edit that drops games.
+     * @param column    the column of the slice, for an edit that adds games.
+     * @param from      first position of the slice, inclusive.
+     * @param to        last position of the slice, exclusive.
+     */
+    private Refinement(Predicate<BoardGame> condition, GameData column, int from, int to) {
+        this.condition = condition;
+        this.column = column;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Works out how a filter was edited.
+     *
+     * @param before  the filter before the edit.
+     * @param after   the filter after the edit.
+     * @param columns the catalog's columns.
+     * @return the refinement, or null if the edit is not one condition tightened or loosened.
+     */
+    static Refinement of(FilterNode before, FilterNode after, ColumnStore columns) {
+        List<FilterNode> old = FilterNode.conjuncts(before);
+        List<FilterNode> edited = FilterNode.conjuncts(after);
+        if (old.size() != edited.size()) {
+            return null;
+        }
+        int changed = -1;
+        for (int i = 0; i < old.size(); i++) {
+            if (!old.get(i).toString().equals(edited.get(i).toString())) {
+                if (changed >= 0) {
+                    return null;
+                }
+                changed = i;
+            }
+        }
+        if (changed < 0) {
+            return new Refinement(null, null, 0, 0);
+        }
+        if (!(old.get(changed) instanceof FilterNode.Compare)
+                || !(edited.get(changed) instanceof FilterNode.Compare)) {
+            return null;
+        }
+        FilterNode.Compare a = (FilterNode.Compare) old.get(changed);
+        FilterNode.Compare b = (FilterNode.Compare) edited.get(changed);
+        if (a.getColumn() != b.getColumn()) {
+            return null;
+        }
+        if (a.getColumn() == GameData.NAME && a.getOperation() == Operations.CONTAINS
+                && b.getOperation() == Operations.CONTAINS) {
+            boolean longer = b.getValue().toLowerCase().contains(a.getValue().toLowerCase());
+            return longer ? new Refinement(b.compile(null), null, 0, 0) : null;
+        }
+        boolean numeric = ColumnStore.isDouble(a.getColumn()) || ColumnStore.isInt(a.getColumn());
+        boolean lower = isLowerBound(a.getOperation()) && isLowerBound(b.getOperation());
+        boolean upper = isUpperBound(a.getOperation()) && isUpperBound(b.getOperation());
+        if (!numeric || !lower && !upper) {
+            return null;
+        }
+        int oldEdge;
+        int newEdge;
+        try {
+            oldEdge = edge(columns, a);
+            newEdge = edge(columns, b);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // a lower bound matches the positions from its edge on, an upper bound those before it
+        if (lower ? newEdge >= oldEdge : newEdge <= oldEdge) {
+            return new Refinement(b.compile(null), null, 0, 0);
+        }
+        return new Refinement(null, a.getColumn(), Math.min(oldEdge, newEdge), Math.max(oldEdge, newEdge));
+    }
+
+    /**
+     * Checks if a comparison is &gt; or &gt;=.
+     *
+     * @param op the comparison.
+     * @return true for a lower bound.
+     */
+    private static boolean isLowerBound(Operations op) {
+        return op == Operations.GREATER_THAN || op == Operations.GREATER_THAN_EQUALS;
+    }
+
+    /**
+     * Checks if a comparison is &lt; or &lt;=.
+     *
+     * @param op the comparison.
+     * @return true for an upper bound.
+     */
+    private static boolean isUpperBound(Operations op) {
+        return op == Operations.LESS_THAN || op == Operations.LESS_THAN_EQUALS;
+    }
+
+    /**
+     * Finds where a bound splits the column's value order: the first position matching a
+     * lower bound, or the first position after those matching an upper bound.
+     *
+     * @param columns   the catalog's columns.
+     * @param condition the bound.
+     * @return the position.
+     * @throws NumberFormatException if the value does not parse for the column.
+     */
+    private static int edge(ColumnStore columns, FilterNode.Compare condition) {
+        GameData col = condition.getColumn();
+        double value = ColumnStore.isDouble(col) ? Double.parseDouble(condition.getValue())
+                : Integer.parseInt(condition.getValue());
+        Operations op = condition.getOperation();
+        // >= v and < v split at the first value >= v, > v and <= v at the first value > v
+        boolean inclusive = op == Operations.GREATER_THAN_EQUALS || op == Operations.LESS_THAN;
+        return columns.search(col, value, inclusive);
+    }
+
+    /**
+     * Checks if the edit can only drop games, so its matches are a subset of the previous ones.
+     *
+     * @return true if the edit tightens the filter or leaves it as it was.
+     */
+    boolean isTighter() {
+        return column == null;
+    }
+
+    /**
+     * Checks if a game matching the filter before a tightening edit still matches after it.
+     *
+     * @param game the game.
+     * @return true if the game still matches.
+     */
+    boolean keeps(BoardGame game) {
+        return condition == null || condition.test(game);
+    }
+
+    /**
+     * Works out the matches of the edited filter.
+     *
+     * @param previous ordinals matching the filter before the edit, left unchanged.
+     * @param base     the ordinals both filters were applied to, left unchanged.
+     * @param filter   the edited filter, for the games an edit adds.
+     * @param games    reads games by ordinal.
+     * @param columns  the catalog's columns.
+     * @return ordinals matching the edited filter.
+     */
+    BitSet apply(BitSet previous, BitSet base, Predicate<BoardGame> filter, IntFunction<BoardGame> games,
+            ColumnStore columns) {
+        if (column == null) {
+            if (condition == null) {
+                return previous;
+            }
+            BitSet result = new BitSet();
+            for (int i = previous.nextSetBit(0); i >= 0; i = previous.nextSetBit(i + 1)) {
+                if (condition.test(games.apply(i))) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+        BitSet result = (BitSet) previous.clone();
+        int[] order = columns.valueOrder(column);
+        for (int p = from; p < to; p++) {
+            int ordinal = order[p];
+            if (base.get(ordinal) && filter.test(games.apply(ordinal))) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+package student;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes filter results to a file or stream as CSV, TSV or JSON Lines.
+ *
+ * Games are encoded one at a time as the stream is read, through a single reused row
+ * buffer, so memory use does not grow with the size of the result. Output can be gzip
+ * compressed. For example, to export the current filter of a planner:
+ *
+ * <pre>
+ * new ResultExporter(OutputFormat.CSV, List.of(GameData.NAME, GameData.RATING), true)
+ *         .export(planner.filter(""), Path.of("games.csv.gz"));
+ * </pre>
+ */
+public final class ResultExporter {
+    /** Size of the character and compression buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** File extension that turns on gzip. */
+    private static final String GZIP_EXTENSION = ".gz";
+
+    /** how games are written. */
+    private final OutputFormat format;
+    /** the columns written, in order. */
+    private final List<GameData> columns;
+    /** if true, the output is gzip compressed. */
+    private final boolean gzip;
+
+    /**
+     * Constructor for an exporter of every column.
+     *
+     * @param format how games are written, any but TEXT.
+     * @param gzip   if true, the output is gzip compressed.
+     */
+    public ResultExporter(OutputFormat format, boolean gzip) {
+        this(format, OutputFormat.ALL_COLUMNS, gzip);
+    }
+
+    /**
+     * Constructor for an exporter of some of the columns.
+     *
+     * @param format  how games are written, any but TEXT.
+     * @param columns the columns to write, in order.
+     * @param gzip    if true, the output is gzip compressed.
+     * @throws IllegalArgumentException if the format is TEXT or there are no columns.
+     */
+    public ResultExporter(OutputFormat format, List<GameData> columns, boolean gzip) {
+        if (format == OutputFormat.TEXT) {
+            throw new IllegalArgumentException("TEXT can not be exported, use CSV, TSV or JSONL");
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("No columns to export");
+        }
+        this.format = format;
+        this.columns = List.copyOf(columns);
+        this.gzip = gzip;
+    }
+
+    /**
+     * Creates an exporter for a file name, taking the format from the extension (.csv, .tsv
+     * or .jsonl), optionally followed by .gz for gzip.
+     *
+     * @param filename the file name.
+     * @param columns  the columns to write, in order.
+     * @return the exporter.
+     * @throws IllegalArgumentException if the extension is not known.
+     */
+    public static ResultExporter forFile(String filename, List<GameData> columns) {
+        String name = filename.toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(GZIP_EXTENSION);
+        if (gzip) {
+            name = name.substring(0, name.length() - GZIP_EXTENSION.length());
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("No export format for " + filename);
+        }
+        OutputFormat format;
+        try {
+            format = OutputFormat.fromString(name.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("No export format for " + filename);
+        }
+        return new ResultExporter(format, columns, gzip);
+    }
+
+    /**
+     * Writes the games to a file, replacing it. The games are written to a temporary file
+     * next to it, which replaces the file once every game is written, so a failed export
+     * leaves the file as it was.
+     *
+     * @param games the games, written in order.
+     * @param file  the file.
+     * @return the number of games written.
+     * @throws IOException if the file can not be written.
+     */
+    public long export(Stream<BoardGame> games, Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            long count;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                count = export(games, out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return count;
+        } finally {
+            Files.deleteIfExists(temp); // gone once moved
+        }
+    }
+
+    /**
+     * Writes the games to a stream. The stream is flushed but not closed (a gzip stream
+     * on top of it is finished, or on a failure just released).
+     *
+     * @param games the games, written in order.
+     * @param out   the stream.
+     * @return the number of games written.
+     * @throws IOException if the stream can not be written.
+     */
+    public long export(Stream<BoardGame> games, OutputStream out) throws IOException {
+        Gzip zip = gzip ? new Gzip(new NonClosing(out)) : null;
+        boolean written = false;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip != null ? zip : out,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            StringBuilder row = new StringBuilder(256);
+            char[] chars = new char[256];
+            long count = 0;
+            if (format.appendHeader(row, columns)) {
+                chars = writeRow(writer, row, chars);
+            }
+            Iterator<BoardGame> it = games.iterator();
+            while (it.hasNext()) {
+                format.appendGame(row, ++count, it.next(), columns.get(0), columns);
+                chars = writeRow(writer, row, chars);
+            }
+            writer.flush();
+            if (zip != null) {
+                zip.close(); // writes the trailer, out stays open
+            }
+            written = true;
+            out.flush();
+            return count;
+        } finally {
+            if (zip != null && !written) {
+                zip.abort();
+            }
+        }
+    }
+
+    /**
+     * Writes the row and a line break, then clears the row.
+     *
+     * @param writer where to write.
+     * @param row    the row.
+     * @param chars  buffer to copy through.
+     * @return the buffer, grown if the row did not fit.
+     * @throws IOException if the row can not be written.
+     */
+    private static char[] writeRow(Writer writer, StringBuilder row, char[] chars) throws IOException {
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        row.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+        writer.write('\n');
+        row.setLength(0);
+        return chars;
+    }
+
+    /** A gzip stream whose deflater can be released without finishing the stream. */
+    private static final class Gzip extends GZIPOutputStream {
+        /**
+         * Constructor for the stream.
+         *
+         * @param out the stream written to.
+         * @throws IOException if the header can not be written.
+         */
+        Gzip(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+        }
+
+        /** Releases the deflater, writing nothing more. */
+        void abort() {
+            def.end();
+        }
+    }
+
+    /** Passes writes through, but leaves the underlying stream open on close. */
+    private static final class NonClosing extends OutputStream {
+        /** the stream written to. */
+        private final OutputStream out;
+
+        /**
+         * Constructor for the wrapper.
+         *
+         * @param out the stream written to.
+         */
+        NonClosing(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
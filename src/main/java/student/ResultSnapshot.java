@@ -0,0 +1,143 @@
+package student;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The results of a planner's filters at one point: the games in sorted order, their
+ * ordinals, and a version counting the changes to the planner's results.
+ *
+ * A snapshot never changes. Each filter or reset makes a new one, so a stream or list taken
+ * from a snapshot stays valid and consistent however the planner changes afterwards, and
+ * readers need no lock or copy. The game list and ordinal BitSet are handed on as they are,
+ * never modified once a snapshot holds them, so snapshots share them instead of copying:
+ * a filter that keeps every game reuses its base's, and every reset shares one empty set.
+ */
+public final class ResultSnapshot {
+    /** Shared ordinals of empty snapshots, never modified. */
+    private static final BitSet NO_ORDINALS = new BitSet();
+
+    /** changes to the planner's results before this snapshot. */
+    private final long version;
+    /** the games in sorted order. */
+    private final List<BoardGame> games;
+    /** ordinals of the games, never modified. */
+    private final BitSet ordinals;
+    /** the sort keys the games are in order of. */
+    private final List<SortKey> keys;
+
+    /**
+     * Constructor for a snapshot.
+     *
+     * @param version  changes to the planner's results before this snapshot.
+     * @param games    the games in sorted order, unmodifiable and never changed.
+     * @param ordinals ordinals of the games, never modified afterwards.
+     * @param keys     the sort keys the games are in order of.
+     */
+    ResultSnapshot(long version, List<BoardGame> games, BitSet ordinals, List<SortKey> keys) {
+        this.version = version;
+        this.games = games;
+        this.ordinals = ordinals;
+        this.keys = List.copyOf(keys);
+    }
+
+    /**
+     * Creates an empty snapshot, the state of a planner with no filter applied.
+     *
+     * @param version changes to the planner's results before this snapshot.
+     * @return the snapshot.
+     */
+    static ResultSnapshot empty(long version) {
+        return new ResultSnapshot(version, Collections.emptyList(), NO_ORDINALS, List.of());
+    }
+
+    /**
+     * Gets the version: 0 for a new planner, one more for every filter or reset after it.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the games.
+     *
+     * @return the games in sorted order, unmodifiable.
+     */
+    public List<BoardGame> getGames() {
+        return games;
+    }
+
+    /**
+     * Streams the games.
+     *
+     * @return the games in sorted order.
+     */
+    public Stream<BoardGame> stream() {
+        return games.stream();
+    }
+
+    /**
+     * Number of games.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * Checks if there are no games, as after a reset.
+     *
+     * @return true if empty.
+     */
+    public boolean isEmpty() {
+        return games.isEmpty();
+    }
+
+    /**
+     * Gets the ordinals of the games. Shared, so it must not be modified.
+     *
+     * @return the ordinals.
+     */
+    BitSet ordinals() {
+        return ordinals;
+    }
+
+    /**
+     * Estimates the bytes used by the games and ordinals, which may be shared with other
+     * snapshots.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        return 4L * games.size() + ordinals.size() / 8; // a reference per game
+    }
+
+    /**
+     * Gets the sort keys the games are in order of.
+     *
+     * @return the keys, empty for an empty snapshot.
+     */
+    List<SortKey> keys() {
+        return keys;
+    }
+
+    /**
+     * Makes the next version of this snapshot with the same games, sharing them.
+     *
+     * @param version the new version.
+     * @return the snapshot.
+     */
+    ResultSnapshot withVersion(long version) {
+        return new ResultSnapshot(version, games, ordinals, keys);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultSnapshot v" + version + " (" + games.size() + " games)";
+    }
+}
@@ -0,0 +1,81 @@
+package student;
+
+/**
+ * ColumnScan that compares one row at a time. Used when the Vector API is not available.
+ */
+final class ScalarColumnScan implements ColumnScan {
+    /** Tolerance for double equality, the same as Filter. */
+    static final double EPSILON = 1e-9;
+
+    @Override
+    public void scan(int[] column, int size, Operations op, int value, long[] mask) {
+        for (int i = 0; i < size; i++) {
+            if (test(column[i], op, value)) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void scan(double[] column, int size, Operations op, double value, long[] mask) {
+        for (int i = 0; i < size; i++) {
+            if (test(column[i], op, value)) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Compares two ints.
+     *
+     * @param v     the row value.
+     * @param op    the comparison.
+     * @param value the value compared with.
+     * @return true if v op value holds.
+     */
+    static boolean test(int v, Operations op, int value) {
+        switch (op) {
+            case GREATER_THAN:
+                return v > value;
+            case GREATER_THAN_EQUALS:
+                return v >= value;
+            case LESS_THAN:
+                return v < value;
+            case LESS_THAN_EQUALS:
+                return v <= value;
+            case EQUALS:
+                return v == value;
+            case NOT_EQUALS:
+                return v != value;
+            default:
+                throw new IllegalArgumentException("Not a numeric comparison: " + op);
+        }
+    }
+
+    /**
+     * Compares two doubles, == and != within EPSILON.
+     *
+     * @param v     the row value.
+     * @param op    the comparison.
+     * @param value the value compared with.
+     * @return true if v op value holds.
+     */
+    static boolean test(double v, Operations op, double value) {
+        switch (op) {
+            case GREATER_THAN:
+                return v > value;
+            case GREATER_THAN_EQUALS:
+                return v >= value;
+            case LESS_THAN:
+                return v < value;
+            case LESS_THAN_EQUALS:
+                return v <= value;
+            case EQUALS:
+                return Math.abs(v - value) < EPSILON;
+            case NOT_EQUALS:
+                return Math.abs(v - value) > EPSILON;
+            default:
+                throw new IllegalArgumentException("Not a numeric comparison: " + op);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs the game by game part of a filter: checks the remaining conditions against each
+ * candidate ordinal, then sorts the matches.
+ *
+ * Small candidate sets run on the calling thread. Once the candidates reach the threshold,
+ * they are split into chunks of about the same number of candidates, however they are
+ * spread over the ordinals, that run on the common ForkJoinPool, each giving a partial
+ * BitSet of matches and a sorted run of games. The partial BitSets are ORed together and
+ * the runs are combined with a k-way merge. Ties keep ordinal order in both modes, so the
+ * result is the same either way. When a chunk fails, the chunks not started are cancelled,
+ * the running ones stop at their next look at the cancellation flag, and the first failure
+ * is thrown.
+ *
+ * Without a sort order only the matching ordinals are computed, for callers that sort
+ * them some other way, such as with a {@link PackedSort}.
+ *
+ * Work started through {@link #cancellable(BooleanSupplier, Supplier)} checks its
+ * cancellation flag every {@value #CANCEL_CHECK_INTERVAL} candidates, in every chunk, and
+ * stops with a CancellationException once it is set.
+ */
+final class ScanExecutor {
+    /** System property for the default threshold, in candidate games. */
+    static final String THRESHOLD_PROPERTY = "planner.parallel.threshold";
+    /** Default number of candidates at which a scan runs in parallel. */
+    static final int DEFAULT_THRESHOLD = 50_000;
+    /** Chunks per worker thread, so uneven chunks still balance out. */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /** Candidates checked between looks at the cancellation flag. */
+    static final int CANCEL_CHECK_INTERVAL = 1024;
+    /** Cancellation flag of the work running on this thread, null if it can not be cancelled. */
+    private static final ThreadLocal<BooleanSupplier> CANCELLED = new ThreadLocal<>();
+
+    /** The matches of a scan, sorted, and their ordinals. */
+    static final class Result {
+        /** the matching games in sorted order. */
+        private final List<BoardGame> games;
+        /** ordinals of the matching games. */
+        private final BitSet ordinals;
+
+        /**
+         * Constructor for a result.
+         *
+         * @param games    the matching games in sorted order, null if not sorted.
+         * @param ordinals ordinals of the matching games.
+         */
+        Result(List<BoardGame> games, BitSet ordinals) {
+            this.games = games;
+            this.ordinals = ordinals;
+        }
+
+        /**
+         * Get the matching games.
+         *
+         * @return the games in sorted order, unmodifiable, or null if the scan had no sort order.
+         */
+        List<BoardGame> games() {
+            return games;
+        }
+
+        /**
+         * Get the ordinals of the matching games.
+         *
+         * @return the ordinals.
+         */
+        BitSet ordinals() {
+            return ordinals;
+        }
+    }
+
+    /** Not instantiated. */
+    private ScanExecutor() {
+    }
+
+    /**
+     * Gets the threshold from the {@value #THRESHOLD_PROPERTY} system property.
+     *
+     * @return the threshold, {@value #DEFAULT_THRESHOLD} if the property is not set.
+     */
+    static int defaultThreshold() {
+        return Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Runs work that scans can stop early, such as a filter for {@link AsyncPlanner}.
+     *
+     * @param cancelled the cancellation flag, checked while candidates are scanned.
+     * @param work      the work, run on this thread.
+     * @param <T>       the result type.
+     * @return the result of the work.
+     * @throws CancellationException if the flag was set during a scan.
+     */
+    static <T> T cancellable(BooleanSupplier cancelled, Supplier<T> work) {
+        BooleanSupplier outer = CANCELLED.get();
+        CANCELLED.set(cancelled);
+        try {
+            checkCancelled(cancelled);
+            return work.get();
+        } finally {
+            CANCELLED.set(outer);
+        }
+    }
+
+    /**
+     * Stops the work if its cancellation flag is set.
+     *
+     * @param cancelled the flag, or null.
+     * @throws CancellationException if the flag is set.
+     */
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled != null && cancelled.getAsBoolean()) {
+            throw new CancellationException("Scan cancelled");
+        }
+    }
+
+    /**
+     * Filters and sorts the candidates.
+     *
+     * @param catalog    the catalog the ordinals refer to.
+     * @param candidates ordinals to check, left unchanged.
+     * @param predicate  the conditions to check, null if every candidate matches.
+     * @param order      the sort order, null to compute only the ordinals.
+     * @param threshold  candidate count at which the work is split across threads.
+     * @return the matches.
+     */
+    static Result run(GameCatalog catalog, BitSet candidates, Predicate<BoardGame> predicate,
+            Comparator<BoardGame> order, int threshold) {
+        int count = candidates.cardinality();
+        int end = candidates.length();
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        IntFunction<BoardGame> games = catalog.reader();
+        BooleanSupplier cancelled = CANCELLED.get(); // chunks may run on other threads
+        if (count < threshold || count < 2) {
+            Run run = chunk(games, candidates, 0, end, predicate, order, cancelled);
+            return new Result(run.games == null ? null : Collections.unmodifiableList(Arrays.asList(run.games)),
+                    run.ordinals);
+        }
+
+        int chunks = threads * CHUNKS_PER_THREAD;
+        int perChunk = Math.max(64, (count + chunks - 1) / chunks);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        BooleanSupplier stop = () -> failure.get() != null || cancelled != null && cancelled.getAsBoolean();
+        List<ForkJoinTask<Run>> tasks = new ArrayList<>();
+        for (int from = candidates.nextSetBit(0); from >= 0;) {
+            // the chunk ends at the candidate perChunk candidates on
+            int next = from;
+            for (int n = 0; n < perChunk && next >= 0; n++) {
+                next = candidates.nextSetBit(next + 1);
+            }
+            int lo = from;
+            int hi = next < 0 ? end : next;
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                try {
+                    return chunk(games, candidates, lo, hi, predicate, order, stop);
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            }));
+            from = next;
+        }
+        List<Run> runs = new ArrayList<>(tasks.size());
+        BitSet ordinals = new BitSet(end);
+        try {
+            for (ForkJoinTask<Run> task : tasks) {
+                Run run = task.join();
+                runs.add(run);
+                ordinals.or(run.ordinals);
+            }
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+            for (ForkJoinTask<Run> task : tasks) {
+                task.cancel(false);
+            }
+            Throwable first = failure.get();
+            if (first instanceof Error) {
+                throw (Error) first;
+            }
+            throw (RuntimeException) first;
+        }
+        return new Result(order == null ? null : merge(runs, order), ordinals);
+    }
+
+    /**
+     * Checks many queries in one pass over the catalog. Each game in any query's candidates
+     * is read once and checked against the predicate of every query it is a candidate for.
+     *
+     * @param catalog    the catalog the ordinals refer to.
+     * @param candidates candidates per query, cleared where the query's predicate fails.
+     * @param predicates predicate per query, null if every candidate matches.
+     */
+    static void retainAll(GameCatalog catalog, BitSet[] candidates, List<Predicate<BoardGame>> predicates) {
+        BitSet any = new BitSet();
+        for (int q = 0; q < candidates.length; q++) {
+            if (predicates.get(q) != null) {
+                any.or(candidates[q]);
+            }
+        }
+        IntFunction<BoardGame> games = catalog.reader();
+        for (int i = any.nextSetBit(0); i >= 0; i = any.nextSetBit(i + 1)) {
+            BoardGame game = games.apply(i);
+            for (int q = 0; q < candidates.length; q++) {
+                Predicate<BoardGame> predicate = predicates.get(q);
+                if (predicate != null && candidates[q].get(i) && !predicate.test(game)) {
+                    candidates[q].clear(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Filters and sorts the candidates in [from, to).
+     *
+     * @param games      the catalog's games by ordinal.
+     * @param candidates ordinals to check.
+     * @param from       first ordinal, inclusive.
+     * @param to         last ordinal, exclusive.
+     * @param predicate  the conditions, may be null.
+     * @param order      the sort order, null to collect only the ordinals.
+     * @param cancelled  the cancellation flag, or null.
+     * @return the sorted run of matches.
+     */
+    private static Run chunk(IntFunction<BoardGame> games, BitSet candidates, int from, int to,
+            Predicate<BoardGame> predicate, Comparator<BoardGame> order, BooleanSupplier cancelled) {
+        List<BoardGame> matches = new ArrayList<>();
+        BitSet ordinals = new BitSet(to);
+        int checked = 0;
+        for (int i = candidates.nextSetBit(from); i >= 0 && i < to; i = candidates.nextSetBit(i + 1)) {
+            if (++checked % CANCEL_CHECK_INTERVAL == 0) {
+                checkCancelled(cancelled);
+            }
+            BoardGame game = predicate != null || order != null ? games.apply(i) : null;
+            if (predicate == null || predicate.test(game)) {
+                if (order != null) {
+                    matches.add(game);
+                }
+                ordinals.set(i);
+            }
+        }
+        if (order == null) {
+            return new Run(null, ordinals);
+        }
+        BoardGame[] sorted = matches.toArray(new BoardGame[0]);
+        Arrays.sort(sorted, order); // stable, so ties stay in ordinal order
+        return new Run(sorted, ordinals);
+    }
+
+    /**
+     * Merges sorted runs, taking from the earlier run on ties.
+     *
+     * @param runs  runs in ordinal order.
+     * @param order the sort order.
+     * @return the merged games, unmodifiable.
+     */
+    private static List<BoardGame> merge(List<Run> runs, Comparator<BoardGame> order) {
+        int total = 0;
+        for (Run run : runs) {
+            total += run.games.length;
+        }
+        // heap of run indexes, ordered by the run's next game then run index
+        int[] positions = new int[runs.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> {
+            int cmp = order.compare(runs.get(a).games[positions[a]], runs.get(b).games[positions[b]]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+        for (int r = 0; r < runs.size(); r++) {
+            if (runs.get(r).games.length > 0) {
+                heap.add(r);
+            }
+        }
+        BoardGame[] merged = new BoardGame[total];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            int r = heap.poll();
+            merged[n++] = runs.get(r).games[positions[r]++];
+            if (positions[r] < runs.get(r).games.length) {
+                heap.add(r);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(merged));
+    }
+
+    /** A sorted run of matches from one chunk. */
+    private static final class Run {
+        /** matches in sorted order, null if not sorted. */
+        private final BoardGame[] games;
+        /** ordinals of the matches. */
+        private final BitSet ordinals;
+
+        /**
+         * Constructor for a run.
+         *
+         * @param games    matches in sorted order, or null.
+         * @param ordinals ordinals of the matches.
+         */
+        Run(BoardGame[] games, BitSet ordinals) {
+            this.games = games;
+            this.ordinals = ordinals;
+        }
+    }
+}
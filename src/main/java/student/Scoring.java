@@ -0,0 +1,238 @@
+package student;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for ranking games by a {@link ScoringSpec}, the highest scores first.
+ * Ties are broken by name (case-insensitive, ascending), as in {@link Sorting}, and games
+ * with a NaN score rank last.
+ *
+ * The planner scores the catalog's primitive columns through a compiled scorer, which only
+ * binds the spec to the column arrays so it is built for each ranking, and keeps the best
+ * games in a bounded heap of primitives, so ranking the whole catalog allocates only the
+ * heap.
+ */
+public final class Scoring {
+    /** Private constructor to prevent instantiation. */
+    private Scoring() { }
+
+    /**
+     * Gets the k best scoring games of a stream, best first.
+     *
+     * @param games the games.
+     * @param spec  how games are scored.
+     * @param k     the number of games to keep.
+     * @return the best games, best first.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public static Stream<BoardGame> top(Stream<BoardGame> games, ScoringSpec spec, int k) {
+        checkK(k);
+        return games.sorted(comparator(spec)).limit(k);
+    }
+
+    /**
+     * Builds the comparator used by {@link #top(Stream, ScoringSpec, int)}: score
+     * descending, then name (case-insensitive, ascending).
+     *
+     * @param spec how games are scored.
+     * @return the comparator.
+     */
+    static Comparator<BoardGame> comparator(ScoringSpec spec) {
+        Comparator<BoardGame> byScore = (a, b) -> {
+            double sa = rankable(spec.score(a));
+            double sb = rankable(spec.score(b));
+            return sa > sb ? -1 : sa < sb ? 1 : 0;
+        };
+        return byScore.thenComparing(bg -> bg.getName().toLowerCase());
+    }
+
+    /**
+     * Gets the k best scoring games among the matches, from the catalog's columns.
+     *
+     * @param columns the catalog's columns.
+     * @param matches ordinals of the games to rank, all covered by the columns.
+     * @param spec    how games are scored.
+     * @param k       the number of games to keep.
+     * @return ordinals of the best games, best first.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    static int[] top(ColumnStore columns, BitSet matches, ScoringSpec spec, int k) {
+        checkK(k);
+        Scorer scorer = new Scorer(columns, spec);
+        int[] names = columns.namePositions(); // ties
+        // min-heap of the best so far, the worst of them at the root
+        double[] scores = new double[Math.min(k, matches.cardinality())];
+        int[] ordinals = new int[scores.length];
+        int size = 0;
+        if (scores.length == 0) {
+            return ordinals;
+        }
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            double score = rankable(scorer.score(i));
+            if (size < scores.length) {
+                scores[size] = score;
+                ordinals[size] = i;
+                siftUp(scores, ordinals, names, size++);
+            } else if (worse(scores[0], names[ordinals[0]], score, names[i])) {
+                scores[0] = score;
+                ordinals[0] = i;
+                siftDown(scores, ordinals, names, 0, size);
+            }
+        }
+        // take the worst off the end until the heap is empty, leaving the best first
+        int[] result = new int[size];
+        while (size > 0) {
+            result[size - 1] = ordinals[0];
+            size--;
+            scores[0] = scores[size];
+            ordinals[0] = ordinals[size];
+            siftDown(scores, ordinals, names, 0, size);
+        }
+        return result;
+    }
+
+    /**
+     * Maps a NaN score below every other score.
+     *
+     * @param score the score.
+     * @return the score, or negative infinity for NaN.
+     */
+    private static double rankable(double score) {
+        return Double.isNaN(score) ? Double.NEGATIVE_INFINITY : score;
+    }
+
+    /**
+     * Checks if a game ranks below another.
+     *
+     * @param score     score of the first game.
+     * @param name      name position of the first game.
+     * @param other     score of the other game.
+     * @param otherName name position of the other game.
+     * @return true if the first game ranks below the other.
+     */
+    private static boolean worse(double score, int name, double other, int otherName) {
+        return score < other || (score == other && name > otherName);
+    }
+
+    /**
+     * Moves a heap entry up to its place.
+     *
+     * @param scores   heap scores.
+     * @param ordinals heap ordinals.
+     * @param names    name position of each ordinal.
+     * @param at       index of the entry.
+     */
+    private static void siftUp(double[] scores, int[] ordinals, int[] names, int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!worse(scores[at], names[ordinals[at]], scores[parent], names[ordinals[parent]])) {
+                return;
+            }
+            swap(scores, ordinals, at, parent);
+            at = parent;
+        }
+    }
+
+    /**
+     * Moves a heap entry down to its place.
+     *
+     * @param scores   heap scores.
+     * @param ordinals heap ordinals.
+     * @param names    name position of each ordinal.
+     * @param at       index of the entry.
+     * @param size     number of entries in the heap.
+     */
+    private static void siftDown(double[] scores, int[] ordinals, int[] names, int at, int size) {
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && worse(scores[child + 1], names[ordinals[child + 1]],
+                    scores[child], names[ordinals[child]])) {
+                child++;
+            }
+            if (!worse(scores[child], names[ordinals[child]], scores[at], names[ordinals[at]])) {
+                return;
+            }
+            swap(scores, ordinals, at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * Swaps two heap entries.
+     *
+     * @param scores   heap scores.
+     * @param ordinals heap ordinals.
+     * @param a        index of one entry.
+     * @param b        index of the other.
+     */
+    private static void swap(double[] scores, int[] ordinals, int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+    }
+
+    /**
+     * Checks the number of games asked for.
+     *
+     * @param k the number of games.
+     */
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of games must not be negative: " + k);
+        }
+    }
+
+    /** A spec bound to the column arrays it reads, skipping the columns it does not weigh. */
+    private static final class Scorer {
+        /** how games are scored. */
+        private final ScoringSpec spec;
+        /** ratings, null if not weighted. */
+        private final double[] ratings;
+        /** difficulties, null if not weighted. */
+        private final double[] difficulties;
+        /** minimum players, null if not weighted. */
+        private final int[] minPlayers;
+        /** maximum players, null if not weighted. */
+        private final int[] maxPlayers;
+        /** minimum play times, null if not weighted. */
+        private final int[] minTimes;
+        /** maximum play times, null if not weighted. */
+        private final int[] maxTimes;
+
+        /**
+         * Compiles a spec against columns.
+         *
+         * @param columns the catalog's columns.
+         * @param spec    how games are scored.
+         */
+        Scorer(ColumnStore columns, ScoringSpec spec) {
+            this.spec = spec;
+            this.ratings = spec.usesRating() ? columns.doubles(GameData.RATING) : null;
+            this.difficulties = spec.usesDifficulty() ? columns.doubles(GameData.DIFFICULTY) : null;
+            this.minPlayers = spec.usesPlayers() ? columns.ints(GameData.MIN_PLAYERS) : null;
+            this.maxPlayers = spec.usesPlayers() ? columns.ints(GameData.MAX_PLAYERS) : null;
+            this.minTimes = spec.usesTime() ? columns.ints(GameData.MIN_TIME) : null;
+            this.maxTimes = spec.usesTime() ? columns.ints(GameData.MAX_TIME) : null;
+        }
+
+        /**
+         * Scores a game.
+         *
+         * @param i the game's ordinal.
+         * @return the score.
+         */
+        double score(int i) {
+            return spec.score(ratings != null ? ratings[i] : 0, difficulties != null ? difficulties[i] : 0,
+                    minPlayers != null ? minPlayers[i] : 0, maxPlayers != null ? maxPlayers[i] : 0,
+                    minTimes != null ? minTimes[i] : 0, maxTimes != null ? maxTimes[i] : 0);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package student;
+
+import java.util.Objects;
+
+/**
+ * Weights for scoring games, for a "best games for us tonight" ranking instead of a sort
+ * on one column.
+ *
+ * The score of a game adds up one term per weight that is not 0:
+ * <ul>
+ * <li>rating: the rating times the weight.</li>
+ * <li>difficulty: the distance of the difficulty from a target, times the weight,
+ * subtracted, so games close to the target score higher.</li>
+ * <li>time: 1 if the game's longest play time fits in the minutes available, 0.5 if only
+ * its shortest does, 0 otherwise, times the weight.</li>
+ * <li>players: 1 if the game supports the player count, 0 otherwise, times the weight.</li>
+ * </ul>
+ * For example, {@code ScoringSpec.of(1).withDifficulty(2.5, 0.5).withTime(60, 2).withPlayers(4, 3)}.
+ *
+ * Specs are immutable and can be used as map keys.
+ */
+public final class ScoringSpec {
+    /** weight of the rating. */
+    private final double ratingWeight;
+    /** difficulty that scores best. */
+    private final double difficultyTarget;
+    /** weight of the distance from the target difficulty. */
+    private final double difficultyWeight;
+    /** minutes available. */
+    private final int minutes;
+    /** weight of the time fit. */
+    private final double timeWeight;
+    /** number of players. */
+    private final int players;
+    /** weight of the player fit. */
+    private final double playersWeight;
+
+    /**
+     * Constructor for a spec.
+     *
+     * @param ratingWeight     weight of the rating.
+     * @param difficultyTarget difficulty that scores best.
+     * @param difficultyWeight weight of the distance from the target difficulty.
+     * @param minutes          minutes available.
+     * @param timeWeight       weight of the time fit.
+     * @param players          number of players.
+     * @param playersWeight    weight of the player fit.
+     */
+    private ScoringSpec(double ratingWeight, double difficultyTarget, double difficultyWeight, int minutes,
+            double timeWeight, int players, double playersWeight) {
+        for (double weight : new double[] {ratingWeight, difficultyTarget, difficultyWeight, timeWeight,
+                playersWeight}) {
+            if (!Double.isFinite(weight)) {
+                throw new IllegalArgumentException("Scoring weights and targets must be finite: " + weight);
+            }
+        }
+        this.ratingWeight = ratingWeight;
+        this.difficultyTarget = difficultyTarget;
+        this.difficultyWeight = difficultyWeight;
+        this.minutes = minutes;
+        this.timeWeight = timeWeight;
+        this.players = players;
+        this.playersWeight = playersWeight;
+    }
+
+    /**
+     * Creates a spec that scores on rating only.
+     *
+     * @param ratingWeight weight of the rating, 0 to leave it out.
+     * @return the spec.
+     * @throws IllegalArgumentException if the weight is not finite.
+     */
+    public static ScoringSpec of(double ratingWeight) {
+        return new ScoringSpec(ratingWeight, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Creates a copy of this spec that also scores closeness to a difficulty.
+     *
+     * @param target difficulty that scores best.
+     * @param weight weight of the distance from the target.
+     * @return the new spec.
+     * @throws IllegalArgumentException if the target or weight is not finite.
+     */
+    public ScoringSpec withDifficulty(double target, double weight) {
+        return new ScoringSpec(ratingWeight, target, weight, minutes, timeWeight, players, playersWeight);
+    }
+
+    /**
+     * Creates a copy of this spec that also scores how well a game fits in the time available.
+     *
+     * @param minutes minutes available.
+     * @param weight  weight of the time fit.
+     * @return the new spec.
+     * @throws IllegalArgumentException if the weight is not finite.
+     */
+    public ScoringSpec withTime(int minutes, double weight) {
+        return new ScoringSpec(ratingWeight, difficultyTarget, difficultyWeight, minutes, weight, players,
+                playersWeight);
+    }
+
+    /**
+     * Creates a copy of this spec that also scores support for a number of players.
+     *
+     * @param players number of players.
+     * @param weight  weight of the player fit.
+     * @return the new spec.
+     * @throws IllegalArgumentException if the weight is not finite.
+     */
+    public ScoringSpec withPlayers(int players, double weight) {
+        return new ScoringSpec(ratingWeight, difficultyTarget, difficultyWeight, minutes, timeWeight, players,
+                weight);
+    }
+
+    /**
+     * Scores a game.
+     *
+     * @param game the game.
+     * @return the score, higher is better. NaN if the game has a NaN rating or difficulty
+     *         that is weighted.
+     */
+    public double score(BoardGame game) {
+        return score(game.getRating(), game.getDifficulty(), game.getMinPlayers(), game.getMaxPlayers(),
+                game.getMinPlayTime(), game.getMaxPlayTime());
+    }
+
+    /**
+     * Scores a game from its column values. {@link Scoring} calls this for every game, so it
+     * only does arithmetic on its arguments.
+     *
+     * @param rating      the rating.
+     * @param difficulty  the difficulty.
+     * @param minPlayers  the minimum players.
+     * @param maxPlayers  the maximum players.
+     * @param minPlayTime the minimum play time.
+     * @param maxPlayTime the maximum play time.
+     * @return the score.
+     */
+    double score(double rating, double difficulty, int minPlayers, int maxPlayers, int minPlayTime,
+            int maxPlayTime) {
+        double score = 0;
+        if (ratingWeight != 0) {
+            score += ratingWeight * rating;
+        }
+        if (difficultyWeight != 0) {
+            score -= difficultyWeight * Math.abs(difficulty - difficultyTarget);
+        }
+        if (timeWeight != 0) {
+            score += maxPlayTime <= minutes ? timeWeight : minPlayTime <= minutes ? timeWeight * 0.5 : 0;
+        }
+        if (playersWeight != 0 && minPlayers <= players && players <= maxPlayers) {
+            score += playersWeight;
+        }
+        return score;
+    }
+
+    /**
+     * Checks if the score reads the rating column.
+     *
+     * @return true if the rating is weighted.
+     */
+    boolean usesRating() {
+        return ratingWeight != 0;
+    }
+
+    /**
+     * Checks if the score reads the difficulty column.
+     *
+     * @return true if the difficulty is weighted.
+     */
+    boolean usesDifficulty() {
+        return difficultyWeight != 0;
+    }
+
+    /**
+     * Checks if the score reads the play time columns.
+     *
+     * @return true if the time fit is weighted.
+     */
+    boolean usesTime() {
+        return timeWeight != 0;
+    }
+
+    /**
+     * Checks if the score reads the player columns.
+     *
+     * @return true if the player fit is weighted.
+     */
+    boolean usesPlayers() {
+        return playersWeight != 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ScoringSpec)) {
+            return false;
+        }
+        ScoringSpec other = (ScoringSpec) obj;
+        return Double.compare(ratingWeight, other.ratingWeight) == 0
+                && Double.compare(difficultyTarget, other.difficultyTarget) == 0
+                && Double.compare(difficultyWeight, other.difficultyWeight) == 0
+                && minutes == other.minutes && Double.compare(timeWeight, other.timeWeight) == 0
+                && players == other.players && Double.compare(playersWeight, other.playersWeight) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ratingWeight, difficultyTarget, difficultyWeight, minutes, timeWeight, players,
+                playersWeight);
+    }
+
+    @Override
+    public String toString() {
+        return "rating*" + ratingWeight + " difficulty~" + difficultyTarget + "*" + difficultyWeight
+                + " time<=" + minutes + "*" + timeWeight + " players=" + players + "*" + playersWeight;
+    }
+}
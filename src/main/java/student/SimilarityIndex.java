@@ -0,0 +1,406 @@
+package student;
+
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * A k-d tree over game features, for finding the games most like a given game.
+ *
+ * Each game is a point of five features: rating, difficulty, players (middle of the
+ * supported range), play time (middle of the range) and year published. Every feature is
+ * scaled to 0 to 1 over the catalog's values, so each counts the same; a feature that is
+ * NaN or infinite counts as 0. Similarity is the Euclidean distance between points.
+ *
+ * The tree is implicit: points are stored in tree order in one flat array, each range's
+ * middle point splitting it on the feature with the widest spread. A query walks the side
+ * of each split holding the target first and skips the other side once the split is
+ * further away than the k-th nearest point found, so it reads a small part of the catalog.
+ */
+final class SimilarityIndex {
+    /** number of features per game. */
+    static final int FEATURES = 5;
+    /** ranges at or below this size are not split, just scanned. */
+    private static final int LEAF_SIZE = 8;
+
+    /** number of catalog ordinals covered. */
+    private final int size;
+    /** smallest value of each feature, before scaling. */
+    private final double[] lows = new double[FEATURES];
+    /** scale of each feature, 1 / (highest - lowest) or 1. */
+    private final double[] scales = new double[FEATURES];
+    /** ordinal of each point, in tree order. */
+    private final int[] ordinals;
+    /** scaled features of each point, in tree order, FEATURES per point. */
+    private final double[] points;
+    /** feature each range is split on, by the position of its middle point. */
+    private final byte[] splits;
+
+    /**
+     * Builds the index over the first size games of the catalog.
+     *
+     * @param games the games of the catalog by ordinal, covering at least size games.
+     * @param size  number of games to index.
+     */
+    SimilarityIndex(IntFunction<BoardGame> games, int size) {
+        this.size = size;
+        double[][] raw = new double[FEATURES][size];
+        for (int i = 0; i < size; i++) {
+            BoardGame game = games.apply(i);
+            raw[0][i] = game.getRating();
+            raw[1][i] = game.getDifficulty();
+            raw[2][i] = middle(game.getMinPlayers(), game.getMaxPlayers());
+            raw[3][i] = middle(game.getMinPlayTime(), game.getMaxPlayTime());
+            raw[4][i] = game.getYearPublished();
+        }
+        for (int f = 0; f < FEATURES; f++) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            for (double v : raw[f]) {
+                if (Double.isFinite(v)) {
+                    low = Math.min(low, v);
+                    high = Math.max(high, v);
+                }
+            }
+            lows[f] = low <= high ? low : 0;
+            scales[f] = high > low ? 1 / (high - low) : 1;
+        }
+        this.ordinals = new int[size];
+        this.points = new double[size * FEATURES];
+        this.splits = new byte[size];
+        double[] point = new double[FEATURES];
+        for (int i = 0; i < size; i++) {
+            for (int f = 0; f < FEATURES; f++) {
+                point[f] = raw[f][i];
+            }
+            ordinals[i] = i;
+            scale(point, points, i * FEATURES);
+        }
+        build(0, size);
+    }
+
+    /**
+     * Bytes used by the backing arrays, not counting the array headers.
+     *
+     * @return the bytes used.
+     */
+    long bytesUsed() {
+        return 4L * ordinals.length + 8L * points.length + splits.length;
+    }
+
+    /**
+     * Number of catalog ordinals covered.
+     *
+     * @return the size of the catalog when the index was built.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Computes the scaled features of a game that need not be in the catalog.
+     *
+     * @param game the game.
+     * @return the features.
+     */
+    double[] features(BoardGame game) {
+        double[] point = {game.getRating(), game.getDifficulty(),
+            middle(game.getMinPlayers(), game.getMaxPlayers()),
+            middle(game.getMinPlayTime(), game.getMaxPlayTime()), game.getYearPublished()};
+        double[] scaled = new double[FEATURES];
+        scale(point, scaled, 0);
+        return scaled;
+    }
+
+    /**
+     * Finds the k games nearest to a point. Games at the same distance are ordered by ordinal.
+     *
+     * @param target the scaled features to search around, from {@link #features(BoardGame)}.
+     * @param k      the number of games to find.
+     * @param accept which ordinals may be returned, null for all.
+     * @return ordinals of the nearest accepted games, nearest first.
+     */
+    int[] nearest(double[] target, int k, IntPredicate accept) {
+        Nearest best = new Nearest(Math.min(k, size));
+        if (best.capacity > 0) {
+            search(0, size, target, accept, best);
+        }
+        return best.sorted();
+    }
+
+    /**
+     * Walks a range of the tree.
+     *
+     * @param lo     first position, inclusive.
+     * @param hi     last position, exclusive.
+     * @param target the scaled features searched around.
+     * @param accept which ordinals may be returned, or null.
+     * @param best   the nearest games so far.
+     */
+    private void search(int lo, int hi, double[] target, IntPredicate accept, Nearest best) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int p = lo; p < hi; p++) {
+                consider(p, target, accept, best);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int split = splits[mid];
+        double diff = target[split] - points[mid * FEATURES + split];
+        consider(mid, target, accept, best);
+        if (diff < 0) {
+            search(lo, mid, target, accept, best);
+            if (diff * diff <= best.bound()) {
+                search(mid + 1, hi, target, accept, best);
+            }
+        } else {
+            search(mid + 1, hi, target, accept, best);
+            if (diff * diff <= best.bound()) {
+                search(lo, mid, target, accept, best);
+            }
+        }
+    }
+
+    /**
+     * Offers the point at a position to the nearest games.
+     *
+     * @param p      the position.
+     * @param target the scaled features searched around.
+     * @param accept which ordinals may be returned, or null.
+     * @param best   the nearest games so far.
+     */
+    private void consider(int p, double[] target, IntPredicate accept, Nearest best) {
+        double distance = 0;
+        for (int f = 0; f < FEATURES; f++) {
+            double d = target[f] - points[p * FEATURES + f];
+            distance += d * d;
+        }
+        if (distance <= best.bound() && (accept == null || accept.test(ordinals[p]))) {
+            best.offer(distance, ordinals[p]);
+        }
+    }
+
+    /**
+     * Arranges a range into tree order: the middle position gets the median on the feature
+     * with the widest spread, smaller values before it and larger after.
+     *
+     * @param lo first position, inclusive.
+     * @param hi last position, exclusive.
+     */
+    private void build(int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        int split = 0;
+        double widest = -1;
+        for (int f = 0; f < FEATURES; f++) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            for (int p = lo; p < hi; p++) {
+                low = Math.min(low, points[p * FEATURES + f]);
+                high = Math.max(high, points[p * FEATURES + f]);
+            }
+            if (high - low > widest) {
+                widest = high - low;
+                split = f;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, split);
+        splits[mid] = (byte) split;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    /**
+     * Moves the point with the k-th smallest value of a feature to position k, smaller or
+     * equal values before it and larger or equal after (quickselect).
+     *
+     * @param lo    first position, inclusive.
+     * @param hi    last position, inclusive.
+     * @param k     the position to fill.
+     * @param split the feature.
+     */
+    private void select(int lo, int hi, int k, int split) {
+        while (hi > lo) {
+            double pivot = points[((lo + hi) >>> 1) * FEATURES + split];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points[i * FEATURES + split] < pivot) {
+                    i++;
+                }
+                while (points[j * FEATURES + split] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps two points.
+     *
+     * @param a position of one point.
+     * @param b position of the other.
+     */
+    private void swap(int a, int b) {
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+        for (int f = 0; f < FEATURES; f++) {
+            double v = points[a * FEATURES + f];
+            points[a * FEATURES + f] = points[b * FEATURES + f];
+            points[b * FEATURES + f] = v;
+        }
+    }
+
+    /**
+     * Scales raw features into an array.
+     *
+     * @param raw    the raw features.
+     * @param to     array to write to.
+     * @param offset where to write the first feature.
+     */
+    private void scale(double[] raw, double[] to, int offset) {
+        for (int f = 0; f < FEATURES; f++) {
+            double v = (raw[f] - lows[f]) * scales[f];
+            to[offset + f] = Double.isFinite(v) ? v : 0;
+        }
+    }
+
+    /**
+     * Middle of a range.
+     *
+     * @param low  the low end.
+     * @param high the high end.
+     * @return the middle.
+     */
+    private static double middle(double low, double high) {
+        return (low + high) / 2;
+    }
+
+    /** The nearest games found so far, a max-heap on distance with the furthest at the root. */
+    private static final class Nearest {
+        /** the number of games wanted. */
+        private final int capacity;
+        /** squared distance of each game. */
+        private final double[] distances;
+        /** ordinal of each game. */
+        private final int[] found;
+        /** number of games found. */
+        private int count;
+
+        /**
+         * Constructor for an empty heap.
+         *
+         * @param capacity the number of games wanted.
+         */
+        Nearest(int capacity) {
+            this.capacity = capacity;
+            this.distances = new double[capacity];
+            this.found = new int[capacity];
+        }
+
+        /**
+         * Gets the squared distance a game must be within to be kept.
+         *
+         * @return the distance of the furthest game kept, or infinity until the heap is full.
+         */
+        double bound() {
+            return count < capacity ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Adds a game if it is nearer than the furthest kept, or as near with a lower ordinal.
+         *
+         * @param distance squared distance of the game.
+         * @param ordinal  the game's ordinal.
+         */
+        void offer(double distance, int ordinal) {
+            if (count < capacity) {
+                distances[count] = distance;
+                found[count] = ordinal;
+                int at = count++;
+                while (at > 0 && further(at, (at - 1) >>> 1)) {
+                    swap(at, (at - 1) >>> 1);
+                    at = (at - 1) >>> 1;
+                }
+            } else if (distance < distances[0] || (distance == distances[0] && ordinal < found[0])) {
+                distances[0] = distance;
+                found[0] = ordinal;
+                siftDown(count);
+            }
+        }
+
+        /**
+         * Empties the heap.
+         *
+         * @return the ordinals, nearest first.
+         */
+        int[] sorted() {
+            int[] result = new int[count];
+            while (count > 0) {
+                result[--count] = found[0];
+                distances[0] = distances[count];
+                found[0] = found[count];
+                siftDown(count);
+            }
+            return result;
+        }
+
+        /**
+         * Moves the root down to its place.
+         *
+         * @param size number of entries in the heap.
+         */
+        private void siftDown(int size) {
+            int at = 0;
+            while (2 * at + 1 < size) {
+                int child = 2 * at + 1;
+                if (child + 1 < size && further(child + 1, child)) {
+                    child++;
+                }
+                if (!further(child, at)) {
+                    return;
+                }
+                swap(at, child);
+                at = child;
+            }
+        }
+
+        /**
+         * Checks if one entry is further than another, ordinal breaking ties.
+         *
+         * @param a one entry.
+         * @param b the other.
+         * @return true if a is further.
+         */
+        private boolean further(int a, int b) {
+            return distances[a] > distances[b] || (distances[a] == distances[b] && found[a] > found[b]);
+        }
+
+        /**
+         * Swaps two entries.
+         *
+         * @param a one entry.
+         * @param b the other.
+         */
+        private void swap(int a, int b) {
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+            int ordinal = found[a];
+            found[a] = found[b];
+            found[b] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One key of a multi-key sort: a column and a direction.
+ *
+ * A list of keys sorts on the first key, then the second for ties, and so on. Games that
+ * tie on every key are ordered by name (case-insensitive, ascending), as for a single
+ * column sort. For example, {@code SortKey.parse("rating desc, difficulty")} sorts the
+ * highest rated games first, and the easier of two equally rated games first.
+ */
+public final class SortKey {
+    /** the column sorted on. */
+    private final GameData column;
+    /** true for ascending, false for descending. */
+    private final boolean ascending;
+
+    /**
+     * Constructor for a sort key.
+     *
+     * @param column    the column sorted on.
+     * @param ascending true for ascending, false for descending.
+     */
+    private SortKey(GameData column, boolean ascending) {
+        this.column = column;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Creates a sort key.
+     *
+     * @param column    the column sorted on.
+     * @param ascending true for ascending, false for descending.
+     * @return the sort key.
+     */
+    public static SortKey of(GameData column, boolean ascending) {
+        if (column == null) {
+            throw new IllegalArgumentException("Sort column must not be null");
+        }
+        return new SortKey(column, ascending);
+    }
+
+    /**
+     * Parses a comma separated list of keys, each a column name optionally followed by asc
+     * or desc, such as {@code "rating desc, difficulty asc"}. A key without a direction is
+     * ascending.
+     *
+     * @param keys the keys.
+     * @return the keys in order.
+     * @throws IllegalArgumentException if a column is not known or there are no keys.
+     */
+    public static List<SortKey> parse(String keys) {
+        List<SortKey> result = new ArrayList<>();
+        for (String part : keys.split(",")) {
+            String key = part.trim().toLowerCase(Locale.ROOT);
+            boolean ascending = true;
+            if (key.endsWith("desc")) {
+                ascending = false;
+                key = key.substring(0, key.length() - "desc".length()).trim();
+            } else if (key.endsWith("asc")) {
+                key = key.substring(0, key.length() - "asc".length()).trim();
+            }
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("Missing sort column in " + keys);
+            }
+            result.add(of(GameData.fromString(key), ascending));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the column sorted on.
+     *
+     * @return the column.
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Checks the direction.
+     *
+     * @return true for ascending, false for descending.
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public String toString() {
+        return column.getColumnName() + (ascending ? " asc" : " desc");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SortKey)) {
+            return false;
+        }
+        SortKey other = (SortKey) o;
+        return column == other.column && ascending == other.ascending;
+    }
+
+    @Override
+    public int hashCode() {
+        return column.hashCode() * 2 + (ascending ? 1 : 0);
+    }
+}
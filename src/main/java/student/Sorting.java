@@ -1,6 +1,7 @@
 package student;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -21,17 +22,39 @@ public final class Sorting {
      * @return a Stream<BoardGame> sorted by the specified column (and name for ties).
      */
     public static Stream<BoardGame> sort(Stream<BoardGame> games, GameData sortOn, boolean ascending) {
-        // Base comparator for the primary sort key
-        Comparator<BoardGame> primaryComparator = getComparator(sortOn);
-        // Secondary comparator for tie-breaking by name (case-insensitive)
-        Comparator<BoardGame> nameComparator = Comparator.comparing(bg -> bg.getName().toLowerCase());
+        return games.sorted(comparator(sortOn, ascending));
+    }
 
-        // Combine comparators: apply primary, then name as secondary for stable ordering
-        Comparator<BoardGame> finalComparator = ascending
-                ? primaryComparator.thenComparing(nameComparator)
-                : primaryComparator.reversed().thenComparing(nameComparator);
+    /**
+     * Builds the comparator used by {@link #sort(Stream, GameData, boolean)}: the sortOn column
+     * in the given direction, then name (case-insensitive, ascending) for ties.
+     *
+     * @param sortOn    the GameData column to sort by.
+     * @param ascending if true, sort in ascending order; if false, sort in descending order.
+     * @return the comparator.
+     */
+    static Comparator<BoardGame> comparator(GameData sortOn, boolean ascending) {
+        return comparator(List.of(SortKey.of(sortOn, ascending)));
+    }
 
-        return games.sorted(finalComparator);
+    /**
+     * Builds the comparator for a multi-key sort: each key in turn, then name
+     * (case-insensitive, ascending) for ties. Used when the keys do not fit in a
+     * {@link PackedSort}.
+     *
+     * @param keys the sort keys, in order.
+     * @return the comparator.
+     */
+    static Comparator<BoardGame> comparator(List<SortKey> keys) {
+        Comparator<BoardGame> result = null;
+        for (SortKey key : keys) {
+            Comparator<BoardGame> next = key.isAscending() ? getComparator(key.getColumn())
+                    : getComparator(key.getColumn()).reversed();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        // Secondary comparator for tie-breaking by name (case-insensitive)
+        Comparator<BoardGame> nameComparator = Comparator.comparing(bg -> bg.getName().toLowerCase());
+        return result == null ? nameComparator : result.thenComparing(nameComparator);
     }
 
     /**
@@ -8,6 +8,11 @@ import java.util.Set;
 import student.Planner;
 import student.IPlanner;
 import student.GameData;
+import student.GameList;
+import student.GameRange;
+import student.Facet;
+import student.Histogram;
+import student.GameCatalog;
 
 
 /**
@@ -41,4 +46,78 @@ public class TestPlanner {
     }
     
 
-}
\ No newline at end of file
+    @Test
+    public void testFilterInList() {
+        GameList list = new GameList();
+        list.addToList("go", games.stream());
+        list.addToList("go fish", games.stream());
+        list.addToList("chess", games.stream());
+        IPlanner planner = new Planner(games, list);
+        List<BoardGame> filtered = planner.filter("inList, maxPlayers>2").toList();
+        assertEquals(2, filtered.size());
+        assertEquals("Go", filtered.get(0).getName());
+        assertEquals("Go Fish", filtered.get(1).getName());
+    }
+
+    @Test
+    public void testFilterPlayersIndexed() {
+        IPlanner planner = new Planner(games);
+        List<BoardGame> filtered = planner.filter("players==6, name~=go").toList();
+        assertEquals(3, filtered.size());
+        assertEquals("Go Fish", filtered.get(0).getName());
+        assertEquals("golang", filtered.get(1).getName());
+        assertEquals("GoRami", filtered.get(2).getName());
+    }
+
+    @Test
+    public void testFacets() {
+        Planner planner = new Planner(games);
+        planner.filter("year>=2003");
+        List<Histogram> facets = planner.facets(List.of(Facet.of(GameRange.PLAYERS, 1),
+                Facet.of(GameData.RATING, 1.0), Facet.of(GameData.YEAR, 5)));
+        assertEquals(3, facets.get(0).getCount(2)); // golang, Chess, 17 days
+        assertEquals(3, facets.get(0).getCount(6)); // golang, Monopoly, 17 days
+        assertEquals(0, facets.get(0).getCount(21));
+        assertEquals(1, facets.get(1).getCount(8.0)); // Tucano
+        assertEquals(2, facets.get(1).getCount(9.99)); // 17 days, golang
+        assertEquals(2, facets.get(2).getCount(2003)); // golang, Tucano
+        assertEquals(3, facets.get(2).getCount(2005));
+        assertEquals(List.of(2000.0, 2005.0), List.copyOf(facets.get(2).getCounts().keySet()));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        Set<BoardGame> many = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            many.add(new BoardGame("Game " + (i % 50), 100 + i, 1 + i % 4, 2 + i % 6, 10, 10 + i % 90,
+                    1.0 + i % 5, i, 5.0 + i % 7, 1990 + i % 30));
+        }
+        GameList list = new GameList(new GameCatalog());
+        Planner sequential = new Planner(many, list);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        Planner parallel = new Planner(many, list);
+        parallel.setParallelThreshold(0);
+        String filter = "name~=game 1, maxPlayTime>=20";
+        assertEquals(sequential.filter(filter, GameData.RATING, false).toList(),
+                parallel.filter(filter, GameData.RATING, false).toList());
+        assertEquals(sequential.filter("year<2010").toList(), parallel.filter("year<2010").toList());
+        assertEquals(sequential.filter("").toList(), parallel.filter("").toList());
+    }
+
+    @Test
+    public void testFilterBatch() {
+        Planner planner = new Planner(games);
+        List<String> filters = List.of("rating>=8, name~=go", "rating>=8", "players==6 or year<2001",
+                "", "name==nothing");
+        List<List<BoardGame>> results = planner.filterBatch(filters, GameData.YEAR, false);
+        assertEquals(filters.size(), results.size());
+        for (int i = 0; i < filters.size(); i++) {
+            assertEquals(new Planner(games).filter(filters.get(i), GameData.YEAR, false).toList(),
+                    results.get(i));
+        }
+        assertEquals(2, results.get(0).size()); // golang, GoRami
+        assertEquals(0, results.get(4).size());
+        // the current results are left alone
+        assertEquals(games.size(), planner.filter("").count());
+    }
+}
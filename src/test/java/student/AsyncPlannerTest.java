@@ -0,0 +1,142 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncPlannerTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+    }
+
+    @Test
+    public void testQueriesRunInOrder() throws Exception {
+        Planner expected = new Planner(games);
+        List<BoardGame> first = expected.filter("players==2", GameData.RATING, false).collect(Collectors.toList());
+        List<BoardGame> second = expected.filter("time<=60", GameData.RATING, false).collect(Collectors.toList());
+
+        try (AsyncPlanner async = new AsyncPlanner(new Planner(games))) {
+            List<SortKey> keys = SortKey.parse("rating desc");
+            CompletableFuture<List<BoardGame>> a = async.filter("players==2", keys);
+            CompletableFuture<List<BoardGame>> b = async.filter("time<=60", keys);
+            CompletableFuture<List<BoardGame>> bad = async.filter("(name~=go", keys);
+            CompletableFuture<Void> reset = async.reset();
+            CompletableFuture<List<BoardGame>> all = async.filter("");
+            assertEquals(first, a.get(10, TimeUnit.SECONDS));
+            assertEquals(second, b.get(10, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+            reset.get(10, TimeUnit.SECONDS);
+            assertEquals(games.size(), all.get(10, TimeUnit.SECONDS).size());
+        }
+    }
+
+    @Test
+    public void testCloseLeavesSharedExecutorRunning() throws Exception {
+        AsyncPlanner closed = new AsyncPlanner(new Planner(games));
+        closed.close();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> closed.filter("players==2").get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        try (AsyncPlanner other = new AsyncPlanner(new Planner(games))) {
+            assertFalse(other.filter("players==2").get(10, TimeUnit.SECONDS).isEmpty());
+        }
+    }
+
+    @Test
+    public void testCancelStopsScan() {
+        GameCatalog catalog = new GameCatalog();
+        for (int i = 0; i < 20_000; i++) {
+            catalog.intern(new BoardGame("Game " + i, i, 1, 4, 10, 60, 2.0, i, 7.0, 2000));
+        }
+        Planner planner = new Planner(catalog, null);
+        List<BoardGame> before = planner.filter("name~=1").collect(Collectors.toList());
+        int[] checks = {0};
+        assertThrows(CancellationException.class, () -> ScanExecutor.cancellable(() -> checks[0]++ > 0,
+                () -> planner.filter("name~=2")));
+        assertEquals(2, checks[0], "stopped at the first check inside the scan");
+        assertEquals(before, planner.filter("").collect(Collectors.toList()), "current results unchanged");
+
+        // a query cancelled before it runs is skipped
+        BlockingQueue<Runnable> queued = new LinkedBlockingQueue<>();
+        AsyncPlanner async = new AsyncPlanner(planner, queued::add);
+        CompletableFuture<List<BoardGame>> cancelled = async.filter("name~=3");
+        assertTrue(cancelled.cancel(true));
+        queued.poll().run();
+        assertEquals(before, planner.filter("").collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testParallelScanOfClusteredCandidates() {
+        GameCatalog catalog = new GameCatalog();
+        for (int i = 0; i < 100_000; i++) {
+            catalog.intern(new BoardGame("Game " + i, i, 1, 4, 10, 60, 2.0, i, i % 10, 2000));
+        }
+        BitSet candidates = new BitSet();
+        candidates.set(0, 10);
+        candidates.set(90_000, 100_000);
+        Comparator<BoardGame> order = Comparator.comparingDouble(BoardGame::getRating);
+        ScanExecutor.Result sequential = ScanExecutor.run(catalog, candidates, g -> g.getRating() > 4, order,
+                Integer.MAX_VALUE);
+        ScanExecutor.Result parallel = ScanExecutor.run(catalog, candidates, g -> g.getRating() > 4, order, 1);
+        assertEquals(sequential.games(), parallel.games());
+        assertEquals(sequential.ordinals(), parallel.ordinals());
+
+        IllegalStateException failure = new IllegalStateException("bad game");
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ScanExecutor.run(catalog, candidates, g -> {
+                    if (g.getId() == 95_000) {
+                        throw failure;
+                    }
+                    return true;
+                }, order, 1));
+        assertSame(failure, thrown, "the failure of the chunk, not a cancellation of another");
+    }
+
+    @Test
+    public void testPublisherHonoursDemand() throws Exception {
+        List<BoardGame> expected = new Planner(games).filter("players==4").collect(Collectors.toList());
+        try (AsyncPlanner async = new AsyncPlanner(new Planner(games))) {
+            List<BoardGame> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch done = new CountDownLatch(1);
+            async.publish("players==4", List.of()).subscribe(new Flow.Subscriber<BoardGame>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription = s;
+                    s.request(3);
+                }
+
+                @Override
+                public void onNext(BoardGame game) {
+                    received.add(game);
+                    if (received.size() % 3 == 0) {
+                        subscription.request(3);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(expected, received);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardGameTest {
+
+    @Test
+    public void testAppendWithInfo() {
+        BoardGame game = new BoardGame("Chess", 7, 2, 2, 10, 20, 3.6553, 447, 8.725, 1475);
+        StringBuilder sb = new StringBuilder();
+        assertEquals("Chess (8.73)", game.appendWithInfo(sb, GameData.RATING).toString());
+        sb.setLength(0);
+        assertEquals("Chess (3.66)", game.appendWithInfo(sb, GameData.DIFFICULTY).toString());
+        assertEquals("Chess (447)", game.toStringWithInfo(GameData.RANK));
+        assertEquals("Chess (1475)", game.toStringWithInfo(GameData.YEAR));
+        assertEquals("Chess", game.toStringWithInfo(GameData.NAME));
+        assertEquals("BoardGame{name='Chess', id=7, minPlayers=2, maxPlayers=2, maxPlayTime=20, "
+                + "minPlayTime=10, difficulty=3.6553, rank=447, averageRating=8.725, yearPublished=1475}",
+                game.toString());
+    }
+
+    @Test
+    public void testTwoDecimalsMatchesFormat() {
+        List<Double> values = new ArrayList<>();
+        for (BoardGame game : GamesLoader.loadGamesFile("/collection.csv")) {
+            values.add(game.getRating());
+            values.add(game.getDifficulty());
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            values.add(random.nextInt(100_000) / 1000.0); // many halfway points
+            values.add(random.nextDouble() * 10);
+        }
+        values.addAll(List.of(0.0, -0.0, 0.005, 0.015, 0.125, 1.005, 2.675, 9.995, 99.995, -1.005, -0.001,
+                12345678.125, 1e14 + 0.125, Double.NaN, Double.POSITIVE_INFINITY));
+        StringBuilder sb = new StringBuilder();
+        for (double value : values) {
+            sb.setLength(0);
+            assertEquals(String.format(Locale.ROOT, "%.2f", value),
+                    BoardGame.appendTwoDecimals(sb, value).toString(), () -> "for " + value);
+        }
+    }
+
+    @Test
+    public void testEqualsUsesIdAndName() {
+        BoardGame game = new BoardGame("Catan", 1, 3, 4, 60, 30, 2.5, 1, 4.5, 1995);
+        assertEquals(game, new BoardGame("Catan", 1, 2, 6, 10, 20, 1.0, 9, 7.0, 2001));
+        assertEquals(game.hashCode(), new BoardGame("Catan", 1, 2, 6, 10, 20, 1.0, 9, 7.0, 2001).hashCode());
+        assertEquals(game.hashCode(), game.hashCode());
+        assertNotEquals(game, new BoardGame("Catan", 2, 3, 4, 60, 30, 2.5, 1, 4.5, 1995));
+        assertNotEquals(game, new BoardGame("catan", 1, 3, 4, 60, 30, 2.5, 1, 4.5, 1995));
+        assertNotEquals(game, "Catan");
+        assertNotEquals(game, null);
+    }
+}
@@ -0,0 +1,54 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ColumnScanTest {
+
+    private static final Operations[] NUMERIC_OPS = {Operations.EQUALS, Operations.NOT_EQUALS,
+            Operations.GREATER_THAN, Operations.GREATER_THAN_EQUALS, Operations.LESS_THAN,
+            Operations.LESS_THAN_EQUALS};
+
+    @Test
+    void testScalarMatchesRowByRow() {
+        int[] ints = {5, 1, 9, 5, -3};
+        long[] mask = new long[1];
+        new ScalarColumnScan().scan(ints, ints.length, Operations.GREATER_THAN_EQUALS, 5, mask);
+        assertEquals(0b01101L, mask[0]);
+    }
+
+    @Test
+    void testVectorMatchesScalar() {
+        ColumnScan scalar = new ScalarColumnScan();
+        ColumnScan vector = ColumnScan.Engine.vector();
+        // only built, with jdk.incubator.vector added to the test JVM, by gradle test -Psimd
+        assumeTrue(vector != null, "Vector API engine not built");
+        Random rnd = new Random(42);
+        for (int size : new int[] {0, 1, 7, 63, 64, 65, 200, 1031}) {
+            int[] ints = new int[size];
+            double[] doubles = new double[size];
+            for (int i = 0; i < size; i++) {
+                ints[i] = rnd.nextInt(20) - 5;
+                // repeat some values exactly so == and != have matches
+                doubles[i] = rnd.nextBoolean() ? 7.5 : rnd.nextDouble() * 10;
+            }
+            for (Operations op : NUMERIC_OPS) {
+                long[] expected = new long[(size + 63) / 64];
+                long[] actual = new long[(size + 63) / 64];
+                scalar.scan(ints, size, op, 4, expected);
+                vector.scan(ints, size, op, 4, actual);
+                assertArrayEquals(expected, actual, "int " + op + " size " + size);
+
+                expected = new long[(size + 63) / 64];
+                actual = new long[(size + 63) / 64];
+                scalar.scan(doubles, size, op, 7.5, expected);
+                vector.scan(doubles, size, op, 7.5, actual);
+                assertArrayEquals(expected, actual, "double " + op + " size " + size);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactCatalogTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new HashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+        games.add(new BoardGame("Z\u00fcrich, \"the game\"", 900001, 1, 300, 0, 70000, 1.0 / 3, 40000, -0.0, -2200));
+        games.add(new BoardGame("Same id", 900001, 2, 4, 5, 6, 2.5, 7, 8.125, 2020));
+    }
+
+    @Test
+    public void testViewsMatchGames() {
+        GameCatalog catalog = GameCatalog.compact();
+        assertTrue(catalog.isCompact());
+        for (BoardGame game : games) {
+            int ordinal = catalog.intern(game);
+            assertEquals(ordinal, catalog.intern(game));
+            BoardGame view = catalog.get(ordinal);
+            assertEquals(game.getName(), view.getName());
+            assertEquals(game.getId(), view.getId());
+            assertEquals(game.getMinPlayers(), view.getMinPlayers());
+            assertEquals(game.getMaxPlayers(), view.getMaxPlayers());
+            assertEquals(game.getMinPlayTime(), view.getMinPlayTime());
+            assertEquals(game.getMaxPlayTime(), view.getMaxPlayTime());
+            assertEquals(game.getRank(), view.getRank());
+            assertEquals(game.getYearPublished(), view.getYearPublished());
+            assertEquals(Double.doubleToLongBits(game.getRating()), Double.doubleToLongBits(view.getRating()));
+            assertEquals(Double.doubleToLongBits(game.getDifficulty()), Double.doubleToLongBits(view.getDifficulty()));
+            assertEquals(game, view);
+            assertEquals(view, game);
+            assertEquals(game.hashCode(), view.hashCode());
+            assertEquals(game.toString(), view.toString());
+        }
+        assertEquals(games.size(), catalog.size());
+        assertEquals(-1, catalog.ordinalOf(new BoardGame("Same id", 1, 0, 0, 0, 0, 0, 0, 0, 0)));
+        assertEquals(-1, catalog.ordinalOf(new BoardGame("Other name", 900001, 0, 0, 0, 0, 0, 0, 0, 0)));
+    }
+
+    @Test
+    public void testSmallerThanObjects() {
+        GameCatalog objects = new GameCatalog();
+        GameCatalog compact = GameCatalog.compact();
+        for (BoardGame game : games) {
+            objects.intern(game);
+            compact.intern(game);
+        }
+        compact.trimToSize();
+        assertTrue(compact.storageBytes() * 2 < objects.storageBytes(),
+                compact.storageBytes() + " vs " + objects.storageBytes());
+    }
+
+    @Test
+    public void testPlannerResultsMatch() {
+        Planner objects = new Planner(games, new GameList(new GameCatalog()));
+        Planner compact = new Planner(games, new GameList(GameCatalog.compact()));
+        for (String filter : List.of("rating>=8", "players==3, time<=45", "name~=the", "difficulty between 2 and 3")) {
+            objects.reset();
+            compact.reset();
+            assertEquals(objects.filter(filter, GameData.RATING, false).toList(),
+                    compact.filter(filter, GameData.RATING, false).toList(), filter);
+        }
+    }
+
+    @Test
+    public void testColumnsCopiedWhenUsed() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv", GameCatalog.compact());
+        assertEquals(0, catalog.memoryUsage().get(MemoryUsage.COLUMNS), "similarity index reads the games");
+        new Planner(catalog, null).filter("rating>7", GameData.RATING, false);
+        long everyColumn = (6 * 4 + 2 * 8) * (long) catalog.size();
+        long columns = catalog.memoryUsage().get(MemoryUsage.COLUMNS);
+        assertTrue(columns > 0 && columns < everyColumn, columns + " vs " + everyColumn);
+    }
+}
@@ -0,0 +1,109 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsoleAppTest {
+
+    public Set<BoardGame> games;
+
+    @BeforeEach
+    void setUp() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+    }
+
+    private String runBatch(String script, OutputFormat format, int expectedStatus) {
+        return run(script, format, true, new StringWriter(), expectedStatus);
+    }
+
+    private String run(String script, OutputFormat format, boolean batch, StringWriter err, int expectedStatus) {
+        IGameList list = new GameList();
+        StringWriter out = new StringWriter();
+        ConsoleApp app = new ConsoleApp(list, new Planner(games, list), new Scanner(script),
+                new PrintWriter(out), new PrintWriter(err), format, batch);
+        assertEquals(expectedStatus, app.run());
+        return out.toString();
+    }
+
+    @Test
+    public void testBatchTsv() {
+        String out = runBatch("# comment\n\nfilter rating>=9 sort:rating desc\n", OutputFormat.TSV,
+                ConsoleApp.EXIT_OK);
+        String[] lines = out.split("\\R");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("objectname\tobjectid\taverage"));
+        assertEquals("Chess\t7\t10.0\t10.0\t700\t2\t2\t10\t20\t2006", lines[1]);
+        assertTrue(lines[2].startsWith("17 days\t6\t"));
+    }
+
+    @Test
+    public void testBatchJsonLines() {
+        String out = runBatch("filter name==go\nexit\nfilter\n", OutputFormat.JSONL, ConsoleApp.EXIT_OK);
+        assertEquals("{\"objectname\":\"Go\",\"objectid\":1,\"average\":7.5,\"avgweight\":8.0,\"rank\":100,"
+                + "\"minplayers\":2,\"maxplayers\":5,\"minplaytime\":30,\"maxplaytime\":30,"
+                + "\"yearpublished\":2000}", out.trim());
+    }
+
+    @Test
+    public void testLimitOption() {
+        String out = runBatch("filter rating>=8 sort:rating desc limit:1\nfilter limit: 2\n",
+                OutputFormat.TEXT, ConsoleApp.EXIT_OK);
+        assertEquals(List.of("1: Chess (10.00)", "1: 17 days", "2: Chess"), List.of(out.trim().split("\\R")));
+        // limit: only counts as the option at the end, not inside a value
+        assertEquals("1: Go Fish", runBatch("filter name==go fish limit:1\n", OutputFormat.TEXT,
+                ConsoleApp.EXIT_OK).trim());
+        assertEquals("", runBatch("filter name~=limit:1\n", OutputFormat.TEXT, ConsoleApp.EXIT_OK).trim());
+        runBatch("filter rating>=8 limit:x\n", OutputFormat.TEXT, ConsoleApp.EXIT_FAILED);
+    }
+
+    @Test
+    public void testBatchFailureStatus() {
+        StringWriter err = new StringWriter();
+        String out = run("filter (name==go\nfilter name==chess\n", OutputFormat.TEXT, true, err,
+                ConsoleApp.EXIT_FAILED);
+        assertEquals("1: Chess", out.trim()); // later commands still run, no messages
+        assertTrue(err.toString().startsWith("line 1: "), err.toString());
+        assertTrue(err.toString().contains("Expected ')'"), err.toString());
+    }
+
+    @Test
+    public void testInteractiveErrorsDoNotFail() {
+        StringWriter err = new StringWriter();
+        String out = run("filter (name==go\nexit\n", OutputFormat.TEXT, false, err, ConsoleApp.EXIT_OK);
+        assertTrue(out.contains("Expected ')'"), out);
+        assertEquals("", err.toString());
+    }
+
+    @Test
+    public void testBatchUndoRedo() {
+        String out = runBatch("filter name~=go\nfilter maxplayers>=10\nfilter undo\nfilter history 2\n"
+                + "filter redo\n", OutputFormat.TEXT, ConsoleApp.EXIT_FAILED);
+        // redo fails, as nothing after step 2 was undone
+        assertEquals(List.of("1: Go", "2: Go Fish", "1: Go Fish", "1: Go", "2: Go Fish", "1: Go Fish"),
+                List.of(out.trim().split("\\R")));
+    }
+
+    @Test
+    public void testListAddDoesNotAddFilterStep() {
+        GameList list = new GameList();
+        Planner planner = new Planner(games, list);
+        StringWriter out = new StringWriter();
+        ConsoleApp app = new ConsoleApp(list, planner, new Scanner("filter rating>=8 sort:rating desc\nlist add 1\n"
+                + "filter undo\n"), new PrintWriter(out), new PrintWriter(new StringWriter()), OutputFormat.TEXT, true);
+        assertEquals(ConsoleApp.EXIT_OK, app.run());
+        assertEquals(List.of("17 days"), list.getGameNames()); // the list numbers games by name
+        assertEquals(2, planner.history().size());
+        assertEquals(0, planner.history().position());
+        assertEquals(4, planner.current().count());
+    }
+}
@@ -0,0 +1,67 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FilterHistoryTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+    }
+
+    @Test
+    public void testUndoRedoJump() {
+        Planner planner = new Planner(games);
+        assertFalse(planner.undo());
+        List<BoardGame> two = planner.filter("players==2").collect(Collectors.toList());
+        ResultSnapshot twoSnapshot = planner.snapshot();
+        List<BoardGame> quick = planner.filter("time<=30", GameData.RATING, false).collect(Collectors.toList());
+        planner.reset();
+        assertEquals(4, planner.history().size());
+        assertEquals("time<=30 sort:average desc", planner.history().label(2));
+        assertEquals(Planner.RESET_LABEL, planner.history().label(3));
+
+        assertTrue(planner.undo());
+        assertEquals(quick, planner.snapshot().getGames());
+        assertTrue(planner.undo());
+        assertEquals(two, planner.snapshot().getGames());
+        assertSame(twoSnapshot.getGames(), planner.snapshot().getGames(), "no filter is run again");
+        assertEquals(5, planner.snapshot().getVersion());
+        assertTrue(planner.redo());
+        assertEquals(quick, planner.snapshot().getGames());
+
+        assertTrue(planner.jumpTo(0).isEmpty());
+        assertEquals(0, planner.history().position());
+        assertTrue(planner.history().canRedo());
+        assertEquals(two, planner.jumpTo(1).getGames());
+        assertThrows(IllegalArgumentException.class, () -> planner.jumpTo(4));
+
+        // a filter after going back drops the steps after it
+        planner.filter("rating>=8");
+        assertEquals(3, planner.history().size());
+        assertFalse(planner.redo());
+        assertTrue(planner.undo());
+        assertEquals(two, planner.filter("").collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testOldStepsDropped() {
+        Planner planner = new Planner(games);
+        for (int i = 0; i < FilterHistory.MAX_STEPS + 10; i++) {
+            planner.filter("rating>=" + (i % 10));
+        }
+        FilterHistory history = planner.history();
+        assertEquals(FilterHistory.MAX_STEPS, history.size());
+        assertEquals(FilterHistory.MAX_STEPS - 1, history.position());
+        assertEquals("rating>=0 sort:objectname asc", history.label(0));
+        assertTrue(planner.jumpTo(0).size() > 0);
+    }
+}
@@ -0,0 +1,165 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FilterTest {
+
+    public Set<BoardGame> games;
+
+    @BeforeEach
+    void setUp() {
+        games = new HashSet<>();
+        games.add(new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005));
+        games.add(new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006));
+        games.add(new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+        games.add(new BoardGame("Go Fish", 2, 2, 10, 20, 120, 3.0, 200, 6.5, 2001));
+        games.add(new BoardGame("golang", 4, 2, 7, 50, 55, 7.0, 400, 9.5, 2003));
+        games.add(new BoardGame("GoRami", 3, 6, 6, 40, 42, 5.0, 300, 8.5, 2002));
+        games.add(new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+        games.add(new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+        games.add(new BoardGame("a>b, c", 9, 1, 1, 5, 5, 1.0, 900, 4.0, 2010));
+    }
+
+    private List<String> names(String filter) {
+        return Filter.applyFilter(games.stream(), filter)
+                .map(BoardGame::getName)
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testCommaIsAnd() {
+        assertEquals(List.of("Go Fish", "golang"), names("name~=go, minPlayers<3, maxPlayers >= 7"));
+    }
+
+    @Test
+    void testOrAndGrouping() {
+        assertEquals(List.of("17 days", "Chess", "Monopoly"),
+                names("rating>=9.9 | (minPlayers==6 and maxPlayers!=6) or year==2005"));
+        assertEquals(List.of("Chess", "Go", "Go Fish"),
+                names("(name==chess or name==go fish) || name==go"));
+    }
+
+    @Test
+    void testNot() {
+        assertEquals(List.of("17 days", "a>b, c", "Chess"), names("not name~=go, !name~=o"));
+    }
+
+    @Test
+    void testBetweenAndIn() {
+        assertEquals(List.of("Go", "Go Fish", "GoRami"), names("year between 2000 and 2002"));
+        assertEquals(List.of("Chess", "GoRami"), names("maxPlayers in (2, 6)"));
+        assertEquals(List.of("Chess", "Go"), names("name in (chess, 'go')"));
+        assertEquals(7, names("maxPlayers not in (2, 6)").size());
+    }
+
+    @Test
+    void testOperatorCharactersInValues() {
+        assertEquals(List.of("a>b, c"), names("name~=a>b"));
+        assertEquals(List.of("a>b, c"), names("name==\"A>B, C\""));
+        assertEquals(List.of("Go Fish"), names("name == go fish"));
+    }
+
+    @Test
+    void testSeparatorsInCatalogNames() {
+        Set<BoardGame> catalog = GamesLoader.loadGamesFile("/collection.csv");
+        for (String filter : List.of("name==Tigris & Euphrates", "name==Thurn and Taxis", "name == Hand and Foot",
+                "name~=tigris & euph")) {
+            List<String> found = Filter.applyFilter(catalog.stream(), filter)
+                    .map(BoardGame::getName).collect(Collectors.toList());
+            assertEquals(1, found.size(), filter);
+        }
+        assertEquals(0, Filter.applyFilter(catalog.stream(), "name~=zzz or Taxis").count());
+        assertEquals(List.of("Thurn and Taxis", "Tigris & Euphrates"),
+                Filter.applyFilter(catalog.stream(), "name==Thurn and Taxis or name==Tigris & Euphrates")
+                        .map(BoardGame::getName).sorted().collect(Collectors.toList()));
+        assertEquals(1, Filter.applyFilter(catalog.stream(), "name in (Tigris & Euphrates, 'x')").count());
+        assertEquals(Filter.applyFilter(catalog.stream(), "name~=taxis").count(),
+                Filter.applyFilter(catalog.stream(), "name~=taxis & minPlayers>=2").count());
+    }
+
+    @Test
+    void testInputsTheCommaFiltersAccepted() {
+        Set<BoardGame> catalog = GamesLoader.loadGamesFile("/collection.csv");
+        assertEquals(Filter.applyFilter(catalog.stream(), "rating>7").count(),
+                Filter.applyFilter(catalog.stream(), ",rating>7").count());
+        assertEquals(catalog.size(), Filter.applyFilter(catalog.stream(), ",,").count());
+        List<String> parens = Filter.applyFilter(catalog.stream(), "name~=)")
+                .map(BoardGame::getName).collect(Collectors.toList());
+        assertFalse(parens.isEmpty());
+        assertTrue(parens.stream().allMatch(name -> name.contains(")")), parens.toString());
+        assertEquals(parens.size(), Filter.applyFilter(catalog.stream(), "name~=(").count());
+        List<String> quotes = Filter.applyFilter(catalog.stream(), "name~='s")
+                .map(BoardGame::getName).collect(Collectors.toList());
+        assertFalse(quotes.isEmpty());
+        assertTrue(quotes.stream().allMatch(name -> name.toLowerCase().contains("'s")), quotes.toString());
+        assertEquals(1, Filter.applyFilter(catalog.stream(), "(name~=tigris)").count());
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("(name~=go))"));
+    }
+
+    @Test
+    void testInvalidConditionsAreIgnored() {
+        assertEquals(9, names("foo>3").size());
+        assertEquals(9, names("id==1").size());
+        assertEquals(9, names("minPlayers>many").size());
+        assertEquals(9, names("").size());
+        assertEquals(List.of("Chess"), names("minplayers, name==chess,"));
+    }
+
+    @Test
+    void testMalformedFilterThrows() {
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("(name~=go"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("rating>7)"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("year between 2000"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("\"name==go"));
+    }
+
+    @Test
+    void testIgnoredConditionOutsideCommasThrows() {
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("rating>8 or minPlayers>many"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("not foo>3"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("rating>8 & foo>3"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("rating>8 and minplayers"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("minplayers | rating>8"));
+    }
+
+    @Test
+    void testScopesToList() {
+        assertTrue(Filter.scopesToList("inList, rating>8"));
+        assertFalse(Filter.scopesToList("inList | rating>8"));
+        assertFalse(Filter.scopesToList("rating>8"));
+    }
+
+    @Test
+    void testRangeConditions() {
+        assertEquals(List.of("17 days", "Go", "Go Fish", "golang"), names("players==3"));
+        assertEquals(List.of("a>b, c", "Chess", "Go Fish", "Monopoly"), names("time<=20"));
+        assertEquals(List.of("Go Fish", "Monopoly"), names("playtime>=100"));
+        assertEquals(List.of("Go Fish", "Monopoly"), names("players between 9 and 12, time>=100"));
+        assertEquals(List.of("a>b, c", "Chess"), names("players in (1, 2), players!=5"));
+    }
+
+    @Test
+    void testBitmapMatchesPredicate() {
+        GameCatalog catalog = new GameCatalog();
+        games.forEach(catalog::intern);
+        for (String filter : List.of("players==6", "players!=2", "players<2", "players<=2", "players>10",
+                "players>=10", "time==55", "time<30", "not players in (2, 5) | time>100", "rating>=8", "difficulty==5.0",
+                "difficulty!=5", "year between 2001 and 2004", "maxPlayers in (2, 10)", "rank<300 or !(players>6)")) {
+            FilterNode node = Filter.parse(filter);
+            BitSet expected = new BitSet();
+            for (int i = 0; i < catalog.size(); i++) {
+                if (node.compile(g -> true).test(catalog.get(i))) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, node.bitmap(catalog), filter);
+        }
+    }
+}
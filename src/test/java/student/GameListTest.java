@@ -8,6 +8,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +41,17 @@ public class GameListTest {
     }
 
 
+    @Test
+    void testPlannersDoNotShareCatalogs() {
+        Planner first = new Planner(games);
+        Planner second = new Planner(games);
+        assertNotSame(first.getCatalog(), second.getCatalog());
+        assertEquals(games.size(), first.getCatalog().size());
+        GameList list = new GameList();
+        assertSame(list.getCatalog(), new Planner(games, list).getCatalog());
+        assertNotSame(list.getCatalog(), new GameList().getCatalog());
+    }
+
     @Test
     void getGameNames() {
         gameList.addToList("all", games.stream());
@@ -236,4 +248,125 @@ public class GameListTest {
     }
 
 
+    @Test
+    void testGamesSharingNameAreKeptApart() {
+        BoardGame other = new BoardGame("Chess", 70, 2, 2, 5, 10, 2.0, 900, 6.0, 1990);
+        gameList.addToList("all", Stream.concat(games.stream(), Stream.of(other)));
+        assertEquals(9, gameList.count());
+        assertEquals(List.of("Chess", "Chess"), gameList.getGameNames().subList(1, 3));
+    }
+
+    @Test
+    void testOtherListReadOncePerFilter() {
+        gameList.addToList("chess", games.stream());
+        gameList.addToList("go", games.stream());
+        int[] reads = new int[1];
+        IGameList other = new IGameList() {
+            @Override
+            public List<String> getGameNames() {
+                reads[0]++;
+                return gameList.getGameNames();
+            }
+
+            @Override
+            public void clear() {
+                gameList.clear();
+            }
+
+            @Override
+            public int count() {
+                return gameList.count();
+            }
+
+            @Override
+            public void saveGame(String filename) {
+                gameList.saveGame(filename);
+            }
+
+            @Override
+            public void addToList(String str, Stream<BoardGame> filtered) {
+                gameList.addToList(str, filtered);
+            }
+
+            @Override
+            public void removeFromList(String str) {
+                gameList.removeFromList(str);
+            }
+        };
+        Planner planner = new Planner(games, other);
+        assertEquals(List.of("Chess", "Go", "Monopoly"),
+                planner.filter("inList | difficulty<2").map(BoardGame::getName).collect(Collectors.toList()));
+        assertEquals(1, reads[0]);
+        assertEquals(List.of("Chess", "Monopoly"), planner.filter("not (inList & rating<9)").map(BoardGame::getName)
+                .collect(Collectors.toList()));
+        assertEquals(2, reads[0]);
+    }
+
+    @Test
+    void testIntersectWithOrdinals() {
+        GameCatalog catalog = new GameCatalog();
+        GameList list = new GameList(catalog);
+        list.addToList("1-3", games.stream());
+        BitSet matches = new BitSet();
+        for (BoardGame game : games) {
+            if (game.getMaxPlayers() >= 5) {
+                matches.set(catalog.intern(game));
+            }
+        }
+        BitSet both = list.intersect(matches);
+        assertEquals(2, both.cardinality()); // "17 days" and "Go"
+        assertTrue(list.contains(games.stream().filter(g -> g.getName().equals("Go")).findFirst().get()));
+    }
+
+
+    @Test
+    public void testSuggestGames() {
+        GameCatalog catalog = new GameCatalog();
+        GameList list = new GameList(catalog);
+        list.addToList("all", games.stream());
+        list.removeFromList("go fish");
+        assertEquals(List.of("Go"), list.suggestGames("Goa", 2, 5));
+        assertEquals(List.of("Go", "GoRami", "golang"), list.suggestGames("Goam", 3, 5));
+        assertEquals(List.of("Chess"), list.suggestGames("chss", 1, 5));
+        assertEquals(List.of("Go Fish"), list.suggestGames("  GO FISH ", 0, 5));
+        assertTrue(list.suggestInList("go fsh", 1, 5).isEmpty(), "removed games are not suggested");
+        assertEquals(List.of("Monopoly"), list.suggestInList("monopol", 1, 5));
+        assertEquals(1, list.suggestGames("go", 3, 1).size());
+    }
+
+    @Test
+    public void testNameIndexMatchesBruteForce() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv");
+        NameIndex index = catalog.nameIndex();
+        Random random = new Random(44);
+        for (int q = 0; q < 30; q++) {
+            String name = NameIndex.normalize(catalog.get(random.nextInt(catalog.size())).getName());
+            char[] typo = name.toCharArray();
+            typo[random.nextInt(typo.length)] = 'x';
+            String query = new String(typo);
+            Set<String> expected = new TreeSet<>();
+            for (int i = 0; i < catalog.size(); i++) {
+                String other = NameIndex.normalize(catalog.get(i).getName());
+                if (levenshtein(query, other) <= 2) {
+                    expected.add(other);
+                }
+            }
+            Set<String> found = new TreeSet<>();
+            for (int ordinal : index.closest(query, 2, Integer.MAX_VALUE, null)) {
+                found.add(NameIndex.normalize(catalog.get(ordinal).getName()));
+            }
+            assertEquals(expected, found, query);
+        }
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
 }
@@ -0,0 +1,57 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GamesLoaderTest {
+
+    @Test
+    public void testLoadsInFileOrder() throws IOException {
+        List<String> names;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                GamesLoader.class.getResourceAsStream("/collection.csv"), StandardCharsets.UTF_8))) {
+            names = reader.lines().skip(1).map(line -> line.split(",")[0]).collect(Collectors.toList());
+        }
+        List<String> loaded = GamesLoader.loadGamesFile("/collection.csv").stream()
+                .map(BoardGame::getName).collect(Collectors.toList());
+        assertEquals(names.subList(0, 20), loaded.subList(0, 20));
+    }
+
+    @Test
+    public void testCatalogOrdinalsAreStable() {
+        GameCatalog first = GamesLoader.loadCatalog("/collection.csv");
+        GameCatalog second = GamesLoader.loadCatalog("/collection.csv", GameCatalog.compact());
+        assertEquals(first.size(), second.size());
+        List<BoardGame> table = first.asList();
+        assertTrue(table instanceof RandomAccess);
+        assertEquals(first.size(), table.size());
+        assertEquals(new ArrayList<>(GamesLoader.loadGamesFile("/collection.csv")), table);
+        assertEquals(table, second.asList());
+        for (int i = 0; i < first.size(); i++) {
+            int[] ordinals = first.ordinalsOfId(first.get(i).getId());
+            assertTrue(Arrays.binarySearch(ordinals, i) >= 0);
+            assertEquals(ordinals[0], first.ordinalOfId(first.get(i).getId()));
+        }
+        assertEquals(-1, first.ordinalOfId(-5));
+    }
+
+    @Test
+    public void testDuplicateIds() {
+        GameCatalog catalog = new GameCatalog();
+        for (int i = 0; i < 100; i++) {
+            catalog.intern(new BoardGame("Game " + i, i % 10, 1, 2, 3, 4, 1.0, i, 5.0, 2000));
+        }
+        assertEquals(3, catalog.ordinalOfId(3));
+        assertArrayEquals(new int[] {3, 13, 23, 33, 43, 53, 63, 73, 83, 93}, catalog.ordinalsOfId(3));
+        assertEquals(0, catalog.ordinalsOfId(10).length);
+        assertEquals(43, catalog.ordinalOf(new BoardGame("Game 43", 3, 0, 0, 0, 0, 0, 0, 0, 0)));
+    }
+}
@@ -0,0 +1,103 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void testUsageCountsIndexesAndSessions() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv");
+        Planner planner = new Planner(catalog, new GameList(catalog));
+        MemoryUsage before = planner.memoryUsage();
+        assertTrue(before.get(MemoryUsage.GAMES) > 0);
+        assertEquals(0, before.get(MemoryUsage.PREFIX_INDEX));
+
+        planner.filter("players==2, rating>=7");
+        planner.complete("t", 5);
+        MemoryUsage after = planner.memoryUsage();
+        assertTrue(after.get(MemoryUsage.PREFIX_INDEX) > 0);
+        assertTrue(after.get(MemoryUsage.INTERVAL_INDEXES) > 0);
+        assertTrue(after.get(MemoryUsage.SESSIONS) > before.get(MemoryUsage.SESSIONS));
+        assertEquals(after.getParts().values().stream().mapToLong(Long::longValue).sum(), after.total());
+        assertTrue(MemoryBudget.usage().total() >= after.total());
+    }
+
+    @Test
+    public void testBudgetTrimsHistoryThenEvictsIndexes() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv");
+        Planner planner = new Planner(catalog, null);
+        Planner fresh = new Planner(catalog, null);
+        fresh.filter("rating>=6");
+        List<BoardGame> expected = fresh.filter("players==4", GameData.RATING, false).collect(Collectors.toList());
+        long limit = MemoryBudget.getLimit();
+        try {
+            planner.filter("rating>=6");
+            planner.filter("players==4", GameData.RATING, false);
+            List<BoardGame> best = planner.top(ScoringSpec.of(1), 3);
+            assertEquals(3, planner.history().size());
+            MemoryBudget.setLimit(MemoryBudget.fixed() + 1);
+            assertTrue(MemoryBudget.enforce() > 0);
+
+            assertEquals(2, planner.history().size(), "undo steps dropped");
+            MemoryUsage usage = planner.memoryUsage();
+            assertEquals(0, usage.get(MemoryUsage.COLUMNS));
+            assertEquals(0, usage.get(MemoryUsage.SIMILARITY_INDEX));
+            assertEquals(0, usage.get(MemoryUsage.INTERVAL_INDEXES));
+            assertEquals(expected, planner.snapshot().getGames(), "current results kept");
+            assertEquals(best, planner.top(ScoringSpec.of(1), 3), "indexes rebuilt when needed");
+        } finally {
+            MemoryBudget.setLimit(limit);
+        }
+        assertThrows(IllegalArgumentException.class, () -> MemoryBudget.setLimit(-1));
+    }
+
+    @Test
+    public void testQueriesKeepIndexesInUse() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv");
+        Planner planner = new Planner(catalog, null);
+        long limit = MemoryBudget.getLimit();
+        try {
+            planner.filter("rating>=6");
+            planner.filter("players==4");
+            MemoryBudget.setLimit(MemoryBudget.fixed() + 1024);
+            planner.filter("time<=60");
+
+            assertEquals(2, planner.history().size(), "undo steps dropped");
+            assertTrue(planner.memoryUsage().get(MemoryUsage.INTERVAL_INDEXES) > 0, "index in use kept");
+        } finally {
+            MemoryBudget.setLimit(limit);
+        }
+    }
+
+    @Test
+    public void testNothingDroppedWhenBudgetIsBelowWhatMustBeKept() {
+        GameCatalog catalog = GamesLoader.loadCatalog("/collection.csv");
+        Planner planner = new Planner(catalog, null);
+        long limit = MemoryBudget.getLimit();
+        try {
+            planner.filter("rating>=6");
+            MemoryBudget.setLimit(0);
+            planner.filter("players==4");
+
+            assertEquals(3, planner.history().size());
+            assertTrue(planner.memoryUsage().get(MemoryUsage.INTERVAL_INDEXES) > 0);
+            assertEquals(0, MemoryBudget.enforce());
+        } finally {
+            MemoryBudget.setLimit(limit);
+        }
+        assertTrue(MemoryBudget.used() >= MemoryBudget.fixed());
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("512 B", MemoryUsage.format(512));
+        assertEquals("1.5 KB", MemoryUsage.format(1536));
+        assertEquals("2.0 MB", MemoryUsage.format(2L << 20));
+        assertTrue(new MemoryUsage(Map.of(MemoryUsage.GAMES, 2048L)).toString().startsWith("2.0 KB (games"));
+    }
+}
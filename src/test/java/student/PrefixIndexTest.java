@@ -0,0 +1,58 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixIndexTest {
+
+    static GameCatalog catalog;
+    static Planner planner;
+
+    @BeforeAll
+    static void setUp() {
+        catalog = GamesLoader.loadCatalog("/collection.csv");
+        planner = new Planner(catalog, new GameList(catalog));
+    }
+
+    private static List<BoardGame> bruteForce(Collection<BoardGame> games, String prefix, int n, SortKey order) {
+        return games.stream().filter(g -> g.getName().toLowerCase().startsWith(prefix.toLowerCase()))
+                .sorted(Sorting.comparator(List.of(order))).limit(n).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        List<BoardGame> all = new ArrayList<>(catalog.asList());
+        List<SortKey> orders = List.of(SortKey.of(GameData.RATING, false), SortKey.of(GameData.RANK, true),
+                SortKey.of(GameData.YEAR, false), SortKey.of(GameData.NAME, true));
+        for (String prefix : List.of("", "t", "Ti", "the ", "cat", "z", "zzzz", "\uffff")) {
+            for (SortKey order : orders) {
+                for (int n : new int[] {0, 1, 5, 1000}) {
+                    assertEquals(bruteForce(all, prefix, n, order), planner.complete(prefix, n, order),
+                            prefix + " " + order + " " + n);
+                }
+            }
+        }
+        assertEquals(bruteForce(all, "tick", 5, SortKey.of(GameData.RATING, false)), planner.complete("TICK", 5));
+    }
+
+    @Test
+    public void testOnlyPlannerGames() {
+        GameCatalog shared = new GameCatalog();
+        Set<BoardGame> some = new LinkedHashSet<>();
+        for (int i = 0; i < catalog.size(); i++) {
+            shared.intern(catalog.get(i));
+            if (i % 3 == 0) {
+                some.add(catalog.get(i));
+            }
+        }
+        Planner part = new Planner(some, new GameList(shared));
+        SortKey order = SortKey.of(GameData.RATING, false);
+        assertEquals(bruteForce(some, "t", 20, order), part.complete("t", 20, order));
+        assertThrows(IllegalArgumentException.class, () -> part.complete("t", -1));
+    }
+}
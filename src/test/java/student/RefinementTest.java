@@ -0,0 +1,78 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefinementTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+    }
+
+    private static List<BoardGame> fresh(String first, String second, List<SortKey> keys) {
+        Planner planner = new Planner(games);
+        planner.filter(first);
+        return planner.filter(second, keys).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEditsMatchFreshFilters() {
+        List<SortKey> byRating = SortKey.parse("rating desc");
+        List<List<String>> chains = List.of(
+                List.of("rating>7", "rating>7.5", "rating>=7.5", "rating>6", "rating>6", "rating>=9", "rating<8"),
+                List.of("year<=2010, time<=60", "year<2005, time<=60", "year<=2015, time<=60",
+                        "year<=2015, time<=30", "year<=2015, time<=30, rating>5"),
+                List.of("name~=a", "name~=an", "name~=ant", "name~=an", "name~=xyz"),
+                List.of("minplayers>=2", "minplayers>2", "minplayers>=1"));
+        for (List<String> chain : chains) {
+            Planner planner = new Planner(games);
+            planner.filter("players>=2");
+            planner.filter(chain.get(0), byRating);
+            for (String edit : chain.subList(1, chain.size())) {
+                List<SortKey> keys = edit.contains("~=") ? List.of(SortKey.of(GameData.NAME, true)) : byRating;
+                assertEquals(fresh("players>=2", edit, keys), planner.refine(edit, keys).getGames(), edit);
+                assertEquals(3, planner.history().size(), "the edit replaces the last step");
+                assertEquals(edit + " sort:" + keys.get(0), planner.history().label(2));
+            }
+        }
+    }
+
+    @Test
+    public void testUndoAfterRefine() {
+        Planner planner = new Planner(games);
+        List<BoardGame> all = planner.refine("rating>7", List.of()).getGames();
+        assertEquals(2, planner.history().size(), "no filter to edit, so a plain filter");
+        planner.refine("rating>8", List.of());
+        assertTrue(planner.undo());
+        assertTrue(planner.snapshot().isEmpty());
+        assertTrue(planner.redo());
+        assertEquals(fresh("", "rating>8", List.of()), planner.snapshot().getGames());
+        planner.reset();
+        assertEquals(all, planner.refine("rating>7", List.of()).getGames());
+        assertThrows(IllegalArgumentException.class, () -> planner.refine("(name~=go", List.of()));
+    }
+
+    @Test
+    public void testRefineAfterHistoryTrimmed() {
+        Planner planner = new Planner(games);
+        planner.filterSnapshot("rating>8", List.of());
+        planner.trimHistory();
+        assertEquals(2, planner.history().size(), "the step before a filter is kept");
+        assertEquals(fresh("", "rating>7", List.of()), planner.refine("rating>7", List.of()).getGames());
+        assertEquals(2, planner.history().size());
+
+        for (int i = 0; i < FilterHistory.MAX_STEPS; i++) {
+            planner.filter("rating>" + i % 9);
+        }
+        planner.jumpTo(0);
+        assertThrows(IllegalStateException.class, () -> planner.refine("rating>7", List.of()));
+    }
+}
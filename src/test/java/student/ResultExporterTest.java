@@ -0,0 +1,95 @@
+package student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultExporterTest {
+
+    public List<BoardGame> games;
+
+    @BeforeEach
+    void setUp() {
+        games = List.of(
+                new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Oh, \"my\"", 9, 2, 4, 15, 30, 1.5, 900, 6.25, 2010));
+    }
+
+    @Test
+    public void testCsvColumns() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultExporter exporter = new ResultExporter(OutputFormat.CSV,
+                List.of(GameData.NAME, GameData.RATING, GameData.YEAR), false);
+        assertEquals(2, exporter.export(games.stream(), out));
+        assertEquals("objectname,average,yearpublished\nChess,10.0,2006\n\"Oh, \"\"my\"\"\",6.25,2010\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGzipJsonLinesFile() throws IOException {
+        Path file = Files.createTempFile("export", ".jsonl.gz");
+        try {
+            ResultExporter exporter = ResultExporter.forFile(file.toString(), List.of(GameData.ID, GameData.NAME));
+            assertEquals(2, exporter.export(games.stream(), file));
+            byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(Files.readAllBytes(file))).readAllBytes();
+            assertEquals("{\"objectid\":7,\"objectname\":\"Chess\"}\n{\"objectid\":9,\"objectname\":\"Oh, \\\"my\\\"\"}\n",
+                    new String(unzipped, StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFailedExportKeepsFile() throws IOException {
+        Path dir = Files.createTempDirectory("export");
+        Path file = dir.resolve("games.csv.gz");
+        try {
+            Files.writeString(file, "before");
+            ResultExporter exporter = ResultExporter.forFile(file.toString(), List.of(GameData.NAME));
+            Iterator<BoardGame> failing = new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public BoardGame next() {
+                    if (next == games.size()) {
+                        throw new IllegalStateException("source failed");
+                    }
+                    return games.get(next++);
+                }
+            };
+            Spliterator<BoardGame> source = Spliterators.spliteratorUnknownSize(failing, Spliterator.ORDERED);
+            assertThrows(IllegalStateException.class,
+                    () -> exporter.export(StreamSupport.stream(source, false), file));
+            assertEquals("before", Files.readString(file));
+            try (var files = Files.list(dir)) {
+                assertEquals(List.of(file), files.toList(), "temporary file removed");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testInvalidExport() {
+        assertThrows(IllegalArgumentException.class, () -> ResultExporter.forFile("games.txt", OutputFormat.ALL_COLUMNS));
+        assertThrows(IllegalArgumentException.class, () -> new ResultExporter(OutputFormat.TEXT, false));
+        assertThrows(IllegalArgumentException.class, () -> new ResultExporter(OutputFormat.CSV, List.of(), false));
+    }
+}
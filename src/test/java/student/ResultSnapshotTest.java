@@ -0,0 +1,91 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultSnapshotTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+    }
+
+    @Test
+    public void testStreamSurvivesLaterFilters() {
+        Planner planner = new Planner(games);
+        Stream<BoardGame> early = planner.filter("players==2", GameData.RATING, false);
+        ResultSnapshot snapshot = planner.snapshot();
+        List<BoardGame> expected = new ArrayList<>(snapshot.getGames());
+
+        planner.filter("time<=30");
+        planner.reset();
+        planner.filter("rating>=8");
+
+        assertEquals(expected, early.collect(Collectors.toList()));
+        assertEquals(expected, snapshot.getGames());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getGames().clear());
+    }
+
+    @Test
+    public void testVersionsAndSharing() {
+        Planner planner = new Planner(games);
+        assertEquals(0, planner.snapshot().getVersion());
+        assertTrue(planner.snapshot().isEmpty());
+
+        ResultSnapshot first = planner.filterSnapshot("players==4", SortKey.parse("rating desc"));
+        assertEquals(1, first.getVersion());
+        ResultSnapshot same = planner.filterSnapshot("", SortKey.parse("rating desc"));
+        assertEquals(2, same.getVersion());
+        assertSame(first.getGames(), same.getGames(), "an unchanged result shares its games");
+        assertSame(first.ordinals(), same.ordinals());
+
+        ResultSnapshot resorted = planner.filterSnapshot("", SortKey.parse("name"));
+        assertSame(first.ordinals(), resorted.ordinals());
+        assertEquals(first.size(), resorted.size());
+        assertNotEquals(first.getGames(), resorted.getGames());
+
+        planner.reset();
+        assertEquals(4, planner.snapshot().getVersion());
+        assertEquals(0, planner.snapshot().size());
+        assertEquals(first.size(), planner.filterSnapshot("players==4", List.of()).size());
+    }
+
+    @Test
+    public void testConcurrentFiltersAllApply() throws Exception {
+        Planner planner = new Planner(games);
+        planner.setParallelThreshold(Integer.MAX_VALUE);
+        List<String> filters = List.of("players>=2", "time<=120", "rating>=6", "difficulty<4");
+        List<BoardGame> expected = new Planner(games).filter(String.join(",", filters)).collect(Collectors.toList());
+
+        ExecutorService pool = Executors.newFixedThreadPool(filters.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ResultSnapshot>> results = new ArrayList<>();
+            for (String filter : filters) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return planner.filterSnapshot(filter, List.of(SortKey.of(GameData.NAME, true)));
+                }));
+            }
+            start.countDown();
+            Set<Long> versions = new TreeSet<>();
+            for (Future<ResultSnapshot> result : results) {
+                versions.add(result.get(10, TimeUnit.SECONDS).getVersion());
+            }
+            assertEquals(Set.of(1L, 2L, 3L, 4L), versions);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(4, planner.snapshot().getVersion());
+        assertEquals(expected, planner.snapshot().getGames());
+    }
+}
@@ -0,0 +1,71 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoringTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            games.add(new BoardGame("Scored " + (i % 5), 700000 + i, 1 + random.nextInt(3), 2 + random.nextInt(5),
+                    15 * random.nextInt(5), 30 + 15 * random.nextInt(6), random.nextInt(4),
+                    i, i % 50 == 0 ? Double.NaN : random.nextInt(10), 2000));
+        }
+    }
+
+    @Test
+    public void testTopMatchesSortedStream() {
+        List<ScoringSpec> specs = List.of(
+                ScoringSpec.of(1),
+                ScoringSpec.of(0).withPlayers(4, 1),
+                ScoringSpec.of(1).withDifficulty(2.5, 0.5).withTime(60, 2).withPlayers(4, 3),
+                ScoringSpec.of(-0.5).withTime(45, 1));
+        for (boolean compact : new boolean[] {false, true}) {
+            GameCatalog catalog = compact ? GameCatalog.compact() : new GameCatalog();
+            Planner planner = new Planner(games, new GameList(catalog));
+            for (ScoringSpec spec : specs) {
+                for (int k : new int[] {0, 1, 7, 100, games.size() + 5}) {
+                    List<BoardGame> expected = Scoring.top(games.stream(), spec, k).collect(Collectors.toList());
+                    assertEquals(expected, planner.top(spec, k), spec + " k=" + k);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTopOfCurrentResults() {
+        Planner planner = new Planner(games);
+        ScoringSpec spec = ScoringSpec.of(1).withPlayers(2, 5);
+        List<BoardGame> filtered = planner.filter("name~=scored").collect(Collectors.toList());
+        List<BoardGame> top = planner.top(spec, 10);
+        assertEquals(10, top.size());
+        assertTrue(filtered.containsAll(top));
+        assertEquals(filtered, planner.filter("").collect(Collectors.toList()), "current results unchanged");
+        assertTrue(spec.score(top.get(0)) >= spec.score(top.get(9)));
+    }
+
+    @Test
+    public void testScore() {
+        BoardGame game = new BoardGame("Game", 1, 2, 4, 30, 90, 3.0, 1, 8.0, 2020);
+        assertEquals(8.0, ScoringSpec.of(1).score(game));
+        assertEquals(8.0 - 0.5, ScoringSpec.of(1).withDifficulty(2.0, 0.5).score(game));
+        assertEquals(2.0, ScoringSpec.of(0).withTime(90, 2).score(game));
+        assertEquals(1.0, ScoringSpec.of(0).withTime(60, 2).score(game));
+        assertEquals(0.0, ScoringSpec.of(0).withTime(20, 2).score(game));
+        assertEquals(3.0, ScoringSpec.of(0).withPlayers(4, 3).score(game));
+        assertEquals(0.0, ScoringSpec.of(0).withPlayers(5, 3).score(game));
+        assertEquals(ScoringSpec.of(1).withTime(60, 2), ScoringSpec.of(1).withTime(60, 2));
+        assertThrows(IllegalArgumentException.class, () -> ScoringSpec.of(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new Planner(games).top(ScoringSpec.of(1), -1));
+    }
+}
@@ -0,0 +1,71 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimilarityTest {
+
+    static GameCatalog catalog;
+    static Planner planner;
+
+    @BeforeAll
+    static void setUp() {
+        catalog = GamesLoader.loadCatalog("/collection.csv");
+        planner = new Planner(catalog, new GameList(catalog));
+    }
+
+    /** Nearest games by checking every game, ties by ordinal. */
+    private static List<BoardGame> bruteForce(BoardGame game, int k, IntPredicate accept) {
+        SimilarityIndex index = catalog.similarityIndex();
+        double[] target = index.features(game);
+        List<Integer> ordinals = new ArrayList<>();
+        double[] distances = new double[catalog.size()];
+        for (int i = 0; i < catalog.size(); i++) {
+            double[] point = index.features(catalog.get(i));
+            for (int f = 0; f < SimilarityIndex.FEATURES; f++) {
+                distances[i] += (target[f] - point[f]) * (target[f] - point[f]);
+            }
+            if (accept.test(i)) {
+                ordinals.add(i);
+            }
+        }
+        ordinals.sort(Comparator.<Integer>comparingDouble(i -> distances[i]).thenComparing(i -> i));
+        return ordinals.stream().limit(k).map(catalog::get).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(43);
+        for (int q = 0; q < 50; q++) {
+            BoardGame game = catalog.get(random.nextInt(catalog.size()));
+            int self = catalog.ordinalOf(game);
+            for (int k : new int[] {0, 1, 10, 100}) {
+                assertEquals(bruteForce(game, k, i -> i != self), planner.similar(game, k), game + " k=" + k);
+            }
+        }
+    }
+
+    @Test
+    public void testWithFilter() {
+        BoardGame game = catalog.get(0);
+        int self = catalog.ordinalOf(game);
+        List<BoardGame> similar = planner.similar(game, 20, "players==2 && name~=a");
+        assertEquals(bruteForce(game, 20, i -> i != self && catalog.get(i).getMinPlayers() <= 2
+                && catalog.get(i).getMaxPlayers() >= 2 && catalog.get(i).getName().toLowerCase().contains("a")),
+                similar);
+        assertFalse(similar.contains(game));
+    }
+
+    @Test
+    public void testGameNotInCatalog() {
+        BoardGame outside = new BoardGame("Not loaded", -5, 2, 4, 30, 60, 2.5, 0, 7.5, 2020);
+        assertEquals(bruteForce(outside, 15, i -> true), planner.similar(outside, 15));
+        assertThrows(IllegalArgumentException.class, () -> planner.similar(outside, -1));
+    }
+}
@@ -0,0 +1,84 @@
+package student;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortKeyTest {
+
+    static Set<BoardGame> games;
+
+    @BeforeAll
+    static void setUp() {
+        games = new LinkedHashSet<>(GamesLoader.loadGamesFile("/collection.csv"));
+        Random random = new Random(41);
+        double[] doubles = {-0.0, 0.0, -1.5, 2.25, Double.NaN, Double.NEGATIVE_INFINITY, 7.0};
+        for (int i = 0; i < 500; i++) {
+            games.add(new BoardGame((i % 2 == 0 ? "Tie " : "tie ") + (i % 7), 800000 + i,
+                    random.nextInt(4), random.nextInt(8), -random.nextInt(3), random.nextInt(200),
+                    doubles[random.nextInt(doubles.length)], random.nextInt(5),
+                    doubles[random.nextInt(doubles.length)], 1990 + random.nextInt(5)));
+        }
+    }
+
+    @Test
+    public void testParse() {
+        List<SortKey> keys = SortKey.parse("rating desc, difficulty asc,year, maxplayersdesc");
+        assertEquals(4, keys.size());
+        assertEquals(GameData.RATING, keys.get(0).getColumn());
+        assertFalse(keys.get(0).isAscending());
+        assertEquals(GameData.DIFFICULTY, keys.get(1).getColumn());
+        assertTrue(keys.get(1).isAscending());
+        assertEquals(GameData.YEAR, keys.get(2).getColumn());
+        assertTrue(keys.get(2).isAscending());
+        assertEquals(GameData.MAX_PLAYERS, keys.get(3).getColumn());
+        assertFalse(keys.get(3).isAscending());
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("rating desc, nope"));
+        assertThrows(IllegalArgumentException.class, () -> SortKey.parse("rating, desc"));
+    }
+
+    @Test
+    public void testPackedSortMatchesComparator() {
+        List<List<SortKey>> sorts = List.of(
+                List.of(),
+                SortKey.parse("name desc"),
+                SortKey.parse("id"),
+                SortKey.parse("rating desc, difficulty asc"),
+                SortKey.parse("minplayers, maxplayers desc, minplaytime, year desc"),
+                SortKey.parse("difficulty desc, name, rank"));
+        for (boolean compact : new boolean[] {false, true}) {
+            GameCatalog catalog = compact ? GameCatalog.compact() : new GameCatalog();
+            Planner planner = new Planner(games, new GameList(catalog));
+            for (List<SortKey> keys : sorts) {
+                assertNotNull(PackedSort.of(catalog.columns(), keys));
+                List<BoardGame> expected = games.stream().sorted(Sorting.comparator(keys))
+                        .collect(Collectors.toList());
+                planner.reset();
+                assertEquals(names(expected), names(planner.filter("", keys).collect(Collectors.toList())),
+                        keys.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSingleKeyMatchesComparator() {
+        Planner planner = new Planner(games);
+        for (GameData column : GameData.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<BoardGame> expected = games.stream().sorted(Sorting.comparator(column, ascending))
+                        .collect(Collectors.toList());
+                planner.reset();
+                assertEquals(expected, planner.filter("", column, ascending).collect(Collectors.toList()),
+                        column + " " + ascending);
+            }
+        }
+    }
+
+    private static List<String> names(List<BoardGame> games) {
+        return games.stream().map(g -> g.getId() + ":" + g.getName()).collect(Collectors.toList());
+    }
+}
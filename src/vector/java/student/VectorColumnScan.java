@@ -0,0 +1,89 @@
+package student;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ColumnScan using the incubating Vector API, comparing a full vector of rows per step
+ * (8 to 16 ints or 4 to 8 doubles depending on the CPU) and writing the lane mask straight
+ * into the bitmask. Rows past the last full vector use the scalar comparison.
+ *
+ * Only loaded by name from {@link ColumnScan.Engine}, as it needs the jdk.incubator.vector
+ * module at runtime.
+ */
+final class VectorColumnScan implements ColumnScan {
+    /** int lanes per vector. */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /** double lanes per vector. */
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void scan(int[] column, int size, Operations op, int value, long[] mask) {
+        VectorOperators.Comparison cmp = comparison(op);
+        int lanes = INTS.length();
+        int bound = INTS.loopBound(size);
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            VectorMask<Integer> m = IntVector.fromArray(INTS, column, i).compare(cmp, value);
+            // lanes is a power of two no larger than 64, so a step never crosses a word
+            mask[i >>> 6] |= m.toLong() << (i & 63);
+        }
+        for (; i < size; i++) {
+            if (ScalarColumnScan.test(column[i], op, value)) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void scan(double[] column, int size, Operations op, double value, long[] mask) {
+        int lanes = DOUBLES.length();
+        int bound = DOUBLES.loopBound(size);
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, column, i);
+            VectorMask<Double> m;
+            if (op == Operations.EQUALS) {
+                m = v.sub(value).abs().compare(VectorOperators.LT, ScalarColumnScan.EPSILON);
+            } else if (op == Operations.NOT_EQUALS) {
+                m = v.sub(value).abs().compare(VectorOperators.GT, ScalarColumnScan.EPSILON);
+            } else {
+                m = v.compare(comparison(op), value);
+            }
+            mask[i >>> 6] |= m.toLong() << (i & 63);
+        }
+        for (; i < size; i++) {
+            if (ScalarColumnScan.test(column[i], op, value)) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Maps a filter operator to a vector comparison.
+     *
+     * @param op the operator.
+     * @return the comparison.
+     */
+    private static VectorOperators.Comparison comparison(Operations op) {
+        switch (op) {
+            case GREATER_THAN:
+                return VectorOperators.GT;
+            case GREATER_THAN_EQUALS:
+                return VectorOperators.GE;
+            case LESS_THAN:
+                return VectorOperators.LT;
+            case LESS_THAN_EQUALS:
+                return VectorOperators.LE;
+            case EQUALS:
+                return VectorOperators.EQ;
+            case NOT_EQUALS:
+                return VectorOperators.NE;
+            default:
+                throw new IllegalArgumentException("Not a numeric comparison: " + op);
+        }
+    }
+}